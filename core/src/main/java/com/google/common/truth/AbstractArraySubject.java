@@ -15,6 +15,9 @@
  */
 package com.google.common.truth;
 
+import static com.google.common.truth.StringUtil.format;
+
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -25,6 +28,23 @@ import java.util.List;
 public abstract class AbstractArraySubject<S extends AbstractArraySubject<S, T>, T>
     extends Subject<AbstractArraySubject<S, T>, T> {
 
+  /** The greatest number of distinct elements described in each part of a failure message. */
+  private static final int MAX_REPORTED_ELEMENTS = 10;
+
+  /**
+   * Whether equality, and propositions of list views of this array, should be evaluated in
+   * parallel. Set by {@link TestVerb#inParallel()}.
+   */
+  boolean parallel = false;
+
+  /**
+   * 1 if the array is known to ascend, -1 if it is known to descend, or 0 if neither is known.
+   * Primitive containment propositions binary search an array known to be sorted. Only the
+   * subjects returned by the sorting propositions know this, so that a subject never trusts an
+   * order which it found before its array was modified.
+   */
+  private int knownDirection = 0;
+
   public AbstractArraySubject(FailureStrategy failureStrategy, T subject) {
     super(failureStrategy, subject);
   }
@@ -49,4 +69,208 @@ public abstract class AbstractArraySubject<S extends AbstractArraySubject<S, T>,
         Platform.compressType(expectedType), underlyingType());
   }
 
-}
\ No newline at end of file
+  /**
+   * Fails unless {@code mismatch} finds the subject equal to the expected array, reporting the
+   * first index at which they differ and only the elements near it.
+   */
+  void checkEqual(ArrayMismatch mismatch, List<?> expected) {
+    int index = mismatch.first(parallel);
+    if (index >= 0) {
+      failWithoutSubject(format("is equal to the expected %s[]. %s",
+          underlyingType(), mismatch.describe(index, listRepresentation(), expected)));
+    }
+  }
+
+  /** Returns whether {@code mismatch} finds the subject equal to the expected array. */
+  boolean isEqual(ArrayMismatch mismatch) {
+    return mismatch.first(parallel) < 0;
+  }
+
+  /*
+   * The propositions shared by the primitive array subjects, which evaluate them on views of
+   * their arrays. Failure messages name the subject rather than describing it, since describing a
+   * large array would box every element.
+   */
+
+  /**
+   * Fails unless the array is sorted in {@code direction}, reporting the first pair of elements
+   * which is not, and returns whether it is sorted.
+   */
+  boolean checkSorted(PrimitiveElements actual, int direction, boolean strict) {
+    int index = actual.firstOutOfOrder(direction, strict);
+    if (index >= 0) {
+      String verb = strict ? "is strictly sorted" : "is sorted";
+      failWithoutSubject(format("%s%s. It has <%s> followed by <%s> at index %s",
+          verb, (direction < 0) ? " in descending order" : "",
+          actual.box(actual.key(index - 1)), actual.box(actual.key(index)), index));
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Fails unless the array is sorted in {@code direction}, and returns {@code sorted}, a new
+   * subject of the same array, which binary searches the array if it is sorted.
+   */
+  <V extends AbstractArraySubject<V, T>> V checkSorted(
+      PrimitiveElements actual, int direction, boolean strict, V sorted) {
+    AbstractArraySubject<?, ?> view = sorted;
+    view.parallel = parallel;
+    if (internalCustomName() != null) {
+      view.named(internalCustomName());
+    }
+    if (checkSorted(actual, direction, strict)) {
+      view.knownDirection = direction;
+    }
+    return sorted;
+  }
+
+  void checkContains(PrimitiveElements actual, long key) {
+    if (indexOf(actual, key) < 0) {
+      failWithoutSubject(format("contains <%s>", actual.box(key)));
+    }
+  }
+
+  void checkDoesNotContain(PrimitiveElements actual, long key) {
+    int index = indexOf(actual, key);
+    if (index >= 0) {
+      failWithoutSubject(
+          format("does not contain <%s>. It has it at index %s", actual.box(key), index));
+    }
+  }
+
+  /**
+   * Fails unless the subject has every expected element, as many times as it occurs. The
+   * expected elements are counted in a hash table, and the subject is scanned only until all of
+   * them have been found.
+   */
+  void checkContainsAllOf(PrimitiveElements actual, PrimitiveElements expected) {
+    LongHashCounter required = expected.counts();
+    int outstanding = expected.size();
+    for (int i = 0; outstanding > 0 && i < actual.size(); i++) {
+      if (required.removeOne(actual.key(i))) {
+        outstanding--;
+      }
+    }
+    if (outstanding > 0) {
+      Elements missing = new Elements();
+      for (int i = 0; i < expected.size(); i++) {
+        long key = expected.key(i);
+        missing.add(expected.box(key), required.removeAll(key));
+      }
+      failWithoutSubject("contains all of the expected elements. It is missing " + missing);
+    }
+  }
+
+  /**
+   * Fails unless the subject has exactly the expected elements, in any order, as many times as
+   * each occurs. Sorted copies of both arrays are merged.
+   */
+  void checkContainsExactly(PrimitiveElements actual, PrimitiveElements expected) {
+    long[] actualKeys = actual.sortedKeys();
+    long[] expectedKeys = expected.sortedKeys();
+    Elements missing = new Elements();
+    Elements extra = new Elements();
+    int i = 0;
+    int j = 0;
+    while (i < actualKeys.length || j < expectedKeys.length) {
+      long key = (j == expectedKeys.length
+          || (i < actualKeys.length && actualKeys[i] < expectedKeys[j]))
+          ? actualKeys[i]
+          : expectedKeys[j];
+      int inActual = 0;
+      while (i < actualKeys.length && actualKeys[i] == key) {
+        i++;
+        inActual++;
+      }
+      int inExpected = 0;
+      while (j < expectedKeys.length && expectedKeys[j] == key) {
+        j++;
+        inExpected++;
+      }
+      if (inExpected > inActual) {
+        missing.add(actual.box(key), inExpected - inActual);
+      } else if (inActual > inExpected) {
+        extra.add(actual.box(key), inActual - inExpected);
+      }
+    }
+    if (!missing.isEmpty() || !extra.isEmpty()) {
+      StringBuilder message = new StringBuilder("contains exactly the expected elements");
+      if (!missing.isEmpty()) {
+        message.append(". It is missing ").append(missing);
+      }
+      if (!extra.isEmpty()) {
+        message.append(". It has unexpected ").append(extra);
+      }
+      failWithoutSubject(message.toString());
+    }
+  }
+
+  /**
+   * Fails if the subject has any of the excluded elements, which are counted in a hash table
+   * against which the subject is scanned once. If the subject is known to be sorted, each
+   * excluded element is binary searched for instead.
+   */
+  void checkContainsNoneOf(PrimitiveElements actual, PrimitiveElements excluded) {
+    Elements present = new Elements();
+    if (knownDirection != 0) {
+      LongHashCounter searched = new LongHashCounter(excluded.size());
+      for (int i = 0; i < excluded.size(); i++) {
+        long key = excluded.key(i);
+        if (searched.count(key) == 0) {
+          searched.add(key);
+          if (actual.indexOfSorted(key, knownDirection) >= 0) {
+            present.add(actual.box(key), 1);
+          }
+        }
+      }
+    } else {
+      LongHashCounter forbidden = excluded.counts();
+      for (int i = 0; i < actual.size(); i++) {
+        long key = actual.key(i);
+        if (forbidden.removeAll(key) > 0) {
+          present.add(actual.box(key), 1);
+        }
+      }
+    }
+    if (!present.isEmpty()) {
+      failWithoutSubject("contains none of the excluded elements. It has " + present);
+    }
+  }
+
+  /**
+   * Returns the index of the first element whose key is {@code key}, or -1, by binary search if
+   * the array is known to be sorted.
+   */
+  private int indexOf(PrimitiveElements actual, long key) {
+    return (knownDirection == 0) ? actual.indexOf(key) : actual.indexOfSorted(key, knownDirection);
+  }
+
+  /** Describes the first few of some distinct elements, each with how many copies it has. */
+  private static final class Elements {
+    private final List<Object> examples = new ArrayList<Object>();
+    private long distinct = 0;
+
+    /** Adds an element with {@code copies} copies, if {@code copies} is positive. */
+    void add(Object element, long copies) {
+      if (copies <= 0) {
+        return;
+      }
+      distinct++;
+      if (examples.size() < MAX_REPORTED_ELEMENTS) {
+        examples.add((copies == 1) ? element : element + " [" + copies + " copies]");
+      }
+    }
+
+    boolean isEmpty() {
+      return distinct == 0;
+    }
+
+    @Override public String toString() {
+      String more = (distinct > examples.size())
+          ? format(" and %s more", distinct - examples.size())
+          : "";
+      return format("<%s>%s", examples, more);
+    }
+  }
+}
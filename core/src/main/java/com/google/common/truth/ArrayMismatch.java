@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.truth.StringUtil.format;
+
+import com.google.common.base.Objects;
+
+import java.util.List;
+
+/**
+ * Finds the first index at which two arrays differ, in the manner of {@code Arrays.mismatch}.
+ * Each factory returns a task whose loop compares the two arrays directly, so that a range is
+ * scanned without boxing and stops at its first mismatch. Large arrays may be scanned as several
+ * ranges at once, by {@link Platform#evaluateInChunks}.
+ */
+abstract class ArrayMismatch implements IndexRangeTask<Integer> {
+  static ArrayMismatch of(final int[] actual, final int[] expected) {
+    return new ArrayMismatch(actual.length, expected.length) {
+      @Override int firstIn(int from, int to) {
+        for (int i = from; i < to; i++) {
+          if (actual[i] != expected[i]) {
+            return i;
+          }
+        }
+        return -1;
+      }
+    };
+  }
+
+  static ArrayMismatch of(final long[] actual, final long[] expected) {
+    return new ArrayMismatch(actual.length, expected.length) {
+      @Override int firstIn(int from, int to) {
+        for (int i = from; i < to; i++) {
+          if (actual[i] != expected[i]) {
+            return i;
+          }
+        }
+        return -1;
+      }
+    };
+  }
+
+  static ArrayMismatch of(final char[] actual, final char[] expected) {
+    return new ArrayMismatch(actual.length, expected.length) {
+      @Override int firstIn(int from, int to) {
+        for (int i = from; i < to; i++) {
+          if (actual[i] != expected[i]) {
+            return i;
+          }
+        }
+        return -1;
+      }
+    };
+  }
+
+  static ArrayMismatch of(final byte[] actual, final byte[] expected) {
+    return new ArrayMismatch(actual.length, expected.length) {
+      @Override int firstIn(int from, int to) {
+        for (int i = from; i < to; i++) {
+          if (actual[i] != expected[i]) {
+            return i;
+          }
+        }
+        return -1;
+      }
+    };
+  }
+
+  static ArrayMismatch of(final boolean[] actual, final boolean[] expected) {
+    return new ArrayMismatch(actual.length, expected.length) {
+      @Override int firstIn(int from, int to) {
+        for (int i = from; i < to; i++) {
+          if (actual[i] != expected[i]) {
+            return i;
+          }
+        }
+        return -1;
+      }
+    };
+  }
+
+  /** Compares elements as {@link java.util.Arrays#equals(Object[], Object[])} does. */
+  static ArrayMismatch of(final Object[] actual, final Object[] expected) {
+    return new ArrayMismatch(actual.length, expected.length) {
+      @Override int firstIn(int from, int to) {
+        for (int i = from; i < to; i++) {
+          if (!Objects.equal(actual[i], expected[i])) {
+            return i;
+          }
+        }
+        return -1;
+      }
+    };
+  }
+
+  /** The number of elements described on either side of a mismatch in a failure message. */
+  private static final int WINDOW = 5;
+
+  private final int actualLength;
+  private final int expectedLength;
+
+  private ArrayMismatch(int actualLength, int expectedLength) {
+    this.actualLength = actualLength;
+    this.expectedLength = expectedLength;
+  }
+
+  /**
+   * Returns the index of the first element in {@code [from, to)} which differs between the
+   * arrays, or -1 if there is none. Both arrays must have at least {@code to} elements.
+   */
+  abstract int firstIn(int from, int to);
+
+  @Override public final Integer evaluate(int from, int to) {
+    return firstIn(from, to);
+  }
+
+  /**
+   * Returns the lowest index at which the arrays differ, or -1 if they are equal. If one array is
+   * a prefix of the other, they differ at the length of the shorter one.
+   *
+   * @param parallel whether ranges of a large array may be scanned concurrently
+   */
+  final int first(boolean parallel) {
+    int common = Math.min(actualLength, expectedLength);
+    for (int index : Platform.evaluateInChunks(common, parallel, this)) {
+      if (index >= 0) {
+        return index;
+      }
+    }
+    return (actualLength == expectedLength) ? -1 : common;
+  }
+
+  /**
+   * Describes how the arrays differ at {@code index}, showing only the elements of each list
+   * within a few positions of it.
+   */
+  final String describe(int index, List<?> actual, List<?> expected) {
+    int from = Math.max(0, index - WINDOW);
+    String lengths = (actualLength == expectedLength)
+        ? "Both have length " + actualLength
+        : format("It has length %s, and the expected array has length %s",
+            actualLength, expectedLength);
+    return format(
+        "It differs at index %s. From index %s, it has <%s>, and the expected array has <%s>. %s",
+        index, from, window(actual, from, index), window(expected, from, index), lengths);
+  }
+
+  private static List<?> window(List<?> list, int from, int index) {
+    return list.subList(from, Math.min(list.size(), index + WINDOW + 1));
+  }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.truth.StringUtil.format;
+
+import com.google.common.base.Function;
+import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * Checks the elements of a stream as they arrive, without keeping them, for streams too large to
+ * collect into a subject. Obtained from {@link TestVerb#sink()}: configure the propositions which
+ * the stream must satisfy, pass each element to {@link #accept}, and then call {@link #close},
+ * which reports each proposition that was not satisfied through the verb's failure strategy.
+ *
+ * <pre>{@code
+ * AssertingSink<Event> sink = assert_().<Event>sink()
+ *     .named("events")
+ *     .hasNoNulls()
+ *     .hasIncreasingKeys(Event.SEQUENCE_NUMBER)
+ *     .hasCount(1000000);
+ * while (pipeline.hasOutput()) {
+ *   sink.accept(pipeline.nextEvent());
+ * }
+ * sink.close();
+ * }</pre>
+ *
+ * <p>Each proposition keeps a fixed amount of state, apart from {@link #startsWith}, which keeps
+ * the expected prefix. A failure describes the first violation of a proposition, and how many
+ * violations there were in all. Null elements are ignored by the propositions about order, keys
+ * and gaps, and can be ruled out by {@link #hasNoNulls}. A sink is not safe for use by more than
+ * one thread at a time.
+ *
+ * @param <T> the type of elements accepted
+ */
+public final class AssertingSink<T> {
+  private final FailureStrategy failureStrategy;
+  private final List<Check> checks = new ArrayList<Check>();
+  @Nullable private String name = null;
+  private long count = 0;
+  private boolean closed = false;
+
+  AssertingSink(FailureStrategy failureStrategy) {
+    this.failureStrategy = checkNotNull(failureStrategy);
+  }
+
+  /**
+   * Names the stream in failure messages, which otherwise refer to "the sink".
+   */
+  public AssertingSink<T> named(String name) {
+    this.name = checkNotNull(name);
+    return this;
+  }
+
+  /**
+   * Requires each element to be greater than or equal to the one before it, according to
+   * {@code order}.
+   */
+  public AssertingSink<T> isOrderedBy(final Comparator<? super T> order) {
+    checkNotNull(order);
+    return addCheck(new Check(format("is ordered by <%s>", order)) {
+      @Nullable T previous = null;
+
+      @Override void check(T element, long index) {
+        if (element == null) {
+          return;
+        }
+        if (previous != null && order.compare(previous, element) > 0) {
+          violated("It has <%s> followed by <%s> at index %s", previous, element, index);
+        }
+        previous = element;
+      }
+    });
+  }
+
+  /**
+   * Requires the key of each element to be strictly greater than the key of the one before it,
+   * as for sequence numbers.
+   */
+  public <K extends Comparable<? super K>> AssertingSink<T> hasIncreasingKeys(
+      final Function<? super T, K> key) {
+    checkNotNull(key);
+    return addCheck(new Check(format("has increasing keys <%s>", key)) {
+      @Nullable K previous = null;
+
+      @Override void check(T element, long index) {
+        if (element == null) {
+          return;
+        }
+        K current = key.apply(element);
+        if (previous != null && previous.compareTo(current) >= 0) {
+          violated("It has key <%s> after key <%s> at index %s", current, previous, index);
+        }
+        previous = current;
+      }
+    });
+  }
+
+  /**
+   * Requires the key of each element to exceed the key of the one before it by no more than
+   * {@code maxGap}, as for timestamps which must arrive at some minimum rate. Keys which decrease
+   * are not gaps, and can be ruled out by {@link #hasIncreasingKeys}.
+   */
+  public AssertingSink<T> hasKeyGapsAtMost(
+      final Function<? super T, ? extends Number> key, final long maxGap) {
+    checkNotNull(key);
+    checkArgument(maxGap >= 0, "maxGap (%s) must be >= 0", maxGap);
+    return addCheck(new Check(format("has gaps of at most %s in keys <%s>", maxGap, key)) {
+      boolean started = false;
+      long previous;
+
+      @Override void check(T element, long index) {
+        if (element == null) {
+          return;
+        }
+        long current = key.apply(element).longValue();
+        if (started && current > previous && current - previous > maxGap) {
+          violated("It has a gap of %s from key <%s> to key <%s> at index %s",
+              current - previous, previous, current, index);
+        }
+        started = true;
+        previous = current;
+      }
+    });
+  }
+
+  /**
+   * Requires no element to be null.
+   */
+  public AssertingSink<T> hasNoNulls() {
+    return addCheck(new Check("has no nulls") {
+      @Override void check(T element, long index) {
+        if (element == null) {
+          violated("It has null at index %s", index);
+        }
+      }
+    });
+  }
+
+  /**
+   * Requires exactly {@code expected} elements to be accepted before the sink is closed.
+   */
+  public AssertingSink<T> hasCount(final long expected) {
+    checkArgument(expected >= 0, "expected (%s) must be >= 0", expected);
+    return addCheck(new Check(format("has <%s> elements", expected)) {
+      @Override void check(T element, long index) {}
+
+      @Override void finish(long count) {
+        if (count != expected) {
+          violated("It has <%s>", count);
+        }
+      }
+    });
+  }
+
+  /**
+   * Requires the first elements accepted to be equal to {@code prefix}, in order. The prefix is
+   * copied, and its elements are the only ones kept by the sink.
+   */
+  public AssertingSink<T> startsWith(Iterable<?> prefix) {
+    final List<Object> expected = Collections.unmodifiableList(Lists.newArrayList(prefix));
+    return addCheck(new Check(format("starts with <%s>", expected)) {
+      @Override void check(T element, long index) {
+        if (index < expected.size() && !Objects.equal(element, expected.get((int) index))) {
+          violated("It has <%s> at index %s, where <%s> was expected",
+              element, index, expected.get((int) index));
+        }
+      }
+
+      @Override void finish(long count) {
+        if (count < expected.size()) {
+          violated("It ended after %s elements", count);
+        }
+      }
+    });
+  }
+
+  /**
+   * Requires the first elements accepted to be equal to {@code prefix}, in order.
+   */
+  public AssertingSink<T> startsWith(Object... prefix) {
+    return startsWith(Arrays.asList(prefix));
+  }
+
+  /**
+   * Checks {@code element} against each proposition, and then discards it.
+   *
+   * @throws IllegalStateException if the sink has been closed
+   */
+  public void accept(@Nullable T element) {
+    checkState(!closed, "The sink has been closed");
+    long index = count++;
+    for (Check check : checks) {
+      check.check(element, index);
+    }
+  }
+
+  /**
+   * Reports, through the failure strategy, each proposition which the elements accepted did not
+   * satisfy, in the order in which the propositions were added. Closing a sink again has no
+   * effect.
+   */
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    for (Check check : checks) {
+      check.finish(count);
+      check.report();
+    }
+  }
+
+  private AssertingSink<T> addCheck(Check check) {
+    checkState(count == 0, "Propositions must be added before any element is accepted");
+    checks.add(check);
+    return this;
+  }
+
+  /** A proposition, which remembers its first violation and counts the rest. */
+  private abstract class Check {
+    private final String proposition;
+    @Nullable private String firstViolation = null;
+    private long violations = 0;
+
+    Check(String proposition) {
+      this.proposition = proposition;
+    }
+
+    abstract void check(@Nullable T element, long index);
+
+    /** Called once all elements have been accepted, with their number. */
+    void finish(long count) {}
+
+    /**
+     * Records a violation, described by {@code template} and {@code args} as for
+     * {@link StringUtil#format}. Only the first violation is described, so the arguments of the
+     * rest are never formatted.
+     */
+    final void violated(String template, Object... args) {
+      if (violations++ == 0) {
+        firstViolation = format(template, args);
+      }
+    }
+
+    final void report() {
+      if (violations == 0) {
+        return;
+      }
+      String subject = (name == null) ? "the sink" : "\"" + name + "\"";
+      String more = (violations > 1) ? format(" (%s violations in all)", violations) : "";
+      failureStrategy.fail(
+          format("Not true that %s %s. %s%s", subject, proposition, firstViolation, more));
+    }
+  }
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.truth.StringUtil.format;
+
+import com.google.common.base.Equivalence;
+import com.google.common.base.Function;
+import com.google.common.base.Objects;
+import com.google.common.collect.Multiset;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * A counting multiset of arbitrary elements, which lets the containment propositions compare
+ * two iterables in a single linear pass.
+ *
+ * <p>Elements are counted in a hash table. An element whose {@code hashCode()} throws is instead
+ * kept in a small overflow list and found by a linear scan using {@code equals()}, which is what
+ * every lookup used to cost.
+ *
+ * <p>Elements are compared using {@code equals()} and {@code hashCode()}, or else using a given
+ * {@link Equivalence}, in which case they are hashed through {@link Equivalence#wrap} rather than
+ * being transformed first.
+ *
+ * <p>Distinct elements are reported in the order in which they were first added.
+ */
+final class ElementCounter {
+  private final Map<Object, Count> hashed = new HashMap<Object, Count>();
+  private final List<Count> unhashable = new ArrayList<Count>();
+  private final List<Count> entries = new ArrayList<Count>();
+  @Nullable private final Equivalence<Object> equivalence;
+  private int size = 0;
+
+  ElementCounter() {
+    this(null);
+  }
+
+  /**
+   * Creates a counter which compares elements using {@code equivalence}, or {@code equals()} if it
+   * is null.
+   */
+  ElementCounter(@Nullable Equivalence<Object> equivalence) {
+    this.equivalence = equivalence;
+  }
+
+  /**
+   * Returns a counter holding every element of {@code items}, as many times as it occurs. The
+   * counts of a {@link Multiset} are taken from its entries, rather than by visiting each
+   * occurrence.
+   */
+  static ElementCounter of(Iterable<?> items) {
+    return of(items, null);
+  }
+
+  /**
+   * Returns a counter holding every element of {@code items}, as many times as it occurs, which
+   * compares elements using {@code equivalence}, or {@code equals()} if it is null.
+   */
+  static ElementCounter of(Iterable<?> items, @Nullable Equivalence<Object> equivalence) {
+    ElementCounter counter = new ElementCounter(equivalence);
+    if (items instanceof Multiset) {
+      for (Multiset.Entry<?> entry : ((Multiset<?>) items).entrySet()) {
+        counter.add(entry.getElement(), entry.getCount());
+      }
+    } else {
+      for (Object item : items) {
+        counter.add(item);
+      }
+    }
+    return counter;
+  }
+
+  /**
+   * Adds one occurrence of {@code element}, and returns its new count.
+   */
+  int add(@Nullable Object element) {
+    return add(element, 1);
+  }
+
+  /**
+   * Adds {@code occurrences} occurrences of {@code element}, and returns its new count.
+   */
+  int add(@Nullable Object element, int occurrences) {
+    size += occurrences;
+    return lookup(element, true).count += occurrences;
+  }
+
+  /**
+   * Adds one occurrence of {@code element}, found at position {@code index} of the iterable being
+   * counted, and returns its new count. The positions of the first two occurrences added this way
+   * are kept for {@link #describeRepeated}.
+   */
+  int addAt(@Nullable Object element, long index) {
+    Count entry = lookup(element, true);
+    if (entry.first < 0) {
+      entry.first = index;
+    } else if (entry.second < 0) {
+      entry.second = index;
+    }
+    size++;
+    return ++entry.count;
+  }
+
+  /**
+   * Adds every element counted by {@code other}, as many times as it occurs there.
+   */
+  void addAll(ElementCounter other) {
+    for (Count entry : other.entries) {
+      if (entry.count > 0) {
+        add(entry.element, entry.count);
+      }
+    }
+  }
+
+  /**
+   * Removes one occurrence of {@code element}, and returns whether there was one to remove.
+   */
+  boolean remove(@Nullable Object element) {
+    Count entry = lookup(element, false);
+    if (entry == null || entry.count == 0) {
+      return false;
+    }
+    entry.count--;
+    size--;
+    return true;
+  }
+
+  /**
+   * Removes every element counted by {@code other} from this counter, as many times as it occurs
+   * there, and adds to {@code unmatched} any occurrences which this counter did not have.
+   */
+  void removeAll(ElementCounter other, ElementCounter unmatched) {
+    for (Count entry : other.entries) {
+      if (entry.count == 0) {
+        continue;
+      }
+      Count mine = lookup(entry.element, false);
+      int removed = (mine == null) ? 0 : Math.min(mine.count, entry.count);
+      if (removed > 0) {
+        mine.count -= removed;
+        size -= removed;
+      }
+      if (removed < entry.count) {
+        unmatched.add(entry.element, entry.count - removed);
+      }
+    }
+  }
+
+  /**
+   * Reduces the count of each element by the number of occurrences of it which {@code available}
+   * reports, without going below zero.
+   */
+  void removeCounts(Function<Object, Integer> available) {
+    for (Count entry : entries) {
+      if (entry.count > 0) {
+        int removed = Math.min(entry.count, available.apply(entry.element));
+        entry.count -= removed;
+        size -= removed;
+      }
+    }
+  }
+
+  /**
+   * Removes every element which occurs only once, leaving those which are repeated.
+   */
+  void removeSingletons() {
+    for (Count entry : entries) {
+      if (entry.count == 1) {
+        entry.count = 0;
+        size--;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of occurrences of {@code element}.
+   */
+  int count(@Nullable Object element) {
+    Count entry = lookup(element, false);
+    return (entry == null) ? 0 : entry.count;
+  }
+
+  boolean contains(@Nullable Object element) {
+    return count(element) > 0;
+  }
+
+  /**
+   * Returns whether no occurrences of any element remain.
+   */
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the remaining elements in first-added order, with each element that occurs more than
+   * once described along with its count, e.g. {@code "foo [3 copies]"}.
+   */
+  List<Object> describe() {
+    List<Object> description = new ArrayList<Object>();
+    for (Count entry : entries) {
+      if (entry.count == 1) {
+        description.add(entry.element);
+      } else if (entry.count > 1) {
+        description.add(entry.element + " [" + entry.count + " copies]");
+      }
+    }
+    return description;
+  }
+
+  /**
+   * Returns the elements which occur more than once, in first-added order, each described along
+   * with its count and the positions of its first two occurrences given to {@link #addAt}, e.g.
+   * {@code "foo [3 copies, first at 0 and 4]"}.
+   */
+  List<Object> describeRepeated() {
+    List<Object> description = new ArrayList<Object>();
+    for (Count entry : entries) {
+      if (entry.count == 2) {
+        description.add(format("%s [2 copies, at %s and %s]",
+            entry.element, entry.first, entry.second));
+      } else if (entry.count > 2) {
+        description.add(format("%s [%s copies, first at %s and %s]",
+            entry.element, entry.count, entry.first, entry.second));
+      }
+    }
+    return description;
+  }
+
+  private Count lookup(@Nullable Object element, boolean create) {
+    Count entry;
+    try {
+      Object key = (equivalence == null) ? element : equivalence.wrap(element);
+      if (hashed.isEmpty() && key != null) {
+        key.hashCode(); // An empty HashMap may answer get() without hashing the key.
+      }
+      entry = hashed.get(key);
+      if (entry == null && create) {
+        entry = new Count(element);
+        hashed.put(key, entry);
+        entries.add(entry);
+      }
+      return entry;
+    } catch (RuntimeException hashCodeFailed) {
+      for (Count candidate : unhashable) {
+        if ((equivalence == null)
+            ? Objects.equal(element, candidate.element)
+            : equivalence.equivalent(element, candidate.element)) {
+          return candidate;
+        }
+      }
+      entry = null;
+      if (create) {
+        entry = new Count(element);
+        unhashable.add(entry);
+        entries.add(entry);
+      }
+      return entry;
+    }
+  }
+
+  private static final class Count {
+    final Object element;
+    int count = 0;
+    long first = -1;
+    long second = -1;
+
+    Count(Object element) {
+      this.element = element;
+    }
+  }
+}
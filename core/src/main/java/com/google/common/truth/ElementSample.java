@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.truth.StringUtil.format;
+
+import com.google.common.base.Predicate;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Applies propositions about individual elements to a random sample of a subject's elements,
+ * for iterables too large, or properties too expensive, to check every element. Obtained from
+ * {@link IterableSubject#sampling}, {@link IterableSubject#samplingExactly} or
+ * {@link IterableSubject#withConfidence}.
+ *
+ * <p>A failure reports how many elements were sampled and how many of them were defective, with
+ * an upper bound on the defect rate of the whole subject at the configured confidence, found by
+ * the Clopper-Pearson method. The sample depends only on the seed and on the subject, so a
+ * failure can be reproduced.
+ *
+ * <p>Elements of a {@link RandomAccess} list are sampled by index, without visiting the others.
+ * Other iterables are read to the end, but the property is only tested against the sample.
+ *
+ * @param <T> the type of elements in the subject
+ */
+public final class ElementSample<T> {
+  private static final double DEFAULT_CONFIDENCE = 0.95;
+  private static final int MAX_REPORTED_DEFECTS = 10;
+
+  private final IterableSubject<?, T, ?> subject;
+  /** The probability of sampling each element, or NaN if a fixed number are sampled. */
+  private final double rate;
+  private final int size;
+  private final long seed;
+  private double confidence = DEFAULT_CONFIDENCE;
+
+  private ElementSample(IterableSubject<?, T, ?> subject, double rate, int size, long seed) {
+    this.subject = subject;
+    this.rate = rate;
+    this.size = size;
+    this.seed = seed;
+  }
+
+  /** Returns a sample which includes each element independently with probability {@code rate}. */
+  static <T> ElementSample<T> atRate(IterableSubject<?, T, ?> subject, double rate, long seed) {
+    checkArgument(rate > 0.0 && rate <= 1.0, "rate (%s) must be > 0.0 and <= 1.0", rate);
+    return new ElementSample<T>(subject, rate, 0, seed);
+  }
+
+  /**
+   * Returns a sample of exactly {@code size} elements, chosen uniformly, or of every element if
+   * there are no more than that.
+   */
+  static <T> ElementSample<T> ofSize(IterableSubject<?, T, ?> subject, int size, long seed) {
+    checkArgument(size > 0, "size (%s) must be > 0", size);
+    return new ElementSample<T>(subject, Double.NaN, size, seed);
+  }
+
+  /**
+   * Sets the confidence of the upper bound on the defect rate, which is reported on failure and
+   * checked by {@link #hasDefectRateBelow}. The default is 0.95.
+   */
+  public ElementSample<T> withConfidence(double confidence) {
+    checkConfidence(confidence);
+    this.confidence = confidence;
+    return this;
+  }
+
+  /**
+   * Attests that every sampled element satisfies {@code property}, or fails, reporting the first
+   * few defective elements by index and bounding the defect rate of the whole subject.
+   */
+  public void allMatch(Predicate<? super T> property) {
+    Tally tally = evaluate(checkNotNull(property));
+    if (tally.defects > 0) {
+      subject.failWithoutSubject(format("has only elements matching <%s>. %s",
+          property, tally.describe()));
+    }
+  }
+
+  /**
+   * Attests that the defect rate of the whole subject, as inferred from the sample, is below
+   * {@code maxRate} at the configured confidence, or fails. Unlike {@link #allMatch}, this
+   * tolerates defects in a sample large enough to show that they are rare, and fails if the
+   * sample is too small to show it, even if it has no defects.
+   */
+  public void hasDefectRateBelow(double maxRate, Predicate<? super T> property) {
+    checkArgument(maxRate > 0.0 && maxRate <= 1.0, "maxRate (%s) must be > 0.0 and <= 1.0",
+        maxRate);
+    Tally tally = evaluate(checkNotNull(property));
+    if (upperBound(tally.sampled, tally.defects, confidence) >= maxRate) {
+      subject.failWithoutSubject(format("has a defect rate below %s for <%s>. %s",
+          maxRate, property, tally.describe()));
+    }
+  }
+
+  private Tally evaluate(Predicate<? super T> property) {
+    Tally tally = new Tally(property);
+    Random random = new Random(seed);
+    Iterable<T> items = subject.getSubject();
+    if (items instanceof List && items instanceof RandomAccess) {
+      List<T> list = (List<T>) items;
+      if (Double.isNaN(rate)) {
+        for (int index : chooseIndices(list.size(), random)) {
+          tally.add(index, list.get(index));
+        }
+      } else {
+        for (long index = skip(random); index < list.size(); index += 1 + skip(random)) {
+          tally.add(index, list.get((int) index));
+        }
+      }
+    } else if (Double.isNaN(rate)) {
+      reservoirSample(items.iterator(), random, tally);
+    } else {
+      Iterator<T> iterator = items.iterator();
+      long index = 0;
+      for (long next = skip(random); iterator.hasNext(); index++) {
+        T item = iterator.next();
+        if (index == next) {
+          tally.add(index, item);
+          next += 1 + skip(random);
+        }
+      }
+    }
+    return tally;
+  }
+
+  /** Returns how many elements to pass over before the next one sampled at {@link #rate}. */
+  private long skip(Random random) {
+    if (rate >= 1.0) {
+      return 0;
+    }
+    // The gaps between Bernoulli trials' successes are geometrically distributed.
+    return gap(Math.log(uniform(random)) / Math.log(1.0 - rate));
+  }
+
+  /** Rounds a gap between sampled indices down, keeping it small enough to add to an index. */
+  private static long gap(double elements) {
+    return (long) Math.min(Math.floor(elements), Long.MAX_VALUE / 4);
+  }
+
+  /**
+   * Returns {@link #size} distinct indices below {@code count}, chosen uniformly by Floyd's
+   * algorithm, in increasing order; or every index, if there are no more than that.
+   */
+  private TreeSet<Integer> chooseIndices(int count, Random random) {
+    TreeSet<Integer> chosen = new TreeSet<Integer>();
+    if (size >= count) {
+      for (int i = 0; i < count; i++) {
+        chosen.add(i);
+      }
+      return chosen;
+    }
+    for (int j = count - size; j < count; j++) {
+      int candidate = random.nextInt(j + 1);
+      chosen.add(chosen.contains(candidate) ? j : candidate);
+    }
+    return chosen;
+  }
+
+  /**
+   * Chooses {@link #size} elements uniformly in one pass, by Li's "Algorithm L", which draws a
+   * random number only for each element which enters the reservoir, and adds them to the tally.
+   */
+  private void reservoirSample(Iterator<T> iterator, Random random, Tally tally) {
+    List<T> reservoir = new ArrayList<T>(size);
+    long[] indices = new long[size];
+    long index = 0;
+    for (; index < size && iterator.hasNext(); index++) {
+      indices[(int) index] = index;
+      reservoir.add(iterator.next());
+    }
+    double weight = Math.exp(Math.log(uniform(random)) / size);
+    long next = index + gap(Math.log(uniform(random)) / Math.log(1 - weight));
+    for (; iterator.hasNext(); index++) {
+      T item = iterator.next();
+      if (index == next) {
+        int slot = random.nextInt(size);
+        reservoir.set(slot, item);
+        indices[slot] = index;
+        weight *= Math.exp(Math.log(uniform(random)) / size);
+        next += 1 + gap(Math.log(uniform(random)) / Math.log(1 - weight));
+      }
+    }
+    for (int i = 0; i < reservoir.size(); i++) {
+      tally.add(indices[i], reservoir.get(i));
+    }
+  }
+
+  /** Returns a uniformly distributed double greater than 0 and at most 1. */
+  private static double uniform(Random random) {
+    return 1.0 - random.nextDouble();
+  }
+
+  /**
+   * Returns the least defect rate which, at the given confidence, is not contradicted by
+   * {@code defects} defects in a sample of {@code sampled} elements: the Clopper-Pearson upper
+   * bound, the rate at which no more than {@code defects} would be seen with probability
+   * {@code 1 - confidence}.
+   */
+  static double upperBound(long sampled, long defects, double confidence) {
+    if (defects >= sampled) {
+      return 1.0;
+    }
+    double alpha = 1.0 - confidence;
+    if (defects == 0) {
+      return -Math.expm1(Math.log(alpha) / sampled);
+    }
+    double low = (double) defects / sampled;
+    double high = 1.0;
+    for (int i = 0; i < 100 && high - low > 1e-12 * high; i++) {
+      double mid = (low + high) / 2;
+      if (logBinomialCdf(sampled, defects, mid) > Math.log(alpha)) {
+        low = mid;
+      } else {
+        high = mid;
+      }
+    }
+    return high;
+  }
+
+  /**
+   * Returns the log of the probability of at most {@code k} successes in {@code n} trials, each
+   * succeeding with probability {@code p}, summed in log space so that it neither underflows nor
+   * needs a log-gamma function.
+   */
+  private static double logBinomialCdf(long n, long k, double p) {
+    double logOdds = Math.log(p) - Math.log1p(-p);
+    double logTerm = n * Math.log1p(-p);
+    double max = logTerm;
+    double sum = 1.0; // The sum of exp(logTerm_i - max).
+    for (long i = 0; i < k; i++) {
+      logTerm += Math.log((double) (n - i) / (i + 1)) + logOdds;
+      if (logTerm > max) {
+        sum = sum * Math.exp(max - logTerm) + 1.0;
+        max = logTerm;
+      } else {
+        sum += Math.exp(logTerm - max);
+      }
+    }
+    return max + Math.log(sum);
+  }
+
+  /**
+   * Returns the number of elements which must be sampled, with no defects found, to show at the
+   * given confidence that the defect rate is below {@code maxRate}.
+   */
+  static int requiredSampleSize(double confidence, double maxRate) {
+    double size = Math.ceil(Math.log(1.0 - confidence) / Math.log1p(-maxRate));
+    checkArgument(size <= Integer.MAX_VALUE,
+        "A confidence of %s that the defect rate is below %s needs too large a sample",
+        confidence, maxRate);
+    return Math.max((int) size, 1);
+  }
+
+  private static void checkConfidence(double confidence) {
+    checkArgument(confidence > 0.0 && confidence < 1.0,
+        "confidence (%s) must be > 0.0 and < 1.0", confidence);
+  }
+
+  /**
+   * Chooses the size of a sample from the confidence with which a bound on the defect rate is to
+   * be shown. Obtained from {@link IterableSubject#withConfidence}.
+   *
+   * @param <T> the type of elements in the subject
+   */
+  public static final class Planner<T> {
+    private final IterableSubject<?, T, ?> subject;
+    private final double confidence;
+    private long seed = 0;
+
+    Planner(IterableSubject<?, T, ?> subject, double confidence) {
+      checkConfidence(confidence);
+      this.subject = subject;
+      this.confidence = confidence;
+    }
+
+    /** Sets the seed from which the sample is chosen. The default is 0. */
+    public Planner<T> withSeed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    /**
+     * Returns a sample just large enough that, if {@link ElementSample#allMatch allMatch}
+     * finds no defects in it, the defect rate of the whole subject is below {@code maxRate} at
+     * this confidence. For example, a confidence of 0.99 that the rate is below 1e-4 needs
+     * 46,050 elements.
+     */
+    public ElementSample<T> defectRateBelow(double maxRate) {
+      checkArgument(maxRate > 0.0 && maxRate < 1.0, "maxRate (%s) must be > 0.0 and < 1.0",
+          maxRate);
+      return ofSize(subject, requiredSampleSize(confidence, maxRate), seed)
+          .withConfidence(confidence);
+    }
+  }
+
+  /** Counts the sampled elements and their defects, keeping the first few defects by index. */
+  private final class Tally {
+    final Predicate<? super T> property;
+    final TreeMap<Long, T> examples = new TreeMap<Long, T>();
+    long sampled = 0;
+    long defects = 0;
+
+    Tally(Predicate<? super T> property) {
+      this.property = property;
+    }
+
+    void add(long index, T element) {
+      sampled++;
+      if (!property.apply(element)) {
+        defects++;
+        examples.put(index, element);
+        if (examples.size() > MAX_REPORTED_DEFECTS) {
+          examples.remove(examples.lastKey());
+        }
+      }
+    }
+
+    String describe() {
+      StringBuilder description = new StringBuilder(
+          format("Of a sample of %s elements, %s do not match", sampled, defects));
+      if (defects > 0) {
+        description.append(format(", by index <%s>", examples));
+        if (defects > examples.size()) {
+          description.append(format(" and %s more", defects - examples.size()));
+        }
+      }
+      BigDecimal bound = new BigDecimal(upperBound(sampled, defects, confidence))
+          .round(new MathContext(3, RoundingMode.UP));
+      return description.append(format(". With confidence %s, the defect rate is at most %s",
+          confidence, bound.doubleValue())).toString();
+    }
+  }
+}
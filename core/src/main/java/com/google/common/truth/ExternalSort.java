@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.PeekingIterator;
+import com.google.common.io.Closer;
+import com.google.common.primitives.UnsignedBytes;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import javax.annotation.Nullable;
+
+/**
+ * Sorts streams of byte records which may not fit in memory, by sorting runs of them which do,
+ * spilling each run to a temporary file, and merging the runs.
+ *
+ * <p>Records are ordered lexicographically as unsigned bytes, with null records first. Every
+ * file created is deleted by {@link #close()}.
+ */
+@GwtIncompatible("java.io")
+final class ExternalSort implements Closeable {
+  /** The order of records, which is also the order in which they are returned. */
+  static final Comparator<byte[]> ORDER =
+      Ordering.from(UnsignedBytes.lexicographicalComparator()).nullsFirst();
+
+  /** The most runs merged at once, which bounds the number of files open at any time. */
+  private static final int MAX_FAN_IN = 64;
+
+  /** A rough allowance for the heap used by each buffered record, beyond its bytes. */
+  private static final int RECORD_OVERHEAD = 32;
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  @Nullable private final File directory;
+  private final long memoryBudget;
+  private final List<File> files = new ArrayList<File>();
+  private final Closer closer = Closer.create();
+
+  /**
+   * @param directory where to create temporary files, or null for the system default
+   * @param memoryBudget roughly how many bytes of records to hold in memory at once
+   */
+  ExternalSort(@Nullable File directory, long memoryBudget) {
+    this.directory = directory;
+    this.memoryBudget = memoryBudget;
+  }
+
+  /**
+   * Returns the given records in {@link #ORDER}. The records are read immediately, but the
+   * returned iterator reads the spilled runs lazily, until this sorter is closed.
+   */
+  PeekingIterator<byte[]> sort(Iterator<byte[]> records) throws IOException {
+    List<File> runs = new ArrayList<File>();
+    List<byte[]> buffer = new ArrayList<byte[]>();
+    long buffered = 0;
+    while (records.hasNext()) {
+      byte[] record = records.next();
+      buffer.add(record);
+      buffered += RECORD_OVERHEAD + ((record == null) ? 0 : record.length);
+      if (buffered >= memoryBudget) {
+        Collections.sort(buffer, ORDER);
+        runs.add(writeRun(buffer.iterator()));
+        buffer.clear();
+        buffered = 0;
+      }
+    }
+    Collections.sort(buffer, ORDER);
+    if (runs.isEmpty()) {
+      return Iterators.peekingIterator(buffer.iterator());
+    }
+    if (!buffer.isEmpty()) {
+      runs.add(writeRun(buffer.iterator()));
+      buffer.clear();
+    }
+    while (runs.size() > MAX_FAN_IN) {
+      List<File> group = runs.subList(0, MAX_FAN_IN);
+      Closer groupCloser = Closer.create();
+      File merged;
+      try {
+        merged = writeRun(merge(open(group, groupCloser)));
+      } catch (Throwable t) {
+        throw groupCloser.rethrow(t);
+      } finally {
+        groupCloser.close();
+      }
+      for (File run : group) {
+        delete(run);
+      }
+      group.clear();
+      runs.add(merged);
+    }
+    return merge(open(runs, closer));
+  }
+
+  /** Deletes every file this sorter has created. */
+  @Override public void close() throws IOException {
+    try {
+      closer.close();
+    } finally {
+      for (File file : files) {
+        file.delete();
+      }
+      files.clear();
+    }
+  }
+
+  private File writeRun(Iterator<byte[]> sorted) throws IOException {
+    File run = File.createTempFile("truth-", ".run", directory);
+    files.add(run);
+    Closer runCloser = Closer.create();
+    try {
+      DataOutputStream out = runCloser.register(new DataOutputStream(
+          new BufferedOutputStream(new FileOutputStream(run), BUFFER_SIZE)));
+      while (sorted.hasNext()) {
+        byte[] record = sorted.next();
+        if (record == null) {
+          out.writeInt(-1);
+        } else {
+          out.writeInt(record.length);
+          out.write(record);
+        }
+      }
+    } catch (Throwable t) {
+      throw runCloser.rethrow(t);
+    } finally {
+      runCloser.close();
+    }
+    return run;
+  }
+
+  private void delete(File file) {
+    file.delete();
+    files.remove(file);
+  }
+
+  private static List<PeekingIterator<byte[]>> open(List<File> runs, Closer closer)
+      throws IOException {
+    List<PeekingIterator<byte[]>> readers = new ArrayList<PeekingIterator<byte[]>>();
+    for (File run : runs) {
+      final DataInputStream in = closer.register(new DataInputStream(
+          new BufferedInputStream(new FileInputStream(run), BUFFER_SIZE)));
+      readers.add(Iterators.peekingIterator(new AbstractIterator<byte[]>() {
+        @Override protected byte[] computeNext() {
+          try {
+            int length;
+            try {
+              length = in.readInt();
+            } catch (EOFException endOfRun) {
+              return endOfData();
+            }
+            if (length < 0) {
+              return null;
+            }
+            byte[] record = new byte[length];
+            in.readFully(record);
+            return record;
+          } catch (IOException e) {
+            throw new RuntimeException("Could not read a spilled run of elements", e);
+          }
+        }
+      }));
+    }
+    return readers;
+  }
+
+  private static PeekingIterator<byte[]> merge(List<PeekingIterator<byte[]>> runs) {
+    final PriorityQueue<PeekingIterator<byte[]>> heads = new PriorityQueue<PeekingIterator<byte[]>>(
+        Math.max(runs.size(), 1), new Comparator<PeekingIterator<byte[]>>() {
+          @Override public int compare(PeekingIterator<byte[]> a, PeekingIterator<byte[]> b) {
+            return ORDER.compare(a.peek(), b.peek());
+          }
+        });
+    for (PeekingIterator<byte[]> run : runs) {
+      if (run.hasNext()) {
+        heads.add(run);
+      }
+    }
+    return Iterators.peekingIterator(new AbstractIterator<byte[]>() {
+      @Override protected byte[] computeNext() {
+        PeekingIterator<byte[]> first = heads.poll();
+        if (first == null) {
+          return endOfData();
+        }
+        byte[] record = first.next();
+        if (first.hasNext()) {
+          heads.add(first);
+        }
+        return record;
+      }
+    });
+  }
+}
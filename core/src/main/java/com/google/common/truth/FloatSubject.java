@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import javax.annotation.Nullable;
+
+/**
+ * Propositions for {@link Float} subjects. Without a tolerance they compare values exactly, as
+ * {@link Float#equals} does. A tolerance set by {@link #usingTolerance} makes {@link #isEqualTo}
+ * and {@link #isNotEqualTo} compare within it instead.
+ */
+public class FloatSubject extends ComparableSubject<FloatSubject, Float> {
+  /** The tolerance set by {@link #usingTolerance}, if any. */
+  @Nullable private Tolerance tolerance = null;
+
+  public FloatSubject(FailureStrategy failureStrategy, Float subject) {
+    super(failureStrategy, subject);
+  }
+
+  /**
+   * Sets how close the subject must be to an expected {@link Float} for {@link #isEqualTo} and
+   * {@link #isNotEqualTo} to consider them equal. This subject is changed and returned, not
+   * copied, so the tolerance applies to every later proposition made of it.
+   */
+  public FloatSubject usingTolerance(Tolerance tolerance) {
+    this.tolerance = checkNotNull(tolerance);
+    return this;
+  }
+
+  /**
+   * Attests that the subject is equal to {@code other}, within the tolerance set by
+   * {@link #usingTolerance} if there is one and {@code other} is a {@link Float}, or fails.
+   * Otherwise {@code other} is compared as {@link Subject#isEqualTo} does, so that a value of
+   * another type, such as an {@link Integer}, is never equal to the subject.
+   */
+  @Override public void isEqualTo(@Nullable Object other) {
+    if (tolerance == null || !(other instanceof Float)) {
+      super.isEqualTo(other);
+    } else if (getSubject() == null || !tolerance.matches(getSubject(), (Float) other)) {
+      failWithRawMessage("Not true that %s is equal to <%s> within %s",
+          getDisplaySubject(), other, tolerance);
+    }
+  }
+
+  /**
+   * Attests that the subject is not equal to {@code other}, within the tolerance set by
+   * {@link #usingTolerance} if there is one and {@code other} is a {@link Float}, or fails.
+   * Otherwise {@code other} is compared as {@link Subject#isNotEqualTo} does.
+   */
+  @Override public void isNotEqualTo(@Nullable Object other) {
+    if (tolerance == null || !(other instanceof Float)) {
+      super.isNotEqualTo(other);
+    } else if (getSubject() != null && tolerance.matches(getSubject(), (Float) other)) {
+      failWithRawMessage("Not true that %s is not equal to <%s> within %s",
+          getDisplaySubject(), other, tolerance);
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2011 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.truth.StringUtil.format;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Differences between a subject and an expected value, sorted into groups of one kind each and
+ * keyed by the map key, table row or element they concern. Every difference is counted, but only
+ * the first few of each group are kept to be described.
+ */
+final class GroupedDiff {
+  /** The greatest number of differences described in each group. */
+  static final int MAX_REPORTED_DIFFERENCES = 10;
+
+  private final List<Group> groups = new ArrayList<Group>();
+
+  /**
+   * Adds a group of differences, to be described after those added before it.
+   *
+   * @param description what the subject has, or lacks, such as "is missing the entries"
+   */
+  Group group(String description) {
+    Group group = new Group(description);
+    groups.add(group);
+    return group;
+  }
+
+  /**
+   * Returns a failure message for {@code verb} which describes each non-empty group, or null if
+   * there are no differences.
+   */
+  @Nullable String describe(String verb) {
+    StringBuilder message = new StringBuilder(verb);
+    boolean different = false;
+    for (Group group : groups) {
+      if (group.count > 0) {
+        different = true;
+        message.append(". It ").append(group.describe());
+      }
+    }
+    return different ? message.toString() : null;
+  }
+
+  /** Differences of one kind, of which the first few are kept as examples. */
+  static final class Group {
+    private final String description;
+    private final Map<Object, Object> examples = new LinkedHashMap<Object, Object>();
+    private long count = 0;
+    private int kept = 0;
+
+    private Group(String description) {
+      this.description = description;
+    }
+
+    /** Whether no more examples will be kept, so later differences need only be counted. */
+    boolean isFull() {
+      return kept == MAX_REPORTED_DIFFERENCES;
+    }
+
+    long count() {
+      return count;
+    }
+
+    /** Records a difference concerning {@code key}, described by {@code value}. */
+    void add(@Nullable Object key, @Nullable Object value) {
+      count++;
+      if (!isFull()) {
+        examples.put(key, value);
+        kept++;
+      }
+    }
+
+    /**
+     * Records a difference in the cell at {@code row} and {@code column}, described by
+     * {@code value}. Examples are grouped by row.
+     */
+    @SuppressWarnings("unchecked") // only this method puts maps in the examples
+    void add(@Nullable Object row, @Nullable Object column, @Nullable Object value) {
+      count++;
+      if (!isFull()) {
+        Map<Object, Object> cells = (Map<Object, Object>) examples.get(row);
+        if (cells == null) {
+          cells = new LinkedHashMap<Object, Object>();
+          examples.put(row, cells);
+        }
+        cells.put(column, value);
+        kept++;
+      }
+    }
+
+    /**
+     * Records that there are at least {@code total} differences in this group, of which only
+     * those already added are described.
+     */
+    void countAtLeast(long total) {
+      count = Math.max(count, total);
+    }
+
+    private String describe() {
+      String more = (count > kept) ? format(" and %s more", count - kept) : "";
+      return format("%s <%s>%s", description, examples, more);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.GwtIncompatible;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Estimates the number of distinct 64-bit hashes added to it, using a fixed {@code 2^precision}
+ * bytes held in a direct buffer outside the Java heap, as described by Flajolet et al. in
+ * "HyperLogLog: the analysis of a near-optimal cardinality estimation algorithm".
+ *
+ * <p>The relative standard error of the estimate is about {@code 1.04 / sqrt(2^precision)}. Small
+ * cardinalities are estimated by linear counting, which is nearly exact.
+ */
+@GwtIncompatible("java.nio")
+final class HyperLogLog {
+  static final int MIN_PRECISION = 4;
+  static final int MAX_PRECISION = 18;
+
+  private final int precision;
+  private final int registerCount;
+  private final ByteBuffer registers;
+
+  HyperLogLog(int precision) {
+    checkArgument(precision >= MIN_PRECISION && precision <= MAX_PRECISION,
+        "precision (%s) must be between %s and %s", precision, MIN_PRECISION, MAX_PRECISION);
+    this.precision = precision;
+    this.registerCount = 1 << precision;
+    this.registers = ByteBuffer.allocateDirect(registerCount);
+  }
+
+  /**
+   * Returns the least precision whose relative standard error is at most {@code standardError},
+   * or -1 if even {@link #MAX_PRECISION} is not precise enough.
+   */
+  static int precisionFor(double standardError) {
+    for (int precision = MIN_PRECISION; precision <= MAX_PRECISION; precision++) {
+      if (1.04 / Math.sqrt(1 << precision) <= standardError) {
+        return precision;
+      }
+    }
+    return -1;
+  }
+
+  void add(long hash) {
+    int index = (int) (hash >>> (64 - precision));
+    // The sentinel bit bounds the rank when the remaining bits are all zero.
+    int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+    if (rank > registers.get(index)) {
+      registers.put(index, (byte) rank);
+    }
+  }
+
+  long estimate() {
+    double sum = 0;
+    int zeros = 0;
+    for (int i = 0; i < registerCount; i++) {
+      byte rank = registers.get(i);
+      sum += 1.0 / (1L << rank);
+      if (rank == 0) {
+        zeros++;
+      }
+    }
+    double estimate = alpha() * registerCount * registerCount / sum;
+    if (estimate <= 2.5 * registerCount && zeros > 0) {
+      estimate = registerCount * Math.log((double) registerCount / zeros);
+    }
+    return Math.round(estimate);
+  }
+
+  private double alpha() {
+    switch (registerCount) {
+      case 16:
+        return 0.673;
+      case 32:
+        return 0.697;
+      case 64:
+        return 0.709;
+      default:
+        return 0.7213 / (1 + 1.079 / registerCount);
+    }
+  }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+/**
+ * A piece of work over a contiguous range of indices, which {@link Platform#evaluateInChunks}
+ * may run over several chunks of a larger range at once.
+ */
+interface IndexRangeTask<R> {
+  /**
+   * Evaluates this task over the indices from {@code from}, inclusive, to {@code to}, exclusive.
+   * Implementations must be safe to call concurrently for disjoint ranges.
+   */
+  R evaluate(int from, int to);
+}
@@ -16,18 +16,40 @@
 package com.google.common.truth;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.truth.StringUtil.format;
 import static com.google.common.truth.SubjectUtils.accumulate;
-import static com.google.common.truth.SubjectUtils.countDuplicates;
 
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.base.Converter;
+import com.google.common.base.Equivalence;
+import com.google.common.base.Function;
+import com.google.common.base.Objects;
+import com.google.common.base.Predicate;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.LinkedHashMultiset;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.Range;
+import com.google.common.collect.SortedMultiset;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.SortedSet;
 
 import javax.annotation.Nullable;
 
@@ -43,11 +65,162 @@ public class IterableSubject<S extends IterableSubject<S, T, C>, T, C extends It
     return new IterableSubject(failureStrategy, list);
   }
 
+  /**
+   * The number of membership questions answered by scanning a subject that is not a {@link Set},
+   * before the subject is indexed instead.
+   */
+  private static final int INDEX_THRESHOLD = 8;
+
+  /**
+   * The greatest number of elements described individually when a proposition fails because of
+   * many of them, such as repeated elements or elements which do not match a predicate.
+   */
+  private static final int MAX_REPORTED_ELEMENTS = 10;
+
+  /**
+   * The number of elements read from each side past the first difference when describing how an
+   * iteration order differs from the expected one.
+   */
+  private static final int MAX_DIFFED_ELEMENTS = 32;
+
+  /** The number of distinct hash codes, which bounds how finely sketches tell elements apart. */
+  private static final double HASH_CODES = 4294967296.0;
+
+  /** The smallest relative error which {@link #hasApproximateDistinctCount} can honor. */
+  private static final double MIN_RELATIVE_ERROR = 0.01;
+
+  /**
+   * Whether propositions which support it should split a random-access subject into chunks and
+   * evaluate them concurrently. Set by {@link TestVerb#inParallel()}.
+   */
+  boolean parallel = false;
+
+  /**
+   * The iterable which the subject is a snapshot of, if it is one, against which equality and
+   * type are checked. Set by {@link TestVerb#snapshotting()}.
+   */
+  @Nullable Iterable<?> snapshotOf = null;
+
+  /** The order in which the subject has been declared to be sorted, if any. */
+  @Nullable private Comparator<?> assumedOrder = null;
+
+  /** The equivalence by which elements are compared, or null to use {@code equals()}. */
+  @Nullable private Equivalence<Object> elementEquivalence = null;
+
   // TODO: Arguably this should even be package private
   protected IterableSubject(FailureStrategy failureStrategy, C list) {
     super(failureStrategy, list);
   }
 
+  @Override public void isEqualTo(@Nullable Object other) {
+    if (snapshotOf == null) {
+      super.isEqualTo(other);
+    } else if (!Objects.equal(snapshotOf, other)) {
+      fail("is equal to", other);
+    }
+  }
+
+  @Override public void isNotEqualTo(@Nullable Object other) {
+    if (snapshotOf == null) {
+      super.isNotEqualTo(other);
+    } else if (Objects.equal(snapshotOf, other)) {
+      fail("is not equal to", other);
+    }
+  }
+
+  @Override public void isInstanceOf(Class<?> clazz) {
+    if (snapshotOf == null) {
+      super.isInstanceOf(clazz);
+    } else if (!Platform.isInstanceOfType(snapshotOf, checkNotNull(clazz))) {
+      failWithBadResults("is an instance of", clazz.getName(),
+          "is an instance of", snapshotOf.getClass().getName());
+    }
+  }
+
+  @Override public void isNotInstanceOf(Class<?> clazz) {
+    if (snapshotOf == null) {
+      super.isNotInstanceOf(clazz);
+    } else if (Platform.isInstanceOfType(snapshotOf, checkNotNull(clazz))) {
+      failWithRawMessage("%s expected not to be an instance of %s, but was.",
+          getDisplaySubject(), clazz.getName());
+    }
+  }
+
+  /**
+   * Declares that the subject, and the expected elements given to later containment propositions,
+   * are sorted by {@code order}. {@link #containsAllIn containsAll},
+   * {@link #containsOnlyElementsIn containsOnlyElements} and {@link #containsNoneIn containsNone}
+   * then compare them by merging, in linear time and without indexing either one. The order must
+   * never separate two equal elements.
+   *
+   * <p>A {@link SortedSet} or {@link SortedMultiset} subject is merged without this declaration
+   * when the expected elements are also given as one, sorted by an equal comparator.
+   *
+   * <p>Each side is checked as it is read, so if either turns out not to be sorted, or to hold
+   * elements which {@code order} cannot compare, the proposition falls back to the unsorted
+   * comparison. The result is the same either way.
+   */
+  @SuppressWarnings("unchecked")
+  public S assumingSorted(Comparator<? super T> order) {
+    this.assumedOrder = checkNotNull(order);
+    return (S) this;
+  }
+
+  /**
+   * Makes later propositions compare elements of the subject, and the expected elements, using
+   * {@code equivalence} rather than {@code equals()}. This applies to the containment
+   * propositions, such as {@link #containsAllIn containsAll},
+   * {@link #containsOnlyElementsIn containsOnlyElements} and {@link #containsNoneIn containsNone},
+   * to their {@code inOrder()} checks, to {@link #iteratesAs(Iterable) iteratesAs} and, for
+   * lists, to the sequence propositions such as {@link ListSubject#containsSequence}.
+   *
+   * <p>Elements are matched by hashing them with {@link Equivalence#hash}, so this is as fast as
+   * comparing by {@code equals()}, and neither side is copied or transformed. The equivalence is
+   * applied to the expected elements as well, so it must accept any object that is given to it.
+   */
+  @SuppressWarnings("unchecked")
+  public S comparingElementsUsing(Equivalence<? super T> equivalence) {
+    this.elementEquivalence = (Equivalence<Object>) checkNotNull(equivalence);
+    return (S) this;
+  }
+
+  /**
+   * Returns a comparison of the subject with expected elements which sorts both on disk, for
+   * iterables too large to hold in memory. Elements are encoded as bytes by {@code codec}, and
+   * two elements are considered equal when their encodings are.
+   */
+  @GwtIncompatible("java.io")
+  public SpillingComparison<T> spillingToDisk(Converter<T, byte[]> codec) {
+    return new SpillingComparison<T>(this, codec);
+  }
+
+  /**
+   * Returns a sample of the subject's elements, each chosen independently with probability
+   * {@code rate}, to which propositions about individual elements can be applied. The sample is
+   * determined by {@code seed}.
+   */
+  public ElementSample<T> sampling(double rate, long seed) {
+    return ElementSample.atRate(this, rate, seed);
+  }
+
+  /**
+   * Returns a sample of exactly {@code size} of the subject's elements, chosen uniformly by
+   * reservoir sampling, or of all of them if there are no more than that, to which propositions
+   * about individual elements can be applied. The sample is determined by {@code seed}.
+   */
+  public ElementSample<T> samplingExactly(int size, long seed) {
+    return ElementSample.ofSize(this, size, seed);
+  }
+
+  /**
+   * Begins a sampled check whose sample size is chosen to show, at the given confidence, that
+   * the defect rate is below some bound: {@code withConfidence(0.99).defectRateBelow(1e-4)}
+   * returns a sample whose elements must then all match a property.
+   */
+  public ElementSample.Planner<T> withConfidence(double confidence) {
+    return new ElementSample.Planner<T>(this, confidence);
+  }
+
   /**
    * Attests that the subject holds no more objects, or fails.
    */
@@ -67,14 +240,86 @@ public class IterableSubject<S extends IterableSubject<S, T, C>, T, C extends It
   }
 
   /**
-   * Asserts that an Iterable has a specific size.
+   * Asserts that an Iterable has a specific size. Unless it is a {@link Collection}, no more than
+   * {@code expectedSize + 1} of its elements are read.
    */
   public final void hasSize(int expectedSize) {
     checkArgument(expectedSize >= 0, "expectedSize(%s) must be >= 0", expectedSize);
-    int actualSize = Iterables.size(getSubject());
+    long limit = expectedSize + 1L;
+    long actualSize = sizeUpTo(limit);
     if (actualSize != expectedSize) {
-      failWithBadResults("has a size of", expectedSize, "is", actualSize);
+      failWithBadResults("has a size of", expectedSize, "is", describeSize(actualSize, limit));
+    }
+  }
+
+  /**
+   * Asserts that an Iterable has at least the given number of elements. Unless it is a
+   * {@link Collection}, no more than {@code minSize} of its elements are read.
+   */
+  public final void hasSizeAtLeast(int minSize) {
+    checkArgument(minSize >= 0, "minSize(%s) must be >= 0", minSize);
+    long actualSize = sizeUpTo(minSize);
+    if (actualSize < minSize) {
+      failWithBadResults("has a size of at least", minSize, "is", actualSize);
+    }
+  }
+
+  /**
+   * Asserts that an Iterable has at most the given number of elements. Unless it is a
+   * {@link Collection}, no more than {@code maxSize + 1} of its elements are read.
+   */
+  public final void hasSizeAtMost(int maxSize) {
+    checkArgument(maxSize >= 0, "maxSize(%s) must be >= 0", maxSize);
+    long limit = maxSize + 1L;
+    long actualSize = sizeUpTo(limit);
+    if (actualSize > maxSize) {
+      failWithBadResults("has a size of at most", maxSize, "is", describeSize(actualSize, limit));
+    }
+  }
+
+  /**
+   * Asserts that the size of an Iterable lies within the given range. Unless it is a
+   * {@link Collection}, no more elements are read than are needed to decide, which is one more
+   * than the range's upper bound or, if it has none, one more than its lower bound.
+   */
+  public final void hasSizeIn(Range<Integer> range) {
+    long limit;
+    if (range.hasUpperBound()) {
+      limit = range.upperEndpoint() + 1L;
+    } else if (range.hasLowerBound()) {
+      limit = range.lowerEndpoint() + 1L;
+    } else {
+      return;
+    }
+    limit = Math.max(limit, 1);
+    long actualSize = sizeUpTo(limit);
+    boolean inRange = (actualSize >= limit)
+        ? !range.hasUpperBound()
+        : range.contains((int) actualSize);
+    if (!inRange) {
+      failWithBadResults("has a size in", range, "is", describeSize(actualSize, limit));
+    }
+  }
+
+  /**
+   * Returns the size of the subject if it is a {@link Collection}. Otherwise counts its elements,
+   * stopping once {@code limit} have been read.
+   */
+  private long sizeUpTo(long limit) {
+    if (getSubject() instanceof Collection) {
+      return ((Collection<?>) getSubject()).size();
+    }
+    Iterator<T> items = getSubject().iterator();
+    long size = 0;
+    while (size < limit && items.hasNext()) {
+      items.next();
+      size++;
     }
+    return size;
+  }
+
+  private Object describeSize(long size, long limit) {
+    return (size < limit || getSubject() instanceof Collection) ? size : "at least " + limit;
   }
 
   /**
@@ -83,24 +328,71 @@ public class IterableSubject<S extends IterableSubject<S, T, C>, T, C extends It
    * iteration order guarantees (say, {@link Set}{@code <?>}s), this method may provide
    * unexpected results.  Consider using {@link #isEqualTo(Object)} in such cases, or using
    * collections and iterables that provide strong order guarantees.
+   *
+   * <p>Iteration stops at the first element out of order, so an infinite subject which departs
+   * from {@code expectedItems} fails rather than running forever.
    */
   public void iteratesAs(Iterable<?> expectedItems) {
-    Iterator<T> actualItems = getSubject().iterator();
-    for (Object expected : expectedItems) {
-      if (!actualItems.hasNext()) {
-        fail("iterates through", expectedItems);
-      } else {
-        Object actual = actualItems.next();
-        if (actual == expected || actual != null && actual.equals(expected)) {
-          continue;
-        } else {
-          fail("iterates through", expectedItems);
-        }
+    checkInOrder("iterates through the expected elements", "iterates through", expectedItems);
+  }
+
+  /**
+   * Fails unless the subject holds elements equal, or equivalent, to those of {@code expected},
+   * in the same order. Both sides are iterated together, once, and only until the first element
+   * which differs or the end of the shorter; so an infinite iterable fails as soon as it departs
+   * from a finite one. To describe a failure, the last few matching elements and up to
+   * {@link #MAX_DIFFED_ELEMENTS} more from each side are kept and diffed.
+   *
+   * @param verb describes the check when followed by a diff
+   * @param plainVerb describes the check, followed by {@code expected}, if no diff is found
+   */
+  private void checkInOrder(String verb, String plainVerb, Iterable<?> expected) {
+    Iterator<?> actualIterator = getSubject().iterator();
+    Iterator<?> expectedIterator = expected.iterator();
+    List<Object> actualRead = new ArrayList<Object>();
+    List<Object> expectedRead = new ArrayList<Object>();
+    int offset = 0;
+    boolean matching = true;
+    while (matching && actualIterator.hasNext() && expectedIterator.hasNext()) {
+      Object actualElement = actualIterator.next();
+      Object expectedElement = expectedIterator.next();
+      actualRead.add(actualElement);
+      expectedRead.add(expectedElement);
+      matching = elementsEquivalent(actualElement, expectedElement);
+      if (matching && actualRead.size() > SequenceDiff.CONTEXT) {
+        actualRead.remove(0);
+        expectedRead.remove(0);
+        offset++;
       }
     }
-    if (actualItems.hasNext()) {
-      fail("iterates through", expectedItems);
+    if (matching && !actualIterator.hasNext() && !expectedIterator.hasNext()) {
+      return;
+    }
+    boolean actualExhausted = readAhead(actualIterator, actualRead);
+    boolean expectedExhausted = readAhead(expectedIterator, expectedRead);
+    Equivalence<Object> equivalence =
+        (elementEquivalence == null) ? Equivalence.equals() : elementEquivalence;
+    String diff = SequenceDiff.describe(actualRead, expectedRead, offset,
+        !actualExhausted && !expectedExhausted, equivalence);
+    if (diff == null) {
+      fail(plainVerb, expected);
+    } else if (actualExhausted && expectedExhausted) {
+      failWithoutSubject(verb + ". " + diff);
+    } else {
+      failWithoutSubject(format("%s. %s\n(Only %s elements of each past the first difference were "
+          + "compared.)", verb, diff, MAX_DIFFED_ELEMENTS));
+    }
+  }
+
+  /**
+   * Adds up to {@link #MAX_DIFFED_ELEMENTS} further elements of {@code iterator} to {@code read},
+   * and returns whether it has none left.
+   */
+  private static boolean readAhead(Iterator<?> iterator, List<Object> read) {
+    for (int i = 0; i < MAX_DIFFED_ELEMENTS && iterator.hasNext(); i++) {
+      read.add(iterator.next());
     }
+    return !iterator.hasNext();
   }
 
   /**
@@ -126,7 +418,7 @@ public class IterableSubject<S extends IterableSubject<S, T, C>, T, C extends It
    * supplied item.
    */
   public void contains(@Nullable Object element) {
-    if (!Iterables.contains(getSubject(), element)) {
+    if (!subjectContains(element)) {
       fail("contains", element);
     }
   }
@@ -136,7 +428,7 @@ public class IterableSubject<S extends IterableSubject<S, T, C>, T, C extends It
    * the supplied item.
    */
   public void doesNotContain(@Nullable Object element) {
-    if (Iterables.contains(getSubject(), element)) {
+    if (subjectContains(element)) {
       fail("does not contain", element);
     }
   }
@@ -158,8 +450,9 @@ public class IterableSubject<S extends IterableSubject<S, T, C>, T, C extends It
   }
 
   private void contains(String failVerb, Iterable<?> expected) {
+    Membership subject = new Membership();
     for (Object item : expected) {
-      if (Iterables.contains(getSubject(), item)) {
+      if (subject.contains(item)) {
         return;
       }
     }
@@ -191,15 +484,38 @@ public class IterableSubject<S extends IterableSubject<S, T, C>, T, C extends It
   }
 
   private Ordered containsAll(String failVerb, Iterable<?> expected) {
-    Collection<?> toRemove = Lists.newArrayList(expected);
+    ElementCounter merged = newCounter();
+    boolean evaluated = mergeSorted(expected, merged, null, null);
+    Function<Object, Integer> counts = nativeCounts();
+    if (!evaluated && counts != null) {
+      merged = countOf(expected);
+      merged.removeCounts(counts);
+      evaluated = true;
+    }
+    if (evaluated) {
+      if (!merged.isEmpty()) {
+        failWithBadResults(failVerb, expected, "is missing", merged.describe());
+      }
+      return new InSubsequenceOrder(expected);
+    }
+    List<?> required = Lists.newArrayList(expected);
+    ElementCounter missing = countOf(required);
+    // The length of the longest prefix of required which the subject contains as a subsequence.
+    // Matching greedily in the same pass finds it, since an earlier match is never a worse one.
+    int inOrder = 0;
+    Iterator<T> actualItems = getSubject().iterator();
     // remove each item in the subject, as many times as it occurs in the subject.
-    for (Object item : getSubject()) {
-      toRemove.remove(item);
+    while (inOrder < required.size() && actualItems.hasNext()) {
+      Object item = actualItems.next();
+      missing.remove(item);
+      if (elementsEquivalent(item, required.get(inOrder))) {
+        inOrder++;
+      }
     }
-    if (!toRemove.isEmpty()) {
-      failWithBadResults(failVerb, expected, "is missing", countDuplicates(toRemove));
+    if (!missing.isEmpty()) {
+      failWithBadResults(failVerb, expected, "is missing", missing.describe());
     }
-    return new InOrder("contains all elements in order", expected);
+    return new InSubsequenceOrder(required, inOrder);
   }
 
   /**
@@ -230,23 +546,47 @@ public class IterableSubject<S extends IterableSubject<S, T, C>, T, C extends It
   }
 
   private Ordered containsExactly(String failVerb, Iterable<?> required) {
-    Collection<?> toRemove = Lists.newArrayList(required);
-    Collection<Object> extra = new ArrayList<Object>();
-    // remove each item in the subject, as many times as it occurs in the subject.
-    for (Object item : getSubject()) {
-      if (!toRemove.remove(item)) {
-        extra.add(item);
-      }
+    ElementCounter missing = newCounter();
+    ElementCounter extra = newCounter();
+    if (!mergeSorted(required, missing, extra, null)) {
+      missing = countOf(required);
+      extra = newCounter();
+      countAgainstSubject(missing, extra);
     }
-    if (!toRemove.isEmpty()) {
-      failWithBadResults(failVerb, required, "is missing", countDuplicates(toRemove));
+    if (!missing.isEmpty()) {
+      failWithBadResults(failVerb, required, "is missing", missing.describe());
     }
     if (!extra.isEmpty()) {
-      failWithBadResults(failVerb, required, "has unexpected items", countDuplicates(extra));
+      failWithBadResults(failVerb, required, "has unexpected items", extra.describe());
     }
     return new InOrder("contains only these elements in order", required);
   }
 
+  /**
+   * Removes the subject's elements from {@code missing}, as many times as each occurs in the
+   * subject, and adds those which {@code missing} lacks to {@code extra}.
+   */
+  private void countAgainstSubject(ElementCounter missing, ElementCounter extra) {
+    // Count the subject and then remove those counts, so that the result (and the order in which
+    // unexpected items are reported) does not depend on how the subject was split up.
+    final List<?> chunked = subjectToEvaluateInParallel();
+    if (chunked != null) {
+      List<ElementCounter> chunks = Platform.evaluateInChunks(chunked.size(), true,
+          new IndexRangeTask<ElementCounter>() {
+            @Override public ElementCounter evaluate(int from, int to) {
+              return countOf(chunked.subList(from, to));
+            }
+          });
+      ElementCounter actual = newCounter();
+      for (ElementCounter chunk : chunks) {
+        actual.addAll(chunk);
+      }
+      missing.removeAll(actual, extra);
+    } else {
+      missing.removeAll(countOf(getSubject()), extra);
+    }
+  }
+
   /**
    * Attests that a subject contains none of the provided objects
    * or fails, eliding duplicates.
@@ -264,14 +604,554 @@ public class IterableSubject<S extends IterableSubject<S, T, C>, T, C extends It
   }
 
   private void containsNone(String failVerb, Iterable<?> excluded) {
-    Collection<Object> present = new ArrayList<Object>();
-    for (Object item : Sets.newHashSet(excluded)) {
-      if (Iterables.contains(getSubject(), item)) {
+    ElementCounter common = newCounter();
+    List<Object> present = mergeSorted(excluded, null, null, common)
+        ? common.describe()
+        : presentIn(excluded);
+    if (!present.isEmpty()) {
+      failWithBadResults(failVerb, excluded, "contains", present);
+    }
+  }
+
+  /**
+   * Attests that every element of the subject lies within {@code range}, or fails, reporting those
+   * which do not. A {@link SortedSet} in natural order is checked without visiting the elements
+   * within the range.
+   *
+   * @throws ClassCastException if an element is not mutually Comparable with the range's
+   *     endpoints.
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public void containsOnlyElementsInRange(Range<?> range) {
+    Range<Comparable> bounds = (Range) range;
+    SortedSet<Object> sorted = naturallySortedSubject();
+    List<Object> outside = new ArrayList<Object>();
+    if (sorted != null && !range.isEmpty()) {
+      if (range.hasLowerBound()) {
+        outside.addAll(sorted.headSet(range.lowerEndpoint()));
+        SortedSet<Object> rest = sorted.tailSet(range.lowerEndpoint());
+        if (!rest.isEmpty() && !bounds.contains((Comparable) rest.first())) {
+          outside.add(rest.first()); // Equal to an open lower endpoint.
+        }
+      }
+      if (range.hasUpperBound()) {
+        for (Object item : sorted.tailSet(range.upperEndpoint())) {
+          if (!bounds.contains((Comparable) item)) {
+            outside.add(item);
+          }
+        }
+      }
+    } else {
+      for (Object item : getSubject()) {
+        if (item == null || !bounds.contains((Comparable) item)) {
+          outside.add(item);
+        }
+      }
+    }
+    if (!outside.isEmpty()) {
+      failWithBadResults("contains only elements in", range, "has elements outside it", outside);
+    }
+  }
+
+  /**
+   * Attests that no element of the subject lies within {@code range}, or fails, reporting those
+   * which do. A {@link SortedSet} in natural order is checked by visiting only the elements within
+   * the range.
+   *
+   * @throws ClassCastException if an element is not mutually Comparable with the range's
+   *     endpoints.
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public void hasNoElementsIn(Range<?> range) {
+    Range<Comparable> bounds = (Range) range;
+    SortedSet<Object> sorted = naturallySortedSubject();
+    List<Object> inside = new ArrayList<Object>();
+    if (range.isEmpty()) {
+      return;
+    } else if (sorted != null) {
+      SortedSet<Object> candidates = sorted;
+      List<Object> atUpperEndpoint = new ArrayList<Object>();
+      if (range.hasLowerBound()) {
+        candidates = candidates.tailSet(range.lowerEndpoint());
+      }
+      if (range.hasUpperBound()) {
+        SortedSet<Object> fromUpper = candidates.tailSet(range.upperEndpoint());
+        if (!fromUpper.isEmpty() && bounds.contains((Comparable) fromUpper.first())) {
+          atUpperEndpoint.add(fromUpper.first()); // Equal to a closed upper endpoint.
+        }
+        candidates = candidates.headSet(range.upperEndpoint());
+      }
+      for (Object item : candidates) {
+        if (bounds.contains((Comparable) item)) {
+          inside.add(item);
+        }
+      }
+      inside.addAll(atUpperEndpoint);
+    } else {
+      for (Object item : getSubject()) {
+        if (item != null && bounds.contains((Comparable) item)) {
+          inside.add(item);
+        }
+      }
+    }
+    if (!inside.isEmpty()) {
+      failWithBadResults("has no elements in", range, "contains", inside);
+    }
+  }
+
+  /**
+   * Attests that every element of the subject satisfies {@code predicate}, or fails. The subject
+   * is read once, to the end, so that the failure can report how many elements do not satisfy it,
+   * along with the first 10 of them and their positions.
+   */
+  public void allMatch(Predicate<? super T> predicate) {
+    checkNotNull(predicate);
+    failIfAnyMatch("has only elements matching", predicate, false);
+  }
+
+  /**
+   * Attests that no element of the subject satisfies {@code predicate}, or fails. The subject is
+   * read once, to the end, so that the failure can report how many elements satisfy it, along with
+   * the first 10 of them and their positions.
+   */
+  public void noneMatch(Predicate<? super T> predicate) {
+    checkNotNull(predicate);
+    failIfAnyMatch("has no elements matching", predicate, true);
+  }
+
+  /**
+   * Attests that at least one element of the subject satisfies {@code predicate}, or fails. The
+   * subject is read only until such an element is found.
+   */
+  public void anyMatch(Predicate<? super T> predicate) {
+    checkNotNull(predicate);
+    for (T item : getSubject()) {
+      if (predicate.apply(item)) {
+        return;
+      }
+    }
+    fail("has an element matching", predicate);
+  }
+
+  /**
+   * Fails if any element of the subject gives {@code offendingResult} when tested by
+   * {@code predicate}, reporting how many do and the first few of them by index.
+   */
+  private void failIfAnyMatch(
+      String verb, Predicate<? super T> predicate, boolean offendingResult) {
+    Map<Long, T> offenders = new LinkedHashMap<Long, T>();
+    long offenderCount = 0;
+    long index = 0;
+    for (T item : getSubject()) {
+      if (predicate.apply(item) == offendingResult) {
+        if (offenderCount++ < MAX_REPORTED_ELEMENTS) {
+          offenders.put(index, item);
+        }
+      }
+      index++;
+    }
+    if (offenderCount > 0) {
+      String more = (offenderCount > offenders.size())
+          ? " and " + (offenderCount - offenders.size()) + " more"
+          : "";
+      failWithRawMessage("Not true that %s %s <%s>. It has %s %s, by index <%s>%s",
+          getDisplaySubject(), verb, predicate, offenderCount,
+          offendingResult ? "which do" : "which do not", offenders, more);
+    }
+  }
+
+  /**
+   * Attests that the subject contains no element more than once, or fails, reporting each
+   * repeated element with its number of occurrences and the positions of its first two. The
+   * subject is read once, and a {@link HashSet}, {@link EnumSet} or unsorted {@link ImmutableSet}
+   * not compared using an equivalence is not read at all, since each of those holds no two elements
+   * which are {@code equals()}. Other sets, such as identity- or comparator-based ones, may.
+   *
+   * <p>Reading stops once 10 repeated elements have been found, in which case they are reported
+   * as found among the elements read so far.
+   */
+  public void containsNoDuplicates() {
+    if (elementEquivalence == null && isEqualsBasedSet(getSubject())) {
+      return;
+    }
+    ElementCounter counter = newCounter();
+    int repeated = 0;
+    long index = 0;
+    for (Object item : getSubject()) {
+      if (counter.addAt(item, index++) == 2 && ++repeated == MAX_REPORTED_ELEMENTS) {
+        fail(format("contains no duplicates. Among its first %s elements, it has", index),
+            counter.describeRepeated());
+        return;
+      }
+    }
+    if (repeated > 0) {
+      fail("contains no duplicates. It has", counter.describeRepeated());
+    }
+  }
+
+  /**
+   * Returns whether {@code items} is a set known to decide membership by {@code equals()}, so that
+   * no two of its elements are equal.
+   */
+  private static boolean isEqualsBasedSet(Iterable<?> items) {
+    return items instanceof HashSet
+        || items instanceof EnumSet
+        || (items instanceof ImmutableSet && !(items instanceof SortedSet));
+  }
+
+  /**
+   * Returns whether {@code items} is a multiset known to count its elements by {@code equals()},
+   * so that its {@code count()} agrees with a scan.
+   */
+  private static boolean isEqualsBasedMultiset(Iterable<?> items) {
+    return items instanceof HashMultiset
+        || items instanceof LinkedHashMultiset
+        || (items instanceof ImmutableMultiset && !(items instanceof SortedMultiset));
+  }
+
+  /**
+   * Attests that the subject contains no element more than once, or fails, reporting the repeated
+   * elements. Suited to subjects too large to index: each element is first recorded in an
+   * off-heap Bloom filter sized for {@code fpp}, and only those which it reports as possibly seen
+   * before are counted exactly, in a second pass. The result is therefore exact, and
+   * {@code fpp} only bounds the share of distinct elements which are counted; a subject which is
+   * not a {@link Collection} is also read once beforehand to size the filter.
+   *
+   * <p>Elements are told apart only by their 32-bit hash codes, so among {@code n} distinct
+   * elements about {@code n / 2^32} of them share a hash code with another and are always
+   * counted. A smaller {@code fpp} than that cannot be honored, and the filter is sized for
+   * {@code n / 2^32} instead.
+   *
+   * <p>The filter is limited to 8 MiB, which at an {@code fpp} of 0.01 holds about 7 million
+   * elements. A larger subject needs a larger {@code fpp}: at 0.1 the limit is about 14 million,
+   * and at 0.5 about 46 million. A larger {@code fpp} costs only time, in the second pass.
+   *
+   * @param fpp the desired false positive probability of the filter
+   * @throws IllegalArgumentException if a filter for this many elements at {@code fpp} would need
+   *     more than 8 MiB; use a larger {@code fpp}, or {@link #containsNoDuplicates}
+   */
+  @GwtIncompatible("java.nio")
+  public void containsNoDuplicatesProbably(double fpp) {
+    checkArgument(fpp > 0.0 && fpp < 1.0, "fpp (%s) must be > 0.0 and < 1.0", fpp);
+    long size = sizeUpTo(Long.MAX_VALUE);
+    double hashCollisionRate = size / HASH_CODES;
+    OffHeapBloomFilter filter = new OffHeapBloomFilter(size, Math.max(fpp, hashCollisionRate));
+    ElementCounter candidates = newCounter();
+    for (Object item : getSubject()) {
+      boolean possiblySeen;
+      try {
+        possiblySeen = filter.put(sketchHash(item));
+      } catch (RuntimeException hashCodeFailed) {
+        possiblySeen = true;
+      }
+      if (possiblySeen && !candidates.contains(item)) {
+        candidates.add(item);
+      }
+    }
+    if (candidates.isEmpty()) {
+      return;
+    }
+    ElementCounter repeated = newCounter();
+    for (Object item : getSubject()) {
+      if (candidates.contains(item)) {
+        repeated.add(item);
+      }
+    }
+    repeated.removeSingletons();
+    if (!repeated.isEmpty()) {
+      List<Object> described = repeated.describe();
+      String more = "";
+      if (described.size() > MAX_REPORTED_ELEMENTS) {
+        more = " and " + (described.size() - MAX_REPORTED_ELEMENTS) + " more";
+        described = described.subList(0, MAX_REPORTED_ELEMENTS);
+      }
+      failWithoutSubject(format("contains no duplicates. It has <%s>%s", described, more));
+    }
+  }
+
+  /**
+   * Attests that the number of distinct elements in the subject is within
+   * {@code relativeError * expected} of {@code expected}, or fails. The number is estimated in a
+   * single pass by a HyperLogLog sketch of at most 256 KiB held off-heap, sized so that the
+   * tolerance is three standard errors of the estimate.
+   *
+   * <p>Elements are told apart only by their hash codes, so distinct counts approaching
+   * {@code 2^32} are underestimated.
+   *
+   * @throws IllegalArgumentException if {@code relativeError} is less than 0.01, which would need
+   *     a larger sketch than is used; count distinct elements exactly in that case
+   */
+  @GwtIncompatible("java.nio")
+  public void hasApproximateDistinctCount(long expected, double relativeError) {
+    checkArgument(expected >= 0, "expected (%s) must be >= 0", expected);
+    checkArgument(relativeError >= MIN_RELATIVE_ERROR,
+        "relativeError (%s) must be >= %s", relativeError, MIN_RELATIVE_ERROR);
+    HyperLogLog sketch = new HyperLogLog(HyperLogLog.precisionFor(relativeError / 3));
+    for (Object item : getSubject()) {
+      sketch.add(sketchHash(item));
+    }
+    long estimate = sketch.estimate();
+    if (Math.abs(estimate - expected) > relativeError * expected) {
+      failWithoutSubject(format("has approximately <%s> distinct elements, within a "
+          + "relative error of %s. It has an estimated <%s>", expected, relativeError, estimate));
+    }
+  }
+
+  /**
+   * Returns a 64-bit hash of {@code element} for the probabilistic sketches, consistent with the
+   * way this subject compares elements. The 32-bit hash code is spread over all 64 bits by the
+   * finalization step of MurmurHash3, which adds no information: elements with equal hash codes
+   * always have equal sketch hashes, so no sketch can tell more than {@code 2^32} values apart.
+   */
+  private long sketchHash(@Nullable Object element) {
+    long hash = (elementEquivalence == null)
+        ? ((element == null) ? 0 : element.hashCode())
+        : elementEquivalence.hash(element);
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  /**
+   * Returns the subject if it is a {@link SortedSet} ordered by the natural ordering of its
+   * elements, which is the ordering that {@link Range} uses, or null.
+   */
+  @SuppressWarnings("unchecked")
+  @Nullable private SortedSet<Object> naturallySortedSubject() {
+    if (getSubject() instanceof SortedSet) {
+      SortedSet<Object> sorted = (SortedSet<Object>) getSubject();
+      if (sorted.comparator() == null || sorted.comparator().equals(Ordering.natural())) {
+        return sorted;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns each distinct element of {@code excluded} which the subject contains, in the order in
+   * which they first occur there.
+   */
+  private List<Object> presentIn(Iterable<?> excluded) {
+    final List<?> chunked = subjectToEvaluateInParallel();
+    Membership subject;
+    if (chunked != null) {
+      // Only excluded items are looked up, so it is enough to index the subject's elements
+      // which are among them.
+      final ElementCounter excludedItems = countOf(excluded);
+      List<ElementCounter> chunks = Platform.evaluateInChunks(chunked.size(), true,
+          new IndexRangeTask<ElementCounter>() {
+            @Override public ElementCounter evaluate(int from, int to) {
+              ElementCounter found = newCounter();
+              for (Object item : chunked.subList(from, to)) {
+                if (excludedItems.contains(item) && !found.contains(item)) {
+                  found.add(item);
+                }
+              }
+              return found;
+            }
+          });
+      ElementCounter found = newCounter();
+      for (ElementCounter chunk : chunks) {
+        found.addAll(chunk);
+      }
+      subject = new Membership(found);
+    } else {
+      subject = new Membership();
+    }
+    ElementCounter seen = newCounter();
+    List<Object> present = new ArrayList<Object>();
+    for (Object item : excluded) {
+      if (seen.add(item) == 1 && subject.contains(item)) {
         present.add(item);
       }
     }
-    if (!present.isEmpty()) {
-      failWithBadResults(failVerb, excluded, "contains", present);
+    return present;
+  }
+
+  /**
+   * Compares the subject with {@code expected} using a {@link SortedMerge}, if both have been
+   * declared by {@link #assumingSorted} or are known to be sorted by the same order, accumulating
+   * into the given counters. Returns false if they are not, or turn out not to be, in which case
+   * the counters should be discarded and the subject compared by hashing instead.
+   */
+  private boolean mergeSorted(Iterable<?> expected, @Nullable ElementCounter missing,
+      @Nullable ElementCounter extra, @Nullable ElementCounter common) {
+    if (elementEquivalence != null) {
+      return false; // An order cannot be relied on to keep equivalent elements together.
+    } else if (assumedOrder != null) {
+      return new SortedMerge(assumedOrder, false)
+          .merge(getSubject(), expected, missing, extra, common);
+    }
+    Comparator<?> order = SortedMerge.commonOrder(getSubject(), expected);
+    return order != null
+        && new SortedMerge(order, true).merge(getSubject(), expected, missing, extra, common);
+  }
+
+  /**
+   * Returns whether two elements are equal, or equivalent if the subject is
+   * {@linkplain #comparingElementsUsing comparing elements using} an equivalence.
+   */
+  final boolean elementsEquivalent(@Nullable Object a, @Nullable Object b) {
+    return (elementEquivalence == null)
+        ? Objects.equal(a, b)
+        : elementEquivalence.equivalent(a, b);
+  }
+
+  /** Returns an empty counter which compares elements as this subject does. */
+  private ElementCounter newCounter() {
+    return new ElementCounter(elementEquivalence);
+  }
+
+  /** Returns a counter of {@code items}, which compares elements as this subject does. */
+  private ElementCounter countOf(Iterable<?> items) {
+    return ElementCounter.of(items, elementEquivalence);
+  }
+
+  /**
+   * Returns whether the subject contains an element equal, or equivalent, to {@code element}.
+   */
+  private boolean subjectContains(@Nullable Object element) {
+    if (elementEquivalence == null) {
+      return Iterables.contains(getSubject(), element);
+    }
+    for (Object item : getSubject()) {
+      if (elementEquivalence.equivalent(item, element)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the subject if it should be split into chunks and evaluated in parallel, or null if
+   * it should be traversed on the calling thread.
+   */
+  @Nullable List<?> subjectToEvaluateInParallel() {
+    C subject = getSubject();
+    return (parallel && subject instanceof List && subject instanceof RandomAccess)
+        ? (List<?>) subject
+        : null;
+  }
+
+  /**
+   * Returns whether the subject can answer {@code contains} without a scan, being a set or a
+   * multiset known to look its elements up by {@code equals()}, and no custom equivalence being in
+   * use. Identity and comparator based collections are scanned like any other iterable.
+   */
+  private boolean hasNativeLookup() {
+    return elementEquivalence == null
+        && (isEqualsBasedSet(getSubject()) || isEqualsBasedMultiset(getSubject()));
+  }
+
+  /**
+   * Returns a function which counts the occurrences of an element in the subject using its own
+   * lookup, if it {@linkplain #hasNativeLookup has one}, or null. Like {@link Iterables#contains},
+   * the function treats an element which the subject rejects as a query as absent. An element
+   * which cannot be looked up at all, such as one whose {@code hashCode()} throws, is counted by
+   * a scan.
+   */
+  @Nullable private Function<Object, Integer> nativeCounts() {
+    if (!hasNativeLookup()) {
+      return null;
+    }
+    return new Function<Object, Integer>() {
+      @Override public Integer apply(@Nullable Object element) {
+        try {
+          if (getSubject() instanceof Multiset) {
+            return ((Multiset<?>) getSubject()).count(element);
+          }
+          return ((Set<?>) getSubject()).contains(element) ? 1 : 0;
+        } catch (ClassCastException e) {
+          return 0;
+        } catch (NullPointerException e) {
+          return 0;
+        } catch (RuntimeException lookupFailed) {
+          int count = 0;
+          for (Object item : getSubject()) {
+            if (Objects.equal(item, element)) {
+              count++;
+            }
+          }
+          return count;
+        }
+      }
+    };
+  }
+
+  /**
+   * Answers repeated membership questions about the subject. A {@link Set} or {@link Multiset}
+   * which looks its elements up by {@code equals()} is asked directly, and any other subject is
+   * scanned for the first {@link #INDEX_THRESHOLD} questions; after that the subject is indexed
+   * once, so that each further question costs O(1) rather than a scan. A caller which has already
+   * indexed the subject may supply that index instead.
+   */
+  private final class Membership {
+    private int probes = 0;
+    private ElementCounter index;
+
+    Membership() {
+      this(null);
+    }
+
+    Membership(@Nullable ElementCounter index) {
+      this.index = index;
+    }
+
+    boolean contains(@Nullable Object element) {
+      if (index == null) {
+        if (hasNativeLookup() || ++probes <= INDEX_THRESHOLD) {
+          return subjectContains(element);
+        }
+        index = countOf(getSubject());
+      }
+      return index.contains(element);
+    }
+  }
+
+  /**
+   * The result of checking, during a containsAll traversal, whether the required elements occur
+   * in the subject in the same relative order, though not necessarily contiguously.
+   */
+  private class InSubsequenceOrder implements Ordered {
+    private List<?> required;
+    private int inOrder;
+    private final Iterable<?> expected;
+
+    InSubsequenceOrder(List<?> required, int inOrder) {
+      this.expected = required;
+      this.required = required;
+      this.inOrder = inOrder;
+    }
+
+    /**
+     * Creates an instance which checks the order only if asked, for a containsAll which was
+     * evaluated without a traversal in subject order.
+     */
+    InSubsequenceOrder(Iterable<?> expected) {
+      this.expected = expected;
+      this.required = null;
+      this.inOrder = -1;
+    }
+
+    @Override public void inOrder() {
+      if (required == null) {
+        required = Lists.newArrayList(expected);
+        inOrder = 0;
+        Iterator<T> actualItems = getSubject().iterator();
+        while (inOrder < required.size() && actualItems.hasNext()) {
+          if (elementsEquivalent(actualItems.next(), required.get(inOrder))) {
+            inOrder++;
+          }
+        }
+      }
+      if (inOrder < required.size()) {
+        failWithRawMessage("Not true that %s contains all elements in order <%s>. "
+            + "It has <%s> (at expected index %s) out of order",
+            getDisplaySubject(), required, required.get(inOrder), inOrder);
+      }
     }
   }
 
@@ -285,22 +1165,7 @@ public class IterableSubject<S extends IterableSubject<S, T, C>, T, C extends It
     }
 
     @Override public void inOrder() {
-      Iterator<T> actualItems = getSubject().iterator();
-      for (Object expected : required) {
-        if (!actualItems.hasNext()) {
-          fail(check, required);
-        } else {
-          Object actual = actualItems.next();
-          if (actual == expected || actual != null && actual.equals(expected)) {
-            continue;
-          } else {
-            fail(check, required);
-          }
-        }
-      }
-      if (actualItems.hasNext()) {
-        fail(check, required);
-      }
+      checkInOrder(check, check, required);
     }
   }
 }
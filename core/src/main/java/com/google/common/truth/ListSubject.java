@@ -15,7 +15,14 @@
  */
 package com.google.common.truth;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.truth.StringUtil.format;
+
+import com.google.common.base.Joiner;
+
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 
 public class ListSubject<S extends ListSubject<S, T, C>, T, C extends List<T>>
@@ -27,33 +34,123 @@ public class ListSubject<S extends ListSubject<S, T, C>, T, C extends List<T>>
     return new ListSubject(failureStrategy, list);
   }
 
+  private boolean reportAllViolations = false;
+  private int maxReportedViolations = 1;
+
   protected ListSubject(FailureStrategy failureStrategy, C list) {
     super(failureStrategy, list);
   }
 
   /**
-   * Attests that a List contains the specified sequence.
+   * Attests that a List contains the specified sequence, as a contiguous run of elements.
+   *
+   * <p>The subject is traversed once, in time linear in the sizes of the list and the sequence,
+   * whatever the type of the list. On failure, the longest prefix of the sequence which the list
+   * does contain is reported, along with where it begins.
    */
   public void containsSequence(List<?> sequence) {
-    if (sequence.isEmpty()) {
+    SequenceSearch search = new SequenceSearch(sequence, getSubject());
+    if (search.foundAt >= 0) {
       return;
     }
+    if (search.longestMatch == 0) {
+      fail("contains sequence", sequence);
+    } else {
+      failWithRawMessage("Not true that %s contains sequence <%s>. "
+          + "Its longest partial match was <%s>, beginning at index %s",
+          getDisplaySubject(), sequence, search.pattern.subList(0, search.longestMatch),
+          search.longestMatchStart);
+    }
+  }
+
+  /**
+   * Attests that a List contains the specified sequence, beginning at the given index. A list
+   * contains the empty sequence at every index from 0 to its size, inclusive, and at no other.
+   */
+  public void containsSequenceAt(List<?> sequence, int index) {
+    checkArgument(index >= 0, "index(%s) must be >= 0", index);
     List<?> list = getSubject();
-    while (true) {
-      int first = list.indexOf(sequence.get(0));
-      if (first < 0) {
-        break;    // Not found
+    if (index > list.size()) {
+      failWithRawMessage("Not true that %s contains sequence <%s> at index %s. "
+          + "It has only %s elements", getDisplaySubject(), sequence, index, list.size());
+      return;
+    }
+    List<Object> actual = new ArrayList<Object>();
+    Iterator<?> items = list.listIterator(index);
+    for (int i = 0; i < sequence.size() && items.hasNext(); i++) {
+      actual.add(items.next());
+    }
+    if (!sameSequence(actual, sequence)) {
+      failWithRawMessage("Not true that %s contains sequence <%s> at index %s. It has <%s> there",
+          getDisplaySubject(), sequence, index, actual);
+    }
+  }
+
+  /**
+   * Attests that a List does not contain the specified sequence, as a contiguous run of elements.
+   * Every list contains the empty sequence.
+   */
+  public void doesNotContainSequence(List<?> sequence) {
+    SequenceSearch search = new SequenceSearch(sequence, getSubject());
+    if (search.foundAt >= 0) {
+      failWithRawMessage("Not true that %s does not contain sequence <%s>. "
+          + "It was found at index %s",
+          getDisplaySubject(), sequence, search.foundAt);
+    }
+  }
+
+  /**
+   * Searches a list for the first occurrence of a sequence, using the Knuth-Morris-Pratt
+   * algorithm. The list is only traversed with its iterator, and never backtracked over, so a
+   * {@link java.util.LinkedList} costs no more than an {@link ArrayList}.
+   */
+  private final class SequenceSearch {
+    final List<?> pattern;
+    /** The index at which the sequence was found, or -1. */
+    int foundAt = -1;
+    /** The length of the longest prefix of the sequence which the list contains. */
+    int longestMatch = 0;
+    int longestMatchStart = -1;
+
+    SequenceSearch(List<?> sequence, List<?> list) {
+      this.pattern = new ArrayList<Object>(sequence);
+      int size = pattern.size();
+      if (size == 0) {
+        foundAt = 0;
+        return;
       }
-      int last = first + sequence.size();
-      if (last > list.size()) {
-        break;    // Not enough room left
+      // fallback[i] is the length of the longest proper prefix of pattern[0..i] which is also a
+      // suffix of it, i.e. the match to resume from when pattern[i + 1] fails to match.
+      int[] fallback = new int[size];
+      for (int i = 1, matched = 0; i < size; i++) {
+        while (matched > 0 && !elementsEquivalent(pattern.get(i), pattern.get(matched))) {
+          matched = fallback[matched - 1];
+        }
+        if (elementsEquivalent(pattern.get(i), pattern.get(matched))) {
+          matched++;
+        }
+        fallback[i] = matched;
       }
-      if (sequence.equals(list.subList(first, last))) {
-        return;
+      int matched = 0;
+      int index = 0;
+      for (Object item : list) {
+        while (matched > 0 && !elementsEquivalent(item, pattern.get(matched))) {
+          matched = fallback[matched - 1];
+        }
+        if (elementsEquivalent(item, pattern.get(matched))) {
+          matched++;
+        }
+        if (matched > longestMatch) {
+          longestMatch = matched;
+          longestMatchStart = index - matched + 1;
+        }
+        if (matched == size) {
+          foundAt = longestMatchStart;
+          return;
+        }
+        index++;
       }
-      list = list.subList(first + 1, list.size());
     }
-    fail("contains sequence", sequence);
   }
 
   /**
@@ -64,12 +161,10 @@ public class ListSubject<S extends ListSubject<S, T, C>, T, C extends List<T>>
    * @throws NullPointerException if any element is null.
    */
   public void isOrdered() {
-    pairwiseCheck(new PairwiseChecker<T>() {
+    pairwiseCheck("is strictly ordered", new PairwiseChecker<T>() {
       @SuppressWarnings("unchecked")
-      @Override public void check(T prev, T next) {
-        if (((Comparable<T>) prev).compareTo(next) >= 0) {
-          fail("is strictly ordered", prev, next);
-        }
+      @Override public boolean check(T prev, T next) {
+        return ((Comparable<T>) prev).compareTo(next) < 0;
       }
     });
   }
@@ -82,12 +177,10 @@ public class ListSubject<S extends ListSubject<S, T, C>, T, C extends List<T>>
    * @throws NullPointerException if any element is null.
    */
   public void isPartiallyOrdered() {
-    pairwiseCheck(new PairwiseChecker<T>() {
+    pairwiseCheck("is partially ordered", new PairwiseChecker<T>() {
       @SuppressWarnings("unchecked")
-      @Override public void check(T prev, T next) {
-        if (((Comparable<T>) prev).compareTo(next) > 0) {
-          fail("is partially ordered", prev, next);
-        }
+      @Override public boolean check(T prev, T next) {
+        return ((Comparable<T>) prev).compareTo(next) <= 0;
       }
     });
   }
@@ -100,11 +193,9 @@ public class ListSubject<S extends ListSubject<S, T, C>, T, C extends List<T>>
    * @throws NullPointerException if any element is null.
    */
   public void isOrdered(final Comparator<T> comparator) {
-    pairwiseCheck(new PairwiseChecker<T>() {
-      @Override public void check(T prev, T next) {
-        if (comparator.compare(prev, next) >= 0) {
-          fail("is strictly ordered", prev, next);
-        }
+    pairwiseCheck("is strictly ordered", new PairwiseChecker<T>() {
+      @Override public boolean check(T prev, T next) {
+        return comparator.compare(prev, next) < 0;
       }
     });
   }
@@ -117,28 +208,114 @@ public class ListSubject<S extends ListSubject<S, T, C>, T, C extends List<T>>
    * @throws NullPointerException if any element is null.
    */
   public void isPartiallyOrdered(final Comparator<T> comparator) {
-    pairwiseCheck(new PairwiseChecker<T>() {
-      @Override public void check(T prev, T next) {
-        if (comparator.compare(prev, next) > 0) {
-          fail("is partially ordered", prev, next);
-        }
+    pairwiseCheck("is partially ordered", new PairwiseChecker<T>() {
+      @Override public boolean check(T prev, T next) {
+        return comparator.compare(prev, next) <= 0;
       }
     });
   }
 
-  private void pairwiseCheck(PairwiseChecker<T> checker) {
-    List<T> list = getSubject();
-    if (list.size() > 1) {
-      T prev = list.get(0);
-      for (int n = 1; n < list.size(); n++) {
-        T next = list.get(n);
-        checker.check(prev, next);
-        prev = next;
+  /**
+   * Returns whether two lists have equal, or equivalent, elements in the same order.
+   */
+  private boolean sameSequence(List<?> actual, List<?> expected) {
+    if (actual.size() != expected.size()) {
+      return false;
+    }
+    Iterator<?> expectedItems = expected.iterator();
+    for (Object item : actual) {
+      if (!elementsEquivalent(item, expectedItems.next())) {
+        return false;
       }
     }
+    return true;
+  }
+
+  /**
+   * Makes the ordering propositions, such as {@link #isOrdered()}, find every pair of adjacent
+   * elements which is out of order rather than stopping at the first, and report how many there
+   * are along with the first {@code max} of them.
+   */
+  @SuppressWarnings("unchecked")
+  public S reportingAllViolations(int max) {
+    checkArgument(max > 0, "max(%s) must be > 0", max);
+    this.reportAllViolations = true;
+    this.maxReportedViolations = max;
+    return (S) this;
+  }
+
+  /**
+   * Fails with {@code verb} if any element and its predecessor do not pass {@code checker},
+   * reporting the pair at the lowest index, or the first few pairs in
+   * {@link #reportingAllViolations} mode.
+   *
+   * <p>The list is traversed with its iterator, so that each element is read once whatever the
+   * type of the list. When evaluated in parallel, each chunk also checks the pair which straddles
+   * its lower boundary, and the chunks' results are combined in order.
+   */
+  private void pairwiseCheck(String verb, final PairwiseChecker<T> checker) {
+    final List<T> list = getSubject();
+    List<Violations> chunks = Platform.evaluateInChunks(list.size(),
+        subjectToEvaluateInParallel() != null,
+        new IndexRangeTask<Violations>() {
+          @Override public Violations evaluate(int from, int to) {
+            Violations violations = new Violations();
+            int start = Math.max(from - 1, 0);
+            Iterator<T> items = list.subList(start, to).iterator();
+            if (!items.hasNext()) {
+              return violations;
+            }
+            T prev = items.next();
+            for (int n = start + 1; items.hasNext(); n++) {
+              T next = items.next();
+              if (!checker.check(prev, next)) {
+                violations.count++;
+                if (violations.reported.size() < maxReportedViolations) {
+                  violations.reported.add(format("<%s> followed by <%s> at index %s",
+                      prev, next, n));
+                }
+                if (!reportAllViolations) {
+                  break;
+                }
+              }
+              prev = next;
+            }
+            return violations;
+          }
+        });
+    long count = 0;
+    List<String> reported = new ArrayList<String>();
+    for (Violations chunk : chunks) {
+      count += chunk.count;
+      for (String violation : chunk.reported) {
+        if (reported.size() < maxReportedViolations) {
+          reported.add(violation);
+        }
+      }
+    }
+    if (count == 0) {
+      return;
+    }
+    if (!reportAllViolations) {
+      failWithRawMessage("Not true that %s %s. It has %s",
+          getDisplaySubject(), verb, reported.get(0));
+    } else {
+      failWithRawMessage("Not true that %s %s. It has %s out-of-order pairs: %s%s",
+          getDisplaySubject(), verb, count, Joiner.on(", ").join(reported),
+          (count > reported.size()) ? " and " + (count - reported.size()) + " more" : "");
+    }
+  }
+
+  /** The out-of-order pairs found in one chunk of the subject. */
+  private static final class Violations {
+    int count = 0;
+    final List<String> reported = new ArrayList<String>();
   }
 
   private interface PairwiseChecker<T> {
-    void check(T prev, T next);
+    /**
+     * Returns whether {@code prev} may be followed by {@code next}.
+     */
+    boolean check(T prev, T next);
   }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+/**
+ * Counts occurrences of {@code long} values in an open-addressed table with linear probing, so
+ * that no value is boxed. Its capacity is fixed when it is created.
+ */
+final class LongHashCounter {
+  private static final double LOAD_FACTOR = 0.5;
+
+  /** The greatest power of two which an array can hold. */
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  private final long[] keys;
+  private final int[] counts;
+  /** Whether each slot holds a key. A count may reach zero while its key is still in the table. */
+  private final boolean[] used;
+  private final int mask;
+
+  /**
+   * @param expectedKeys the greatest number of distinct values which will be added. Beyond
+   *     {@code MAX_CAPACITY * LOAD_FACTOR}, the table is loaded more heavily rather than grown past
+   *     {@link #MAX_CAPACITY} slots.
+   */
+  LongHashCounter(int expectedKeys) {
+    long wanted = Math.max((long) (expectedKeys / LOAD_FACTOR), 2);
+    int capacity = (int) Math.min(Long.highestOneBit(wanted - 1) << 1, MAX_CAPACITY);
+    this.keys = new long[capacity];
+    this.counts = new int[capacity];
+    this.used = new boolean[capacity];
+    this.mask = capacity - 1;
+  }
+
+  /** Adds one occurrence of {@code key}. */
+  void add(long key) {
+    int slot = slotOf(key);
+    used[slot] = true;
+    keys[slot] = key;
+    counts[slot]++;
+  }
+
+  /** Returns how many occurrences of {@code key} there are. */
+  int count(long key) {
+    int slot = slotOf(key);
+    return used[slot] ? counts[slot] : 0;
+  }
+
+  /** Removes one occurrence of {@code key}, and returns whether there was one. */
+  boolean removeOne(long key) {
+    int slot = slotOf(key);
+    if (!used[slot] || counts[slot] == 0) {
+      return false;
+    }
+    counts[slot]--;
+    return true;
+  }
+
+  /** Removes every occurrence of {@code key}, and returns how many there were. */
+  int removeAll(long key) {
+    int slot = slotOf(key);
+    if (!used[slot]) {
+      return 0;
+    }
+    int count = counts[slot];
+    counts[slot] = 0;
+    return count;
+  }
+
+  /** Returns the slot which holds {@code key}, or the empty slot in which it belongs. */
+  private int slotOf(long key) {
+    int slot = (int) mix(key) & mask;
+    while (used[slot] && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /** The finalizer of MurmurHash3, which spreads every bit of {@code key} over the result. */
+  private static long mix(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    key *= 0xc4ceb9fe1a85ec53L;
+    key ^= key >>> 33;
+    return key;
+  }
+}
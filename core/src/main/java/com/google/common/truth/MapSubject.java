@@ -15,11 +15,18 @@
  */
 package com.google.common.truth;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.truth.StringUtil.format;
+
+import com.google.common.base.Equivalence;
 import com.google.common.collect.Maps;
 
 import java.util.Arrays;
 import java.util.Map;
 
+import javax.annotation.Nullable;
+
 /**
  * Propositions for {@link Map} subjects.
  *
@@ -29,10 +36,35 @@ import java.util.Map;
 public class MapSubject<S extends MapSubject<S, K, V, M>, K, V, M extends Map<K, V>>
     extends Subject<S, M> {
 
+  /** The equivalence by which values are compared, or null to use {@code equals()}. */
+  @Nullable private Equivalence<Object> valueEquivalence = null;
+
   public MapSubject(FailureStrategy failureStrategy, M map) {
     super(failureStrategy, map);
   }
 
+  /**
+   * Makes {@link #containsExactlyEntriesIn} and {@link #containsAllEntriesIn} compare values
+   * using {@code equivalence} rather than {@code equals()}. Keys are always compared by the maps'
+   * own lookups.
+   */
+  @SuppressWarnings("unchecked")
+  public S comparingValuesUsing(Equivalence<? super V> equivalence) {
+    this.valueEquivalence = (Equivalence<Object>) checkNotNull(equivalence);
+    return (S) this;
+  }
+
+  /**
+   * Makes {@link #containsExactlyEntriesIn} and {@link #containsAllEntriesIn} consider two
+   * numeric values equal if they differ by no more than {@code tolerance}, as for maps with
+   * {@link Double} values. Values which are not both numbers are compared using
+   * {@code equals()}.
+   */
+  public S comparingValuesWithin(double tolerance) {
+    checkArgument(tolerance >= 0, "tolerance (%s) must be >= 0", tolerance);
+    return comparingValuesUsing(new WithinTolerance(tolerance));
+  }
+
   /**
    * Attests that the map contains no entries, or fails.
    */
@@ -87,6 +119,131 @@ public class MapSubject<S extends MapSubject<S, K, V, M>, K, V, M extends Map<K,
     }
   }
 
+  /**
+   * Attests that the map contains exactly the entries of {@code expected}, or fails, reporting
+   * the first few missing entries, unexpected entries and keys whose values differ. Only the
+   * smaller map is iterated, looking each key up in the other. The larger one is only read if
+   * there are entries to report from it.
+   */
+  public void containsExactlyEntriesIn(Map<?, ?> expected) {
+    checkNotNull(expected);
+    EntryDiff diff = new EntryDiff();
+    Map<?, ?> actual = getSubject();
+    if (expected.size() <= actual.size()) {
+      long present = diff.compareEntries(expected, actual, false);
+      diff.collectKeysAbsentFrom(expected, actual, actual.size() - present, true);
+    } else {
+      long present = diff.compareEntries(actual, expected, true);
+      diff.collectKeysAbsentFrom(actual, expected, expected.size() - present, false);
+    }
+    diff.failIfDifferent("contains exactly the expected entries");
+  }
+
+  /**
+   * Attests that the map contains all of the entries of {@code expected}, and perhaps others, or
+   * fails, reporting the first few missing entries and keys whose values differ. Only
+   * {@code expected} is iterated, looking each key up in the map.
+   */
+  public void containsAllEntriesIn(Map<?, ?> expected) {
+    checkNotNull(expected);
+    EntryDiff diff = new EntryDiff();
+    diff.compareEntries(expected, getSubject(), false);
+    diff.failIfDifferent("contains all of the expected entries");
+  }
+
+  private boolean valuesEquivalent(@Nullable Object actual, @Nullable Object expected) {
+    return (valueEquivalence == null)
+        ? (actual == null ? expected == null : actual.equals(expected))
+        : valueEquivalence.equivalent(actual, expected);
+  }
+
+  /** Collects the differences between the subject and an expected map. */
+  private final class EntryDiff {
+    final GroupedDiff diff = new GroupedDiff();
+    final GroupedDiff.Group missing = diff.group("is missing the entries");
+    final GroupedDiff.Group unexpected = diff.group("has the unexpected entries");
+    final GroupedDiff.Group different = diff.group("has different values for the keys");
+
+    /**
+     * Looks up each key of {@code iterated} in {@code other}, recording the entries which
+     * {@code other} lacks and the keys whose values differ, and returns the number of keys found.
+     *
+     * @param iteratedIsActual whether {@code iterated} is the subject, rather than the expected
+     *     map
+     */
+    long compareEntries(Map<?, ?> iterated, Map<?, ?> other, boolean iteratedIsActual) {
+      long found = 0;
+      for (Map.Entry<?, ?> entry : iterated.entrySet()) {
+        Object key = entry.getKey();
+        Object otherValue = other.get(key);
+        if (otherValue == null && !other.containsKey(key)) {
+          (iteratedIsActual ? unexpected : missing).add(key, entry.getValue());
+          continue;
+        }
+        found++;
+        Object actualValue = iteratedIsActual ? entry.getValue() : otherValue;
+        Object expectedValue = iteratedIsActual ? otherValue : entry.getValue();
+        if (!valuesEquivalent(actualValue, expectedValue)) {
+          different.add(key, format("%s (expected %s)", actualValue, expectedValue));
+        }
+      }
+      return found;
+    }
+
+    /**
+     * Records the {@code count} entries of {@code scanned} whose keys {@code other} lacks,
+     * reading {@code scanned} only as far as is needed to describe the first few.
+     */
+    void collectKeysAbsentFrom(
+        Map<?, ?> other, Map<?, ?> scanned, long count, boolean scannedIsActual) {
+      if (count <= 0) {
+        return;
+      }
+      GroupedDiff.Group group = scannedIsActual ? unexpected : missing;
+      for (Map.Entry<?, ?> entry : scanned.entrySet()) {
+        if (group.isFull()) {
+          break;
+        }
+        if (!other.containsKey(entry.getKey())) {
+          group.add(entry.getKey(), entry.getValue());
+        }
+      }
+      group.countAtLeast(count);
+    }
+
+    void failIfDifferent(String verb) {
+      String message = diff.describe(verb);
+      if (message != null) {
+        failWithoutSubject(message);
+      }
+    }
+  }
+
+  /** Considers two numbers equivalent if they differ by no more than a tolerance. */
+  private static final class WithinTolerance extends Equivalence<Object> {
+    private final double tolerance;
+
+    WithinTolerance(double tolerance) {
+      this.tolerance = tolerance;
+    }
+
+    @Override protected boolean doEquivalent(Object a, Object b) {
+      if (a instanceof Number && b instanceof Number) {
+        return MathUtil.equals(((Number) a).doubleValue(), ((Number) b).doubleValue(), tolerance);
+      }
+      return a.equals(b);
+    }
+
+    /** Not consistent with the tolerance, but values are only ever compared, never hashed. */
+    @Override protected int doHash(Object o) {
+      return 0;
+    }
+
+    @Override public String toString() {
+      return "within " + tolerance;
+    }
+  }
+
   // TODO(user): Get rid of everything below this line.
 
   /**
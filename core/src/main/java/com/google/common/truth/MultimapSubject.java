@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multiset;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Propositions for {@link Multimap} subjects. Bulk comparisons are made key by key, looking each
+ * key up in the multimaps' own {@link Multimap#asMap() asMap()} views, and compare the values of
+ * a key regardless of their order.
+ */
+public class MultimapSubject<S extends MultimapSubject<S, K, V, M>, K, V,
+    M extends Multimap<K, V>> extends Subject<S, M> {
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  static <K, V, M extends Multimap<K, V>>
+      MultimapSubject<? extends MultimapSubject<?, K, V, M>, K, V, M>
+      create(FailureStrategy failureStrategy, Multimap<K, V> multimap) {
+    return new MultimapSubject(failureStrategy, multimap);
+  }
+
+  protected MultimapSubject(FailureStrategy failureStrategy, M multimap) {
+    super(failureStrategy, multimap);
+  }
+
+  /**
+   * Attests that the multimap contains no entries, or fails.
+   */
+  public void isEmpty() {
+    if (!getSubject().isEmpty()) {
+      fail("is empty");
+    }
+  }
+
+  /**
+   * Attests that the multimap contains one or more entries, or fails.
+   */
+  public void isNotEmpty() {
+    if (getSubject().isEmpty()) {
+      fail("is not empty");
+    }
+  }
+
+  /**
+   * Attests that the multimap contains exactly {@code expectedSize} entries, or fails.
+   */
+  public void hasSize(int expectedSize) {
+    checkArgument(expectedSize >= 0, "expectedSize(%s) must be >= 0", expectedSize);
+    int actualSize = getSubject().size();
+    if (actualSize != expectedSize) {
+      failWithBadResults("has a size of", expectedSize, "is", actualSize);
+    }
+  }
+
+  /**
+   * Attests that the multimap has at least one value for the given key.
+   */
+  public void containsKey(@Nullable Object key) {
+    if (!getSubject().containsKey(key)) {
+      fail("contains key", key);
+    }
+  }
+
+  /**
+   * Attests that the multimap has no values for the given key.
+   */
+  public void doesNotContainKey(@Nullable Object key) {
+    if (getSubject().containsKey(key)) {
+      fail("does not contain key", key);
+    }
+  }
+
+  /**
+   * Attests that the multimap contains the given entry.
+   */
+  public void containsEntry(@Nullable Object key, @Nullable Object value) {
+    if (!getSubject().containsEntry(key, value)) {
+      fail("contains entry", key, value);
+    }
+  }
+
+  /**
+   * Attests that the multimap does not contain the given entry.
+   */
+  public void doesNotContainEntry(@Nullable Object key, @Nullable Object value) {
+    if (getSubject().containsEntry(key, value)) {
+      fail("does not contain entry", key, value);
+    }
+  }
+
+  /**
+   * Attests that the multimap has exactly the keys of {@code expected}, each with the same values
+   * in any order, or fails. Failures are described key by key: the first few keys which are
+   * missing, which are unexpected, and whose values differ. Only the keys of the multimap with
+   * fewer of them are iterated.
+   */
+  public void containsExactlyEntriesIn(Multimap<?, ?> expected) {
+    checkNotNull(expected);
+    KeyDiff diff = new KeyDiff(true);
+    Map<?, ? extends Collection<?>> actual = getSubject().asMap();
+    Map<?, ? extends Collection<?>> required = expected.asMap();
+    if (required.size() <= actual.size()) {
+      long present = diff.compareKeys(required, actual, false);
+      diff.collectKeysAbsentFrom(required, actual, actual.size() - present, true);
+    } else {
+      long present = diff.compareKeys(actual, required, true);
+      diff.collectKeysAbsentFrom(actual, required, required.size() - present, false);
+    }
+    diff.failIfDifferent("contains exactly the expected entries");
+  }
+
+  /**
+   * Attests that the multimap has every entry of {@code expected}, as many times as it does, and
+   * perhaps others, or fails, describing the first few keys which are missing or lack values.
+   * Only the keys of {@code expected} are iterated.
+   */
+  public void containsAllEntriesIn(Multimap<?, ?> expected) {
+    checkNotNull(expected);
+    KeyDiff diff = new KeyDiff(false);
+    diff.compareKeys(expected.asMap(), getSubject().asMap(), false);
+    diff.failIfDifferent("contains all of the expected entries");
+  }
+
+  /** Collects the differences between the subject and an expected multimap, by key. */
+  private final class KeyDiff {
+    final boolean exact;
+    final GroupedDiff diff = new GroupedDiff();
+    final GroupedDiff.Group missing = diff.group("is missing the keys");
+    final GroupedDiff.Group unexpected = diff.group("has the unexpected keys");
+    final GroupedDiff.Group different = diff.group("has different values for the keys");
+
+    /**
+     * @param exact whether values which the subject has but which were not expected are
+     *     differences
+     */
+    KeyDiff(boolean exact) {
+      this.exact = exact;
+    }
+
+    /**
+     * Looks up each key of {@code iterated} in {@code other}, recording the keys which
+     * {@code other} lacks and those whose values differ, and returns the number of keys found.
+     */
+    long compareKeys(Map<?, ? extends Collection<?>> iterated,
+        Map<?, ? extends Collection<?>> other, boolean iteratedIsActual) {
+      long found = 0;
+      for (Map.Entry<?, ? extends Collection<?>> entry : iterated.entrySet()) {
+        Collection<?> otherValues = other.get(entry.getKey());
+        if (otherValues == null) {
+          (iteratedIsActual ? unexpected : missing).add(entry.getKey(), entry.getValue());
+          continue;
+        }
+        found++;
+        String difference = iteratedIsActual
+            ? describeDifference(entry.getValue(), otherValues)
+            : describeDifference(otherValues, entry.getValue());
+        if (difference != null) {
+          different.add(entry.getKey(), difference);
+        }
+      }
+      return found;
+    }
+
+    /**
+     * Returns a description of the values which one key lacks and has unexpectedly, or null if
+     * there are none.
+     */
+    @Nullable String describeDifference(Collection<?> actual, Collection<?> expected) {
+      Multiset<Object> missingValues = HashMultiset.<Object>create(expected);
+      List<Object> unexpectedValues = new ArrayList<Object>();
+      for (Object value : actual) {
+        if (!missingValues.remove(value)) {
+          unexpectedValues.add(value);
+        }
+      }
+      List<String> parts = new ArrayList<String>();
+      if (!missingValues.isEmpty()) {
+        parts.add("missing " + missingValues);
+      }
+      if (exact && !unexpectedValues.isEmpty()) {
+        parts.add("unexpected " + unexpectedValues);
+      }
+      return parts.isEmpty() ? null : "(" + Joiner.on(", ").join(parts) + ")";
+    }
+
+    /**
+     * Records the {@code count} keys of {@code scanned} which {@code other} lacks, reading
+     * {@code scanned} only as far as is needed to describe the first few.
+     */
+    void collectKeysAbsentFrom(Map<?, ? extends Collection<?>> other,
+        Map<?, ? extends Collection<?>> scanned, long count, boolean scannedIsActual) {
+      if (count <= 0) {
+        return;
+      }
+      GroupedDiff.Group group = scannedIsActual ? unexpected : missing;
+      for (Map.Entry<?, ? extends Collection<?>> entry : scanned.entrySet()) {
+        if (group.isFull()) {
+          break;
+        }
+        if (!other.containsKey(entry.getKey())) {
+          group.add(entry.getKey(), entry.getValue());
+        }
+      }
+      group.countAtLeast(count);
+    }
+
+    void failIfDifferent(String verb) {
+      String message = diff.describe(verb);
+      if (message != null) {
+        failWithoutSubject(message);
+      }
+    }
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.truth.StringUtil.format;
+
+import com.google.common.collect.Multiset;
+
+import javax.annotation.Nullable;
+
+/**
+ * Propositions for {@link Multiset} subjects, which compare the counts of elements by looking
+ * them up in the multisets' own {@link Multiset#count} rather than by re-counting the elements.
+ */
+public class MultisetSubject<S extends MultisetSubject<S, T, C>, T, C extends Multiset<T>>
+    extends CollectionSubject<S, T, C> {
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  static <T, C extends Multiset<T>> MultisetSubject<? extends MultisetSubject<?, T, C>, T, C>
+      create(FailureStrategy failureStrategy, Multiset<T> multiset) {
+    return new MultisetSubject(failureStrategy, multiset);
+  }
+
+  protected MultisetSubject(FailureStrategy failureStrategy, C multiset) {
+    super(failureStrategy, multiset);
+  }
+
+  /**
+   * Attests that the multiset contains exactly {@code expectedCount} occurrences of
+   * {@code element}, or fails.
+   */
+  public void hasCount(@Nullable Object element, int expectedCount) {
+    checkArgument(expectedCount >= 0, "expectedCount(%s) must be >= 0", expectedCount);
+    int actualCount = getSubject().count(element);
+    if (actualCount != expectedCount) {
+      failWithRawMessage("Not true that %s has %s occurrences of <%s>. It has %s",
+          getDisplaySubject(), expectedCount, element, actualCount);
+    }
+  }
+
+  /**
+   * Attests that the multiset contains each distinct element of {@code expected} exactly as many
+   * times as it does, and no other elements, or fails, reporting the first few elements which are
+   * missing, unexpected or have a different count. Only the distinct elements of the multiset
+   * with fewer of them are iterated.
+   */
+  public void containsExactlyCountsIn(Multiset<?> expected) {
+    checkNotNull(expected);
+    CountDiff diff = new CountDiff();
+    Multiset<?> actual = getSubject();
+    int actualDistinct = actual.entrySet().size();
+    int expectedDistinct = expected.entrySet().size();
+    if (expectedDistinct <= actualDistinct) {
+      long present = diff.compareCounts(expected, actual, false);
+      diff.collectElementsAbsentFrom(expected, actual, actualDistinct - present, true);
+    } else {
+      long present = diff.compareCounts(actual, expected, true);
+      diff.collectElementsAbsentFrom(actual, expected, expectedDistinct - present, false);
+    }
+    diff.failIfDifferent("contains exactly the expected counts");
+  }
+
+  /**
+   * Attests that the multiset contains each distinct element of {@code expected} at least as many
+   * times as it does, or fails, reporting the first few elements which are missing or too few.
+   * Only the distinct elements of {@code expected} are iterated.
+   */
+  public void containsAtLeastCountsIn(Multiset<?> expected) {
+    checkNotNull(expected);
+    GroupedDiff diff = new GroupedDiff();
+    GroupedDiff.Group missing = diff.group("is missing the elements");
+    GroupedDiff.Group tooFew = diff.group("has too few of the elements");
+    for (Multiset.Entry<?> entry : expected.entrySet()) {
+      int actualCount = getSubject().count(entry.getElement());
+      if (actualCount == 0) {
+        missing.add(entry.getElement(), entry.getCount());
+      } else if (actualCount < entry.getCount()) {
+        tooFew.add(entry.getElement(),
+            format("%s (expected at least %s)", actualCount, entry.getCount()));
+      }
+    }
+    String message = diff.describe("contains at least the expected counts");
+    if (message != null) {
+      failWithoutSubject(message);
+    }
+  }
+
+  /**
+   * Collects the differences between the subject and an expected multiset, each described by
+   * element and count.
+   */
+  private final class CountDiff {
+    final GroupedDiff diff = new GroupedDiff();
+    final GroupedDiff.Group missing = diff.group("is missing the elements");
+    final GroupedDiff.Group unexpected = diff.group("has the unexpected elements");
+    final GroupedDiff.Group different = diff.group("has different counts of the elements");
+
+    /**
+     * Looks up each distinct element of {@code iterated} in {@code other}, recording those which
+     * {@code other} lacks and those whose counts differ, and returns the number found.
+     */
+    long compareCounts(Multiset<?> iterated, Multiset<?> other, boolean iteratedIsActual) {
+      long found = 0;
+      for (Multiset.Entry<?> entry : iterated.entrySet()) {
+        int otherCount = other.count(entry.getElement());
+        if (otherCount == 0) {
+          (iteratedIsActual ? unexpected : missing).add(entry.getElement(), entry.getCount());
+          continue;
+        }
+        found++;
+        if (otherCount != entry.getCount()) {
+          int actualCount = iteratedIsActual ? entry.getCount() : otherCount;
+          int expectedCount = iteratedIsActual ? otherCount : entry.getCount();
+          different.add(entry.getElement(), format("%s (expected %s)", actualCount, expectedCount));
+        }
+      }
+      return found;
+    }
+
+    /**
+     * Records the {@code count} distinct elements of {@code scanned} which {@code other} lacks,
+     * reading {@code scanned} only as far as is needed to describe the first few.
+     */
+    void collectElementsAbsentFrom(
+        Multiset<?> other, Multiset<?> scanned, long count, boolean scannedIsActual) {
+      if (count <= 0) {
+        return;
+      }
+      GroupedDiff.Group group = scannedIsActual ? unexpected : missing;
+      for (Multiset.Entry<?> entry : scanned.entrySet()) {
+        if (group.isFull()) {
+          break;
+        }
+        if (other.count(entry.getElement()) == 0) {
+          group.add(entry.getElement(), entry.getCount());
+        }
+      }
+      group.countAtLeast(count);
+    }
+
+    void failIfDifferent(String verb) {
+      String message = diff.describe(verb);
+      if (message != null) {
+        failWithoutSubject(message);
+      }
+    }
+  }
+}
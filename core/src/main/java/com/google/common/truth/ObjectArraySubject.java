@@ -73,9 +73,7 @@ public class ObjectArraySubject<T> extends AbstractArraySubject<ObjectArraySubje
     }
     try {
       Object[] expectedArray = (Object[]) expected;
-      if (!Arrays.equals(actual, expectedArray)) {
-        fail("is equal to", Arrays.asList(expectedArray));
-      }
+      checkEqual(ArrayMismatch.of(actual, expectedArray), Arrays.asList(expectedArray));
     } catch (ClassCastException e) {
       failWithBadType(expected);
     }
@@ -85,7 +83,7 @@ public class ObjectArraySubject<T> extends AbstractArraySubject<ObjectArraySubje
     Object[] actual = getSubject();
     try {
       Object[] expectedArray = (Object[]) expected;
-      if (actual == expected || Arrays.equals(actual, expectedArray)) {
+      if (actual == expected || isEqual(ArrayMismatch.of(actual, expectedArray))) {
         failWithRawMessage("%s unexpectedly equal to %s.",
             getDisplaySubject(), Arrays.asList(expectedArray));
       }
@@ -93,6 +91,8 @@ public class ObjectArraySubject<T> extends AbstractArraySubject<ObjectArraySubje
   }
 
   public ListSubject<?, T, List<T>> asList() {
-    return ListSubject.create(failureStrategy, listRepresentation());
+    ListSubject<?, T, List<T>> subject = ListSubject.create(failureStrategy, listRepresentation());
+    subject.parallel = parallel;
+    return subject;
   }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.GwtIncompatible;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A Bloom filter of 64-bit hashes, whose bits are held in a direct buffer outside the Java heap.
+ * Its size is chosen for an expected number of insertions and false positive probability. A
+ * filter which would need more than {@link #MAX_BYTES} to honor that probability is not created
+ * at all, rather than being created smaller and honoring it only for fewer insertions.
+ *
+ * <p>Each hash is split into two halves which are combined to choose the bits to set, as in
+ * Kirsch and Mitzenmacher's "Less Hashing, Same Performance".
+ */
+@GwtIncompatible("java.nio")
+final class OffHeapBloomFilter {
+  /**
+   * The largest filter allocated, in bytes, so that a single assertion never takes more than a few
+   * megabytes of memory. At a false positive probability of 1%, this holds about 7 million
+   * insertions, and at 10%, about 14 million.
+   */
+  static final int MAX_BYTES = 8 << 20;
+
+  private static final int MAX_HASH_FUNCTIONS = 30;
+
+  private final ByteBuffer bits;
+  private final long bitCount;
+  private final int hashFunctions;
+
+  /**
+   * @param expectedInsertions the number of hashes expected to be put
+   * @param fpp the desired probability that {@link #put} reports an absent hash as present
+   * @throws IllegalArgumentException if the filter would need more than {@link #MAX_BYTES}
+   */
+  OffHeapBloomFilter(long expectedInsertions, double fpp) {
+    long insertions = Math.max(expectedInsertions, 1);
+    double optimalBits = -insertions * Math.log(fpp) / (Math.log(2) * Math.log(2));
+    double optimalBytes = Math.max(Math.ceil(optimalBits / 8), 8);
+    checkArgument(optimalBytes <= MAX_BYTES, "A Bloom filter for %s elements with a false "
+        + "positive probability of %s needs %s bytes, more than the limit of %s; use a larger "
+        + "probability", insertions, fpp, (long) optimalBytes, MAX_BYTES);
+    long bytes = (long) optimalBytes;
+    this.bits = ByteBuffer.allocateDirect((int) bytes);
+    this.bitCount = bytes * 8;
+    long optimalHashFunctions = Math.round((double) bitCount / insertions * Math.log(2));
+    this.hashFunctions = (int) Math.min(Math.max(optimalHashFunctions, 1), MAX_HASH_FUNCTIONS);
+  }
+
+  /**
+   * Records {@code hash}, and returns whether it might have been recorded already. A return value
+   * of false is always correct.
+   */
+  boolean put(long hash) {
+    int hash1 = (int) hash;
+    int hash2 = (int) (hash >>> 32);
+    boolean present = true;
+    long combined = hash1;
+    for (int i = 0; i < hashFunctions; i++) {
+      long index = ((combined < 0) ? ~combined : combined) % bitCount;
+      int offset = (int) (index >>> 3);
+      byte mask = (byte) (1 << (index & 7));
+      byte current = bits.get(offset);
+      if ((current & mask) == 0) {
+        present = false;
+        bits.put(offset, (byte) (current | mask));
+      }
+      combined += hash2;
+    }
+    return present;
+  }
+}
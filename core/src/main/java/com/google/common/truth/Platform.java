@@ -16,11 +16,22 @@
 package com.google.common.truth;
 
 import com.google.common.annotations.GwtIncompatible;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 import org.junit.ComparisonFailure;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -132,4 +143,58 @@ public final class Platform {
   public static AssertionError comparisonFailure(String message, String expected, String actual) {
     return new ComparisonFailure(message, expected, actual);
   }
+
+  /**
+   * The smallest number of indices worth handing to another thread.
+   */
+  static final int MIN_PARALLEL_CHUNK = 4096;
+
+  /**
+   * Evaluates {@code task} over consecutive chunks which together cover the indices
+   * {@code [0, size)}, and returns the results in the order of their chunks. If
+   * {@code parallel} is set and the range is large enough, the chunks are evaluated concurrently
+   * on a shared pool of daemon threads; otherwise the whole range is evaluated as one chunk, on
+   * the calling thread.
+   *
+   * <p>If any chunk throws, the exception of the lowest such chunk is rethrown.
+   */
+  static <R> List<R> evaluateInChunks(int size, boolean parallel, final IndexRangeTask<R> task) {
+    int chunks = Math.min(size / MIN_PARALLEL_CHUNK, ParallelExecutor.CHUNKS);
+    if (!parallel || chunks < 2) {
+      return Collections.singletonList(task.evaluate(0, size));
+    }
+    List<Future<R>> futures = new ArrayList<Future<R>>(chunks);
+    for (int chunk = 0; chunk < chunks; chunk++) {
+      final int from = (int) ((long) size * chunk / chunks);
+      final int to = (int) ((long) size * (chunk + 1) / chunks);
+      futures.add(ParallelExecutor.INSTANCE.submit(new Callable<R>() {
+        @Override public R call() {
+          return task.evaluate(from, to);
+        }
+      }));
+    }
+    List<R> results = new ArrayList<R>(chunks);
+    try {
+      for (Future<R> future : futures) {
+        results.add(Uninterruptibles.getUninterruptibly(future));
+      }
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    } finally {
+      for (Future<R> future : futures) {
+        future.cancel(true);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * The pool which runs parallel evaluations, created the first time it is needed.
+   */
+  private static final class ParallelExecutor {
+    static final int THREADS = Runtime.getRuntime().availableProcessors();
+    static final int CHUNKS = (THREADS == 1) ? 1 : 4 * THREADS;
+    static final ExecutorService INSTANCE = Executors.newFixedThreadPool(THREADS,
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("truth-parallel-%d").build());
+  }
 }
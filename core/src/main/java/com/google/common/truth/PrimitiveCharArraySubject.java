@@ -17,7 +17,6 @@ package com.google.common.truth;
 
 import com.google.common.primitives.Chars;
 
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -51,9 +50,7 @@ public class PrimitiveCharArraySubject
     }
     try {
       char[] expectedArray = (char[]) expected;
-      if (!Arrays.equals(actual, expectedArray)) {
-        fail("is equal to", Chars.asList(expectedArray));
-      }
+      checkEqual(ArrayMismatch.of(actual, expectedArray), Chars.asList(expectedArray));
     } catch (ClassCastException e) {
       failWithBadType(expected);
     }
@@ -63,13 +60,89 @@ public class PrimitiveCharArraySubject
     char[] actual = getSubject();
     try {
       char[] expectedArray = (char[]) expected;
-      if (actual == expected || Arrays.equals(actual, expectedArray)) {
+      if (actual == expected || isEqual(ArrayMismatch.of(actual, expectedArray))) {
         failWithRawMessage("%s unexpectedly equal to %s.",
             getDisplaySubject(), Chars.asList(expectedArray));
       }
     } catch (ClassCastException ignored) {}
   }
 
+  /**
+   * Attests that each element of the array is no less than the one before it, or fails, reporting
+   * the first element which is less. Returns a subject for the same array whose containment
+   * propositions binary search it. The array must not be modified while that subject is in use;
+   * this subject is unaffected.
+   */
+  public PrimitiveCharArraySubject isSorted() {
+    return checkSorted(elements(), 1, false, sortedView());
+  }
+
+  /**
+   * Attests that each element of the array is greater than the one before it, or fails,
+   * reporting the first element which is not, and returns a subject which binary searches the
+   * array, as {@link #isSorted} does.
+   */
+  public PrimitiveCharArraySubject isStrictlySorted() {
+    return checkSorted(elements(), 1, true, sortedView());
+  }
+
+  /**
+   * Attests that each element of the array is no greater than the one before it, or fails,
+   * reporting the first element which is greater, and returns a subject which binary searches the
+   * array, as {@link #isSorted} does.
+   */
+  public PrimitiveCharArraySubject isSortedDescending() {
+    return checkSorted(elements(), -1, false, sortedView());
+  }
+
+  /**
+   * Attests that the array contains {@code element}, or fails.
+   */
+  public void contains(char element) {
+    checkContains(elements(), element);
+  }
+
+  /**
+   * Attests that the array does not contain {@code element}, or fails, reporting where it does.
+   */
+  public void doesNotContain(char element) {
+    checkDoesNotContain(elements(), element);
+  }
+
+  /**
+   * Attests that the array contains every element of {@code expected}, as many times as it
+   * occurs there, or fails, reporting those it lacks. No element is boxed unless it is reported.
+   */
+  public void containsAllOf(char... expected) {
+    checkContainsAllOf(elements(), PrimitiveElements.of(expected));
+  }
+
+  /**
+   * Attests that the array contains exactly the elements of {@code expected}, in any order, as
+   * many times as each occurs there, or fails, reporting those it lacks and has unexpectedly. No
+   * element is boxed unless it is reported.
+   */
+  public void containsExactly(char... expected) {
+    checkContainsExactly(elements(), PrimitiveElements.of(expected));
+  }
+
+  /**
+   * Attests that the array contains none of the elements of {@code excluded}, or fails, reporting
+   * those it has. No element is boxed unless it is reported.
+   */
+  public void containsNoneOf(char... excluded) {
+    checkContainsNoneOf(elements(), PrimitiveElements.of(excluded));
+  }
+
+  private PrimitiveElements elements() {
+    return PrimitiveElements.of(getSubject());
+  }
+
+  /** Returns a new subject of the same array, to be marked as sorted by {@link #checkSorted}. */
+  private PrimitiveCharArraySubject sortedView() {
+    return new PrimitiveCharArraySubject(failureStrategy, getSubject());
+  }
+
   public ListSubject<?, Character, List<Character>> asList() {
     return ListSubject.create(failureStrategy, listRepresentation());
   }
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import com.google.common.primitives.Booleans;
+import com.google.common.primitives.Chars;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+import com.google.common.primitives.SignedBytes;
+
+import java.util.Arrays;
+
+/**
+ * A view of a primitive array in which each element is widened to a {@code long} key, so that the
+ * propositions shared by the primitive array subjects can be evaluated without boxing. Two
+ * elements are equal exactly when their keys are, and keys are ordered as their elements are.
+ * Only the elements named in a failure message are boxed, by {@link #box}.
+ */
+abstract class PrimitiveElements {
+  static PrimitiveElements of(final int[] array) {
+    return new PrimitiveElements(array.length) {
+      @Override int firstOutOfOrder(int direction, boolean strict) {
+        int threshold = strict ? 0 : 1;
+        for (int i = 1; i < array.length; i++) {
+          if (direction * Ints.compare(array[i - 1], array[i]) >= threshold) {
+            return i;
+          }
+        }
+        return -1;
+      }
+
+      @Override long key(int index) {
+        return array[index];
+      }
+
+      @Override Object box(long key) {
+        return (int) key;
+      }
+    };
+  }
+
+  static PrimitiveElements of(final long[] array) {
+    return new PrimitiveElements(array.length) {
+      @Override int firstOutOfOrder(int direction, boolean strict) {
+        int threshold = strict ? 0 : 1;
+        for (int i = 1; i < array.length; i++) {
+          if (direction * Longs.compare(array[i - 1], array[i]) >= threshold) {
+            return i;
+          }
+        }
+        return -1;
+      }
+
+      @Override long key(int index) {
+        return array[index];
+      }
+
+      @Override Object box(long key) {
+        return key;
+      }
+    };
+  }
+
+  static PrimitiveElements of(final char[] array) {
+    return new PrimitiveElements(array.length) {
+      @Override int firstOutOfOrder(int direction, boolean strict) {
+        int threshold = strict ? 0 : 1;
+        for (int i = 1; i < array.length; i++) {
+          if (direction * Chars.compare(array[i - 1], array[i]) >= threshold) {
+            return i;
+          }
+        }
+        return -1;
+      }
+
+      @Override long key(int index) {
+        return array[index];
+      }
+
+      @Override Object box(long key) {
+        return (char) key;
+      }
+    };
+  }
+
+  static PrimitiveElements of(final byte[] array) {
+    return new PrimitiveElements(array.length) {
+      @Override int firstOutOfOrder(int direction, boolean strict) {
+        int threshold = strict ? 0 : 1;
+        for (int i = 1; i < array.length; i++) {
+          if (direction * SignedBytes.compare(array[i - 1], array[i]) >= threshold) {
+            return i;
+          }
+        }
+        return -1;
+      }
+
+      @Override long key(int index) {
+        return array[index];
+      }
+
+      @Override Object box(long key) {
+        return (byte) key;
+      }
+    };
+  }
+
+  static PrimitiveElements of(final boolean[] array) {
+    return new PrimitiveElements(array.length) {
+      @Override int firstOutOfOrder(int direction, boolean strict) {
+        int threshold = strict ? 0 : 1;
+        for (int i = 1; i < array.length; i++) {
+          if (direction * Booleans.compare(array[i - 1], array[i]) >= threshold) {
+            return i;
+          }
+        }
+        return -1;
+      }
+
+      @Override long key(int index) {
+        return array[index] ? 1 : 0;
+      }
+
+      @Override Object box(long key) {
+        return key != 0;
+      }
+    };
+  }
+
+  /**
+   * Returns a view of {@code array} whose keys order its elements as {@link Float#compare} does.
+   * Equal keys are equal as by {@link Float#floatToIntBits}, so every NaN is equal to every other,
+   * and {@code 0.0f} is not equal to {@code -0.0f}.
+   */
+  static PrimitiveElements of(final float[] array) {
+    return new PrimitiveElements(array.length) {
+      @Override int firstOutOfOrder(int direction, boolean strict) {
+        int threshold = strict ? 0 : 1;
+        for (int i = 1; i < array.length; i++) {
+          if (direction * Float.compare(array[i - 1], array[i]) >= threshold) {
+            return i;
+          }
+        }
+        return -1;
+      }
+
+      @Override long key(int index) {
+        int bits = Float.floatToIntBits(array[index]);
+        return bits ^ ((bits >> 31) & Integer.MAX_VALUE);
+      }
+
+      @Override Object box(long key) {
+        int bits = (int) key;
+        return Float.intBitsToFloat(bits ^ ((bits >> 31) & Integer.MAX_VALUE));
+      }
+    };
+  }
+
+  /**
+   * Returns a view of {@code array} whose keys order its elements as {@link Double#compare}
+   * does. Equal keys are equal as by {@link Double#doubleToLongBits}, so every NaN is equal to
+   * every other, and {@code 0.0} is not equal to {@code -0.0}.
+   */
+  static PrimitiveElements of(final double[] array) {
+    return new PrimitiveElements(array.length) {
+      @Override int firstOutOfOrder(int direction, boolean strict) {
+        int threshold = strict ? 0 : 1;
+        for (int i = 1; i < array.length; i++) {
+          if (direction * Double.compare(array[i - 1], array[i]) >= threshold) {
+            return i;
+          }
+        }
+        return -1;
+      }
+
+      @Override long key(int index) {
+        long bits = Double.doubleToLongBits(array[index]);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+      }
+
+      @Override Object box(long key) {
+        return Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+      }
+    };
+  }
+
+  private final int size;
+
+  private PrimitiveElements(int size) {
+    this.size = size;
+  }
+
+  final int size() {
+    return size;
+  }
+
+  /**
+   * Returns the index of the first element which is out of order with its predecessor, or -1 if
+   * there is none. The check runs over the array itself, without reading any keys.
+   *
+   * @param direction 1 if the elements should ascend, or -1 if they should descend
+   * @param strict whether an element equal to its predecessor is out of order
+   */
+  abstract int firstOutOfOrder(int direction, boolean strict);
+
+  /**
+   * Returns the key of the element at {@code index}. Keys are ordered as their elements are, as
+   * signed {@code long} values.
+   */
+  abstract long key(int index);
+
+  /** Returns the boxed element whose key is {@code key}, to be described in a failure message. */
+  abstract Object box(long key);
+
+  /** Returns the index of the first element whose key is {@code key}, or -1 if there is none. */
+  final int indexOf(long key) {
+    for (int i = 0; i < size; i++) {
+      if (key(i) == key) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the index of the first element whose key is {@code key}, or -1 if there is none, by
+   * binary search of elements which are known to be sorted.
+   *
+   * @param direction 1 if the elements ascend, or -1 if they descend
+   */
+  final int indexOfSorted(long key, int direction) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (direction * Longs.compare(key(middle), key) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return (low < size && key(low) == key) ? low : -1;
+  }
+
+  /** Returns a sorted copy of the keys of every element. */
+  final long[] sortedKeys() {
+    long[] keys = new long[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = key(i);
+    }
+    Arrays.sort(keys);
+    return keys;
+  }
+
+  /** Counts the keys of every element, without boxing them. */
+  final LongHashCounter counts() {
+    LongHashCounter counts = new LongHashCounter(size);
+    for (int i = 0; i < size; i++) {
+      counts.add(key(i));
+    }
+    return counts;
+  }
+}
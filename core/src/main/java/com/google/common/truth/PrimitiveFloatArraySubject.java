@@ -15,12 +15,15 @@
  */
 package com.google.common.truth;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.truth.StringUtil.format;
+
 import com.google.common.primitives.Floats;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 /**
  * A Subject to handle testing propositions for {@code float[]}.
  *
@@ -32,6 +35,9 @@ import java.util.List;
  */
 public class PrimitiveFloatArraySubject
     extends AbstractArraySubject<PrimitiveFloatArraySubject, float[]> {
+  /** The tolerance set by {@link #usingTolerance}, if any. */
+  @Nullable private Tolerance tolerance = null;
+
   public PrimitiveFloatArraySubject(FailureStrategy failureStrategy, float[] o) {
     super(failureStrategy, o);
   }
@@ -44,43 +50,74 @@ public class PrimitiveFloatArraySubject
     return Floats.asList(getSubject());
   }
 
+  /**
+   * Sets how close each element must be to the expected one for {@link #isEqualTo(float[])} and
+   * {@link #isNotEqualTo(float[])}.
+   */
+  public PrimitiveFloatArraySubject usingTolerance(Tolerance tolerance) {
+    this.tolerance = checkNotNull(tolerance);
+    return this;
+  }
+
   /**
    * This form is unsafe for floating point types, and will throw an
-   * {@link UnsupportedOperationException}.
+   * {@link UnsupportedOperationException} unless a tolerance has been set by
+   * {@link #usingTolerance}.
    *
-   * @deprecated use {@link #isEqualTo(Object, double)}
+   * @deprecated use {@link #isEqualTo(Object, float)} or {@link #isEqualTo(float[])}
    */
   @Deprecated
   @Override public void isEqualTo(Object expected) {
-    throw new UnsupportedOperationException("Comparing raw equality of floats is unsafe, "
-        + "use isEqualTo(float[] array, float tolerance) instead.");
+    if (tolerance == null) {
+      throw new UnsupportedOperationException("Comparing raw equality of floats is unsafe, "
+          + "use isEqualTo(float[] array, float tolerance) instead.");
+    }
+    checkEqual(expected, tolerance, tolerance.toString());
+  }
+
+  /**
+   * Attests that {@code expected} has the same length as the subject, and that each of its
+   * elements is equal to the one in the same position in the subject within the tolerance set by
+   * {@link #usingTolerance}.
+   *
+   * <p>On failure, reports how many elements differ, the first few indices at which they do, and
+   * the largest absolute and relative errors, rather than either array.
+   *
+   * @throws UnsupportedOperationException if no tolerance has been set
+   */
+  public void isEqualTo(float[] expected) {
+    isEqualTo((Object) expected);
   }
 
   /**
    * A proposition that the provided float[] is an array of the same length and type, and
    * contains elements such that each element in {@code expected} is equal to each element
    * in the subject, and in the same position.
+   *
+   * <p>On failure, reports how many elements differ, the first few indices at which they do, and
+   * the largest absolute and relative errors, rather than either array.
    */
   public void isEqualTo(Object expected, float tolerance) {
+    checkEqual(expected, Tolerance.absolute(Math.abs(tolerance)),
+        format("a tolerance of %s", tolerance));
+  }
+
+  private void checkEqual(Object expected, Tolerance tolerance, String describedTolerance) {
     float[] actual = getSubject();
     if (actual == expected) {
       return; // short-cut.
     }
     try {
       float[] expectedArray = (float[]) expected;
+      String verb = "is equal to the expected array within " + describedTolerance;
       if (expectedArray.length != actual.length) {
-        failWithRawMessage("Arrays are of different lengths."
-        		+ "expected: %s, actual %s", Arrays.asList(expectedArray), Arrays.asList(actual));
+        failWithoutSubject(format("%s. It has length %s, but the expected array has length %s",
+            verb, actual.length, expectedArray.length));
+        return;
       }
-      List<Integer> unequalIndices = new ArrayList<Integer>();
-      for (int i = 0; i < expectedArray.length; i++) {
-        if (!MathUtil.equals(actual[i], expectedArray[i], tolerance)) {
-          unequalIndices.add(i);
-        }
-      }
-
-      if (!unequalIndices.isEmpty()) {
-        fail("is equal to", Floats.asList(expectedArray));
+      ToleranceMismatches mismatches = ToleranceMismatches.of(actual, expectedArray, tolerance);
+      if (mismatches != null) {
+        failWithoutSubject(verb + ". " + mismatches);
       }
     } catch (ClassCastException e) {
       failWithBadType(expected);
@@ -89,17 +126,40 @@ public class PrimitiveFloatArraySubject
 
   /**
    * This form is unsafe for floating point types, and will throw an
-   * {@link UnsupportedOperationException}.
+   * {@link UnsupportedOperationException} unless a tolerance has been set by
+   * {@link #usingTolerance}.
    *
-   * @deprecated use {@link #isNotEqualTo(Object, double)}
+   * @deprecated use {@link #isNotEqualTo(Object, float)} or {@link #isNotEqualTo(float[])}
    */
   @Deprecated
   @Override public void isNotEqualTo(Object expected) {
-    throw new UnsupportedOperationException("Comparing raw equality of floats is unsafe, "
-        + "use isNotEqualTo(float[] array, float tolerance) instead.");
+    if (tolerance == null) {
+      throw new UnsupportedOperationException("Comparing raw equality of floats is unsafe, "
+          + "use isNotEqualTo(float[] array, float tolerance) instead.");
+    }
+    checkNotEqual(expected, tolerance);
+  }
+
+  /**
+   * Attests that {@code expected} differs in length from the subject, or has an element which is
+   * not equal to the one in the same position in the subject within the tolerance set by
+   * {@link #usingTolerance}. The arrays are compared only as far as their first mismatch.
+   *
+   * @throws UnsupportedOperationException if no tolerance has been set
+   */
+  public void isNotEqualTo(float[] expected) {
+    isNotEqualTo((Object) expected);
   }
 
+  /**
+   * A proposition that the provided float[] is not an array of the same length or type, or
+   * has at least one element that does not pass an equality test within the given tolerance.
+   */
   public void isNotEqualTo(Object expectedArray, float tolerance) {
+    checkNotEqual(expectedArray, Tolerance.absolute(Math.abs(tolerance)));
+  }
+
+  private void checkNotEqual(Object expectedArray, Tolerance tolerance) {
     float[] actual = getSubject();
     try {
       float[] expected = (float[]) expectedArray;
@@ -110,19 +170,42 @@ public class PrimitiveFloatArraySubject
       if (expected.length != actual.length) {
         return; // Unequal-lengthed arrays are not equal.
       }
-      List<Integer> unequalIndices = new ArrayList<Integer>();
-      for (int i = 0; i < expected.length; i++) {
-        if (!MathUtil.equals(actual[i], expected[i], tolerance)) {
-          unequalIndices.add(i);
-        }
-      }
-      if (unequalIndices.isEmpty()) {
+      if (tolerance.firstMismatch(actual, expected, 0) < 0) {
         failWithRawMessage("%s unexpectedly equal to %s",
             getDisplaySubject(),  Floats.asList(expected));
       }
     } catch (ClassCastException ignored) {} // Unequal since they are of different types.
   }
 
+  /**
+   * Attests that each element of the array is no less than the one before it, or fails, reporting
+   * the first element which is less. Elements are ordered as by {@link Float#compare}, so
+   * {@code -0.0f} precedes {@code 0.0f} and NaN follows every other value.
+   */
+  public void isSorted() {
+    checkSorted(elements(), 1, false);
+  }
+
+  /**
+   * Attests that each element of the array is greater than the one before it, or fails,
+   * reporting the first element which is not.
+   */
+  public void isStrictlySorted() {
+    checkSorted(elements(), 1, true);
+  }
+
+  /**
+   * Attests that each element of the array is no greater than the one before it, or fails,
+   * reporting the first element which is greater.
+   */
+  public void isSortedDescending() {
+    checkSorted(elements(), -1, false);
+  }
+
+  private PrimitiveElements elements() {
+    return PrimitiveElements.of(getSubject());
+  }
+
   // TODO(user): Extend to a List<Float> type that handles specialized float equality
   //     including tolerances. But diable this for now, since it will nearly always be
   //     incorrect to simply treat a list of floats and do normal set operations that are
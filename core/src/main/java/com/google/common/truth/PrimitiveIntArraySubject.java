@@ -17,7 +17,6 @@ package com.google.common.truth;
 
 import com.google.common.primitives.Ints;
 
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -52,9 +51,7 @@ public class PrimitiveIntArraySubject
     }
     try {
       int[] expectedArray = (int[]) expected;
-      if (!Arrays.equals(actual, expectedArray)) {
-        fail("is equal to", Ints.asList(expectedArray));
-      }
+      checkEqual(ArrayMismatch.of(actual, expectedArray), Ints.asList(expectedArray));
     } catch (ClassCastException e) {
       failWithBadType(expected);
     }
@@ -64,13 +61,89 @@ public class PrimitiveIntArraySubject
     int[] actual = getSubject();
     try {
       int[] expectedArray = (int[]) expected;
-      if (actual == expected || Arrays.equals(actual, expectedArray)) {
+      if (actual == expected || isEqual(ArrayMismatch.of(actual, expectedArray))) {
         failWithRawMessage("%s unexpectedly equal to %s.",
             getDisplaySubject(), Ints.asList(expectedArray));
       }
     } catch (ClassCastException ignored) {}
   }
 
+  /**
+   * Attests that each element of the array is no less than the one before it, or fails, reporting
+   * the first element which is less. Returns a subject for the same array whose containment
+   * propositions binary search it. The array must not be modified while that subject is in use;
+   * this subject is unaffected.
+   */
+  public PrimitiveIntArraySubject isSorted() {
+    return checkSorted(elements(), 1, false, sortedView());
+  }
+
+  /**
+   * Attests that each element of the array is greater than the one before it, or fails,
+   * reporting the first element which is not, and returns a subject which binary searches the
+   * array, as {@link #isSorted} does.
+   */
+  public PrimitiveIntArraySubject isStrictlySorted() {
+    return checkSorted(elements(), 1, true, sortedView());
+  }
+
+  /**
+   * Attests that each element of the array is no greater than the one before it, or fails,
+   * reporting the first element which is greater, and returns a subject which binary searches the
+   * array, as {@link #isSorted} does.
+   */
+  public PrimitiveIntArraySubject isSortedDescending() {
+    return checkSorted(elements(), -1, false, sortedView());
+  }
+
+  /**
+   * Attests that the array contains {@code element}, or fails.
+   */
+  public void contains(int element) {
+    checkContains(elements(), element);
+  }
+
+  /**
+   * Attests that the array does not contain {@code element}, or fails, reporting where it does.
+   */
+  public void doesNotContain(int element) {
+    checkDoesNotContain(elements(), element);
+  }
+
+  /**
+   * Attests that the array contains every element of {@code expected}, as many times as it
+   * occurs there, or fails, reporting those it lacks. No element is boxed unless it is reported.
+   */
+  public void containsAllOf(int... expected) {
+    checkContainsAllOf(elements(), PrimitiveElements.of(expected));
+  }
+
+  /**
+   * Attests that the array contains exactly the elements of {@code expected}, in any order, as
+   * many times as each occurs there, or fails, reporting those it lacks and has unexpectedly. No
+   * element is boxed unless it is reported.
+   */
+  public void containsExactly(int... expected) {
+    checkContainsExactly(elements(), PrimitiveElements.of(expected));
+  }
+
+  /**
+   * Attests that the array contains none of the elements of {@code excluded}, or fails, reporting
+   * those it has. No element is boxed unless it is reported.
+   */
+  public void containsNoneOf(int... excluded) {
+    checkContainsNoneOf(elements(), PrimitiveElements.of(excluded));
+  }
+
+  private PrimitiveElements elements() {
+    return PrimitiveElements.of(getSubject());
+  }
+
+  /** Returns a new subject of the same array, to be marked as sorted by {@link #checkSorted}. */
+  private PrimitiveIntArraySubject sortedView() {
+    return new PrimitiveIntArraySubject(failureStrategy, getSubject());
+  }
+
   public ListSubject<?, Integer, List<Integer>> asList() {
     return ListSubject.create(failureStrategy, listRepresentation());
   }
@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.truth.StringUtil.format;
+
+import com.google.common.base.Equivalence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * Describes how one sequence differs from another as a minimal edit script, rendered as hunks of
+ * changed elements with a few unchanged ones around them for context, like a unified diff.
+ *
+ * <p>The script is found by the linear-space refinement of Myers' algorithm, described in "An
+ * O(ND) Difference Algorithm and Its Variations": the middle snake of each problem splits it into
+ * two smaller ones, so apart from the sequences themselves, memory is linear in their length.
+ * Time is proportional to their length times the number of edits, so sequences which differ in
+ * more than about {@link #MAX_EDITS} places are only described by their first difference.
+ */
+final class SequenceDiff {
+  static final int MAX_EDITS = 1000;
+
+  /** The number of unchanged elements shown on either side of a change. */
+  static final int CONTEXT = 3;
+
+  private static final int MAX_HUNKS = 10;
+
+  private final List<?> actual;
+  private final List<?> expected;
+  /** The index of the first element of both lists in the sequences they were taken from. */
+  private final int offset;
+  /** Whether both sequences continue past the end of their lists. */
+  private final boolean truncated;
+  private final Equivalence<Object> equivalence;
+  /** Whether each element of {@code actual} must be deleted to obtain {@code expected}. */
+  private final boolean[] unexpected;
+  /** Whether each element of {@code expected} must be inserted into {@code actual}. */
+  private final boolean[] missing;
+
+  private SequenceDiff(
+      List<?> actual,
+      List<?> expected,
+      int offset,
+      boolean truncated,
+      Equivalence<Object> equivalence) {
+    this.actual = actual;
+    this.expected = expected;
+    this.offset = offset;
+    this.truncated = truncated;
+    this.equivalence = equivalence;
+    this.unexpected = new boolean[actual.size()];
+    this.missing = new boolean[expected.size()];
+  }
+
+  /**
+   * Returns a description of how {@code actual} differs from {@code expected}, beginning with a
+   * sentence, or null if they hold equivalent elements in the same order. Both lists should
+   * support fast random access.
+   */
+  @Nullable static String describe(
+      List<?> actual, List<?> expected, Equivalence<Object> equivalence) {
+    return describe(actual, expected, 0, false, equivalence);
+  }
+
+  /**
+   * Like {@link #describe(List, List, Equivalence)}, for lists which are windows of two longer
+   * sequences, both beginning at index {@code offset} of their sequence. Indexes are reported in
+   * the whole sequences. If both sequences are {@code truncated}, continuing past the end of their
+   * lists, a last change which reaches the end of both is not described unless it is the only
+   * one, since the elements which follow might undo it.
+   */
+  @Nullable static String describe(List<?> actual, List<?> expected, int offset,
+      boolean truncated, Equivalence<Object> equivalence) {
+    SequenceDiff diff = new SequenceDiff(actual, expected, offset, truncated, equivalence);
+    int first = 0;
+    while (first < actual.size() && first < expected.size() && diff.equivalentAt(first, first)) {
+      first++;
+    }
+    if (first == actual.size() && first == expected.size()) {
+      return null;
+    }
+    if (!diff.diff(first, actual.size(), first, expected.size(), MAX_EDITS)) {
+      return format("It differs from them in more than %s places, the first at index %s",
+          MAX_EDITS, offset + first);
+    }
+    return diff.render();
+  }
+
+  /**
+   * Marks the edits which turn {@code actual[aStart, aEnd)} into {@code expected[bStart, bEnd)},
+   * or returns false, having marked nothing, if there are more than about {@code maxEdits}.
+   */
+  private boolean diff(int aStart, int aEnd, int bStart, int bEnd, int maxEdits) {
+    while (aStart < aEnd && bStart < bEnd && equivalentAt(aStart, bStart)) {
+      aStart++;
+      bStart++;
+    }
+    while (aStart < aEnd && bStart < bEnd && equivalentAt(aEnd - 1, bEnd - 1)) {
+      aEnd--;
+      bEnd--;
+    }
+    if (aStart == aEnd || bStart == bEnd) {
+      Arrays.fill(unexpected, aStart, aEnd, true);
+      Arrays.fill(missing, bStart, bEnd, true);
+      return true;
+    }
+    int[] split = middleSnake(aStart, aEnd, bStart, bEnd, maxEdits);
+    if (split == null) {
+      return false;
+    }
+    diff(aStart, split[0], bStart, split[1], Integer.MAX_VALUE);
+    diff(split[0], aEnd, split[1], bEnd, Integer.MAX_VALUE);
+    return true;
+  }
+
+  /**
+   * Returns a point {@code {a, b}} on a minimal edit path between the given non-empty ranges,
+   * found by searching forward from their start and backward from their end at once until the
+   * searches meet, or null if they have not met after about {@code maxEdits / 2} edits each.
+   */
+  @Nullable private int[] middleSnake(int aStart, int aEnd, int bStart, int bEnd, int maxEdits) {
+    int n = aEnd - aStart;
+    int m = bEnd - bStart;
+    int maxD = (n + m + 1) / 2;
+    int limit = (int) Math.min(maxD, maxEdits / 2L + 1);
+    int offset = limit;
+    // forward[offset + k] is the furthest x reached on diagonal k (x - y == k) from the start;
+    // backward[offset + k] likewise, measured from the end.
+    int[] forward = new int[2 * limit + 2];
+    int[] backward = new int[2 * limit + 2];
+    Arrays.fill(forward, -1);
+    Arrays.fill(backward, -1);
+    forward[offset + 1] = 0;
+    backward[offset + 1] = 0;
+    int delta = n - m;
+    // If delta is odd, the searches can first meet while searching forward, and otherwise
+    // backward.
+    boolean front = (delta % 2 != 0);
+    int forwardStart = 0;
+    int forwardEnd = 0;
+    int backwardStart = 0;
+    int backwardEnd = 0;
+    for (int d = 0; d < limit; d++) {
+      for (int k = -d + forwardStart; k <= d - forwardEnd; k += 2) {
+        int index = offset + k;
+        int x = (k == -d || (k != d && forward[index - 1] < forward[index + 1]))
+            ? forward[index + 1]
+            : forward[index - 1] + 1;
+        int y = x - k;
+        while (x < n && y < m && equivalentAt(aStart + x, bStart + y)) {
+          x++;
+          y++;
+        }
+        forward[index] = x;
+        if (x > n) {
+          forwardEnd += 2; // Off the right edge of the grid.
+        } else if (y > m) {
+          forwardStart += 2; // Off the bottom edge of the grid.
+        } else if (front) {
+          int opposite = offset + delta - k;
+          if (opposite >= 0 && opposite < backward.length && backward[opposite] != -1
+              && x >= n - backward[opposite]) {
+            return new int[] {aStart + x, bStart + y};
+          }
+        }
+      }
+      for (int k = -d + backwardStart; k <= d - backwardEnd; k += 2) {
+        int index = offset + k;
+        int x = (k == -d || (k != d && backward[index - 1] < backward[index + 1]))
+            ? backward[index + 1]
+            : backward[index - 1] + 1;
+        int y = x - k;
+        while (x < n && y < m && equivalentAt(aEnd - x - 1, bEnd - y - 1)) {
+          x++;
+          y++;
+        }
+        backward[index] = x;
+        if (x > n) {
+          backwardEnd += 2;
+        } else if (y > m) {
+          backwardStart += 2;
+        } else if (!front) {
+          int opposite = offset + delta - k;
+          if (opposite >= 0 && opposite < forward.length && forward[opposite] != -1) {
+            int forwardX = forward[opposite];
+            int forwardY = offset + forwardX - opposite;
+            if (forwardX >= n - x) {
+              return new int[] {aStart + forwardX, bStart + forwardY};
+            }
+          }
+        }
+      }
+    }
+    if (limit == maxD) {
+      // Unreachable for well-behaved equivalences: the searches always meet by then.
+      return new int[] {aStart, bEnd};
+    }
+    return null;
+  }
+
+  private boolean equivalentAt(int actualIndex, int expectedIndex) {
+    return equivalence.equivalent(actual.get(actualIndex), expected.get(expectedIndex));
+  }
+
+  private String render() {
+    // Each change is {aStart, aEnd, bStart, bEnd}: a run of deletions and insertions between
+    // elements which are kept.
+    List<int[]> changes = new ArrayList<int[]>();
+    int i = 0;
+    int j = 0;
+    while (i < unexpected.length || j < missing.length) {
+      if ((i < unexpected.length && unexpected[i]) || (j < missing.length && missing[j])) {
+        int[] change = {i, i, j, j};
+        while (i < unexpected.length && unexpected[i]) {
+          i++;
+        }
+        while (j < missing.length && missing[j]) {
+          j++;
+        }
+        change[1] = i;
+        change[3] = j;
+        changes.add(change);
+      } else {
+        i++;
+        j++;
+      }
+    }
+    int[] lastChange = changes.get(changes.size() - 1);
+    if (truncated && changes.size() > 1
+        && lastChange[1] == unexpected.length && lastChange[3] == missing.length) {
+      changes.remove(changes.size() - 1);
+    }
+    StringBuilder out = new StringBuilder("It differs from them (- unexpected, + missing):");
+    int hunks = 0;
+    int first = 0;
+    while (first < changes.size()) {
+      int last = first;
+      while (last + 1 < changes.size()
+          && changes.get(last + 1)[0] - changes.get(last)[1] <= 2 * CONTEXT) {
+        last++;
+      }
+      if (hunks++ < MAX_HUNKS) {
+        renderHunk(out, changes.get(first), changes.get(last));
+      }
+      first = last + 1;
+    }
+    if (hunks > MAX_HUNKS) {
+      out.append("\n... and ").append(hunks - MAX_HUNKS).append(" more hunks");
+    }
+    return out.toString();
+  }
+
+  private void renderHunk(StringBuilder out, int[] firstChange, int[] lastChange) {
+    int before = Math.min(CONTEXT, firstChange[0]);
+    int after = Math.min(CONTEXT, unexpected.length - lastChange[1]);
+    int i = firstChange[0] - before;
+    int j = firstChange[2] - before;
+    int iEnd = lastChange[1] + after;
+    int jEnd = lastChange[3] + after;
+    out.append(format("\n@@ subject index %s, expected index %s @@", offset + i, offset + j));
+    while (i < iEnd || j < jEnd) {
+      if (i < iEnd && unexpected[i]) {
+        out.append("\n- ").append(actual.get(i++));
+      } else if (j < jEnd && missing[j]) {
+        out.append("\n+ ").append(expected.get(j++));
+      } else {
+        out.append("\n  ").append(actual.get(i++));
+        j++;
+      }
+    }
+  }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.SortedMultiset;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SortedSet;
+
+import javax.annotation.Nullable;
+
+/**
+ * Compares two iterables which are sorted by the same order by merging them, in a single pass
+ * over each and without indexing either one.
+ *
+ * <p>Consecutive elements which compare as equal are read as a run, and corresponding runs are
+ * compared using {@link ElementCounter}. The results, and the order in which they are reported,
+ * are therefore the same as those of the hashing comparisons in {@link IterableSubject}, provided
+ * that the order never separates two equal elements.
+ */
+final class SortedMerge {
+  private final Comparator<Object> order;
+  private final boolean trusted;
+
+  /**
+   * @param trusted whether both iterables are known to be sorted. If not, each is checked as it is
+   *     read, and read to the end, since an element out of order could still change the outcome.
+   */
+  @SuppressWarnings("unchecked")
+  SortedMerge(Comparator<?> order, boolean trusted) {
+    this.order = (Comparator<Object>) order;
+    this.trusted = trusted;
+  }
+
+  /**
+   * Returns the order by which both iterables are known to be sorted, because both are
+   * {@link SortedSet}s or {@link SortedMultiset}s with equal comparators, or null.
+   */
+  @Nullable static Comparator<?> commonOrder(Iterable<?> actual, Iterable<?> expected) {
+    Comparator<?> order = orderOf(actual);
+    return (order != null && order.equals(orderOf(expected))) ? order : null;
+  }
+
+  @Nullable private static Comparator<?> orderOf(Iterable<?> items) {
+    Comparator<?> order;
+    if (items instanceof SortedSet) {
+      order = ((SortedSet<?>) items).comparator();
+    } else if (items instanceof SortedMultiset) {
+      order = ((SortedMultiset<?>) items).comparator();
+    } else {
+      return null;
+    }
+    return (order == null) ? Ordering.natural() : order;
+  }
+
+  /**
+   * Merges {@code actual} with {@code expected}, accumulating into each of the given counters
+   * which is not null.
+   *
+   * @param missing receives the occurrences of elements of {@code expected} which {@code actual}
+   *     lacks
+   * @param extra receives the occurrences of elements of {@code actual} which {@code expected}
+   *     lacks
+   * @param common receives each distinct element of {@code expected} which {@code actual} contains
+   * @return false if either iterable turned out not to be sorted, or the order could not compare
+   *     their elements. The counters then hold partial results, and should be discarded.
+   */
+  boolean merge(Iterable<?> actual, Iterable<?> expected, @Nullable ElementCounter missing,
+      @Nullable ElementCounter extra, @Nullable ElementCounter common) {
+    Runs actualRuns = new Runs(actual);
+    Runs expectedRuns = new Runs(expected);
+    try {
+      boolean hasActual = actualRuns.advance();
+      boolean hasExpected = expectedRuns.advance();
+      while (hasExpected || (hasActual && (extra != null || !trusted))) {
+        if (actualRuns.outOfOrder || expectedRuns.outOfOrder) {
+          return false;
+        }
+        int comparison;
+        if (!hasActual) {
+          comparison = 1;
+        } else if (!hasExpected) {
+          comparison = -1;
+        } else {
+          comparison = order.compare(actualRuns.head(), expectedRuns.head());
+        }
+        if (comparison < 0) {
+          if (extra != null) {
+            addAll(extra, actualRuns.run);
+          }
+          hasActual = actualRuns.advance();
+        } else if (comparison > 0) {
+          if (missing != null) {
+            addAll(missing, expectedRuns.run);
+          }
+          hasExpected = expectedRuns.advance();
+        } else {
+          compareRuns(actualRuns.run, expectedRuns.run, missing, extra, common);
+          hasActual = actualRuns.advance();
+          hasExpected = expectedRuns.advance();
+        }
+      }
+    } catch (ClassCastException incomparable) {
+      return false;
+    } catch (NullPointerException incomparable) {
+      return false;
+    }
+    return !actualRuns.outOfOrder && !expectedRuns.outOfOrder;
+  }
+
+  private static void compareRuns(List<Object> actual, List<Object> expected,
+      @Nullable ElementCounter missing, @Nullable ElementCounter extra,
+      @Nullable ElementCounter common) {
+    if (actual.size() == 1 && expected.size() == 1
+        && Objects.equal(actual.get(0), expected.get(0))) {
+      if (common != null) {
+        common.add(expected.get(0));
+      }
+      return;
+    }
+    ElementCounter present = ElementCounter.of(actual);
+    ElementCounter unmatched = ElementCounter.of(expected);
+    ElementCounter surplus = new ElementCounter();
+    unmatched.removeAll(present, surplus);
+    if (missing != null) {
+      missing.addAll(unmatched);
+    }
+    if (extra != null) {
+      extra.addAll(surplus);
+    }
+    if (common != null) {
+      for (Object item : expected) {
+        if (present.contains(item) && !common.contains(item)) {
+          common.add(item);
+        }
+      }
+    }
+  }
+
+  private static void addAll(ElementCounter counter, List<Object> items) {
+    for (Object item : items) {
+      counter.add(item);
+    }
+  }
+
+  /**
+   * Reads an iterable as a sequence of runs of elements which compare as equal, noting whether
+   * any element is out of order.
+   */
+  private final class Runs {
+    final List<Object> run = new ArrayList<Object>();
+    private final Iterator<?> iterator;
+    private Object pending;
+    private boolean hasPending;
+    boolean outOfOrder = false;
+
+    Runs(Iterable<?> items) {
+      this.iterator = items.iterator();
+      fetch();
+    }
+
+    Object head() {
+      return run.get(0);
+    }
+
+    /**
+     * Reads the next run into {@link #run}, and returns true, or returns false if there are no
+     * more elements or the next one is out of order.
+     */
+    boolean advance() {
+      run.clear();
+      if (!hasPending) {
+        return false;
+      }
+      run.add(pending);
+      fetch();
+      while (hasPending) {
+        int comparison = order.compare(run.get(0), pending);
+        if (comparison > 0) {
+          outOfOrder = true;
+          run.clear();
+          hasPending = false;
+          return false;
+        } else if (comparison < 0) {
+          break;
+        }
+        run.add(pending);
+        fetch();
+      }
+      return true;
+    }
+
+    private void fetch() {
+      hasPending = iterator.hasNext();
+      pending = hasPending ? iterator.next() : null;
+    }
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.truth.StringUtil.format;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.base.Converter;
+import com.google.common.collect.PeekingIterator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * Compares iterables which may be too large to hold in memory, by encoding their elements as
+ * bytes, sorting them on disk, and merging them. Obtained from
+ * {@link IterableSubject#spillingToDisk}.
+ *
+ * <p>Two elements are considered equal exactly when their encodings are, so the codec must
+ * encode equal elements identically. Discrepancies are reported in the order of their encodings,
+ * decoded by the codec, with no more than a configurable number of examples of each kind.
+ *
+ * @param <T> the type of elements in the subject
+ */
+@GwtIncompatible("java.io")
+public final class SpillingComparison<T> {
+  private static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+  private static final int DEFAULT_MAX_EXAMPLES = 10;
+
+  private final IterableSubject<?, T, ?> subject;
+  private final Converter<T, byte[]> codec;
+  private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+  @Nullable private File directory = null;
+  private int maxExamples = DEFAULT_MAX_EXAMPLES;
+
+  SpillingComparison(IterableSubject<?, T, ?> subject, Converter<T, byte[]> codec) {
+    this.subject = subject;
+    this.codec = checkNotNull(codec);
+  }
+
+  /**
+   * Sets roughly how many bytes of encoded elements may be held in memory while sorting each
+   * side. The default is 64 MiB.
+   */
+  public SpillingComparison<T> withMemoryBudget(long bytes) {
+    checkArgument(bytes > 0, "bytes(%s) must be > 0", bytes);
+    this.memoryBudget = bytes;
+    return this;
+  }
+
+  /**
+   * Sets the directory in which to create temporary files. The default is the system's temporary
+   * directory. The files are deleted once the comparison is complete.
+   */
+  public SpillingComparison<T> inDirectory(File directory) {
+    this.directory = checkNotNull(directory);
+    return this;
+  }
+
+  /**
+   * Sets the greatest number of missing, and of unexpected, elements to describe in a failure
+   * message. The default is 10.
+   */
+  public SpillingComparison<T> reportingAtMost(int examples) {
+    checkArgument(examples > 0, "examples(%s) must be > 0", examples);
+    this.maxExamples = examples;
+    return this;
+  }
+
+  /**
+   * Attests that the subject contains all of the expected elements and only these, as many times
+   * as each occurs, or fails.
+   */
+  public void containsOnlyElementsIn(Iterable<? extends T> expected) {
+    compare("contains only the expected elements", expected, true);
+  }
+
+  /**
+   * Attests that the subject contains at least all of the expected elements, as many times as
+   * each occurs, or fails.
+   */
+  public void containsAllIn(Iterable<? extends T> expected) {
+    compare("contains all of the expected elements", expected, false);
+  }
+
+  private void compare(String verb, Iterable<? extends T> expected, boolean exact) {
+    Discrepancies missing = new Discrepancies("is missing %s occurrences of %s distinct elements");
+    Discrepancies extra =
+        new Discrepancies("has %s unexpected occurrences of %s distinct elements");
+    ExternalSort sort = new ExternalSort(directory, memoryBudget);
+    try {
+      PeekingIterator<byte[]> actual = sort.sort(encode(subject.getSubject()));
+      PeekingIterator<byte[]> required = sort.sort(encode(expected));
+      while (required.hasNext() || (exact && actual.hasNext())) {
+        int comparison;
+        if (!actual.hasNext()) {
+          comparison = 1;
+        } else if (!required.hasNext()) {
+          comparison = -1;
+        } else {
+          comparison = ExternalSort.ORDER.compare(actual.peek(), required.peek());
+        }
+        byte[] record = (comparison <= 0) ? actual.peek() : required.peek();
+        long inActual = (comparison <= 0) ? skipRun(actual, record) : 0;
+        long inRequired = (comparison >= 0) ? skipRun(required, record) : 0;
+        if (inRequired > inActual) {
+          missing.add(record, inRequired - inActual);
+        } else if (exact && inActual > inRequired) {
+          extra.add(record, inActual - inRequired);
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Could not spill elements to disk", e);
+    } finally {
+      try {
+        sort.close();
+      } catch (IOException ignored) {
+        // Deleting the temporary files is best-effort.
+      }
+    }
+    List<String> problems = new ArrayList<String>();
+    missing.describeTo(problems);
+    extra.describeTo(problems);
+    if (!problems.isEmpty()) {
+      StringBuilder message = new StringBuilder(verb);
+      for (String problem : problems) {
+        message.append(". It ").append(problem);
+      }
+      subject.failWithoutSubject(message.toString());
+    }
+  }
+
+  private Iterator<byte[]> encode(Iterable<? extends T> items) {
+    final Iterator<? extends T> elements = items.iterator();
+    return new Iterator<byte[]>() {
+      @Override public boolean hasNext() {
+        return elements.hasNext();
+      }
+
+      @Override public byte[] next() {
+        return codec.convert(elements.next());
+      }
+
+      @Override public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  /** Consumes every record equal to {@code record}, and returns how many there were. */
+  private static long skipRun(PeekingIterator<byte[]> records, byte[] record) {
+    long count = 0;
+    while (records.hasNext() && Arrays.equals(records.peek(), record)) {
+      records.next();
+      count++;
+    }
+    return count;
+  }
+
+  /** Counts discrepancies of one kind, and keeps the first few of them as examples. */
+  private final class Discrepancies {
+    private final String template;
+    private final List<Object> examples = new ArrayList<Object>();
+    private long occurrences = 0;
+    private long distinct = 0;
+
+    /**
+     * @param template describes the discrepancies, given the numbers of occurrences and of
+     *     distinct elements
+     */
+    Discrepancies(String template) {
+      this.template = template;
+    }
+
+    void add(byte[] record, long count) {
+      occurrences += count;
+      distinct++;
+      if (examples.size() < maxExamples) {
+        Object element = codec.reverse().convert(record);
+        examples.add((count == 1) ? element : element + " [" + count + " copies]");
+      }
+    }
+
+    void describeTo(List<String> problems) {
+      if (distinct == 0) {
+        return;
+      }
+      String more = (distinct > examples.size())
+          ? " and " + (distinct - examples.size()) + " more"
+          : "";
+      problems.add(format(template, occurrences, distinct) + format(" <%s>%s", examples, more));
+    }
+  }
+}
@@ -15,13 +15,14 @@
  */
 package com.google.common.truth;
 
+import com.google.common.collect.Lists;
+
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+
+import javax.annotation.Nullable;
 
 /**
  * Utility methods used in Subject<T> implementors.
@@ -48,6 +49,19 @@ final class SubjectUtils {
     return items;
   }
 
+  /**
+   * Returns an unmodifiable copy of the elements of {@code items}, traversing it exactly once, or
+   * null if {@code items} is null.
+   */
+  static <T> List<T> snapshot(@Nullable Iterable<T> items) {
+    if (items == null) {
+      return null;
+    }
+    ArrayList<T> snapshot = Lists.newArrayList(items);
+    snapshot.trimToSize();
+    return Collections.unmodifiableList(snapshot);
+  }
+
   static <T> int countOf(T t, Iterable<T> items) {
     int count = 0;
     for (T item : items) {
@@ -58,15 +72,8 @@ final class SubjectUtils {
     return count;
   }
 
-  static <T> List<Object> countDuplicates(Collection<T> items) {
-    Set<T> itemSet = new HashSet<T>(items);
-    Object[] params = new Object[itemSet.size()];
-    int n = 0;
-    for (T item : itemSet) {
-      int count = countOf(item, items);
-      params[n++] = (count > 1) ? item + " [" + count + " copies]" : item;
-    }
-    return Arrays.asList(params);
+  static List<Object> countDuplicates(Iterable<?> items) {
+    return ElementCounter.of(items).describe();
   }
 
 }
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.truth.StringUtil.format;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Table;
+import com.google.common.collect.Table.Cell;
+
+import javax.annotation.Nullable;
+
+/**
+ * Propositions for {@link Table} subjects. Bulk comparisons are made cell by cell, looking each
+ * cell up in the tables' own {@link Table#get} and {@link Table#contains}, and failures are
+ * described row by row.
+ */
+public class TableSubject<S extends TableSubject<S, R, C, V, T>, R, C, V,
+    T extends Table<R, C, V>> extends Subject<S, T> {
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  static <R, C, V, T extends Table<R, C, V>>
+      TableSubject<? extends TableSubject<?, R, C, V, T>, R, C, V, T>
+      create(FailureStrategy failureStrategy, Table<R, C, V> table) {
+    return new TableSubject(failureStrategy, table);
+  }
+
+  protected TableSubject(FailureStrategy failureStrategy, T table) {
+    super(failureStrategy, table);
+  }
+
+  /**
+   * Attests that the table contains no cells, or fails.
+   */
+  public void isEmpty() {
+    if (!getSubject().isEmpty()) {
+      fail("is empty");
+    }
+  }
+
+  /**
+   * Attests that the table contains one or more cells, or fails.
+   */
+  public void isNotEmpty() {
+    if (getSubject().isEmpty()) {
+      fail("is not empty");
+    }
+  }
+
+  /**
+   * Attests that the table contains exactly {@code expectedSize} cells, or fails.
+   */
+  public void hasSize(int expectedSize) {
+    checkArgument(expectedSize >= 0, "expectedSize(%s) must be >= 0", expectedSize);
+    int actualSize = getSubject().size();
+    if (actualSize != expectedSize) {
+      failWithBadResults("has a size of", expectedSize, "is", actualSize);
+    }
+  }
+
+  /**
+   * Attests that the table has a cell at the given row and column, or fails.
+   */
+  public void contains(@Nullable Object rowKey, @Nullable Object columnKey) {
+    if (!getSubject().contains(rowKey, columnKey)) {
+      fail("contains a cell at", rowKey, columnKey);
+    }
+  }
+
+  /**
+   * Attests that the table has no cell at the given row and column, or fails.
+   */
+  public void doesNotContain(@Nullable Object rowKey, @Nullable Object columnKey) {
+    if (getSubject().contains(rowKey, columnKey)) {
+      fail("does not contain a cell at", rowKey, columnKey);
+    }
+  }
+
+  /**
+   * Attests that the table has {@code value} in the cell at the given row and column, or fails.
+   */
+  public void containsCell(@Nullable Object rowKey, @Nullable Object columnKey, Object value) {
+    if (!Objects.equal(getSubject().get(rowKey, columnKey), value)) {
+      fail("contains cell", rowKey, columnKey, value);
+    }
+  }
+
+  /**
+   * Attests that the table has exactly the cells of {@code expected}, or fails, describing the
+   * first few cells which are missing, which are unexpected, and whose values differ, grouped by
+   * row. Only the cells of the table with fewer of them are iterated.
+   */
+  public void containsExactlyCellsIn(Table<?, ?, ?> expected) {
+    checkNotNull(expected);
+    CellDiff diff = new CellDiff();
+    Table<?, ?, ?> actual = getSubject();
+    if (expected.size() <= actual.size()) {
+      long present = diff.compareCells(expected, actual, false);
+      diff.collectCellsAbsentFrom(expected, actual, actual.size() - present, true);
+    } else {
+      long present = diff.compareCells(actual, expected, true);
+      diff.collectCellsAbsentFrom(actual, expected, expected.size() - present, false);
+    }
+    diff.failIfDifferent("contains exactly the expected cells");
+  }
+
+  /**
+   * Attests that the table has every cell of {@code expected}, and perhaps others, or fails,
+   * describing the first few cells which are missing and whose values differ, grouped by row.
+   * Only the cells of {@code expected} are iterated.
+   */
+  public void containsAllCellsIn(Table<?, ?, ?> expected) {
+    checkNotNull(expected);
+    CellDiff diff = new CellDiff();
+    diff.compareCells(expected, getSubject(), false);
+    diff.failIfDifferent("contains all of the expected cells");
+  }
+
+  /** Collects the differences between the subject and an expected table, by row. */
+  private final class CellDiff {
+    final GroupedDiff diff = new GroupedDiff();
+    final GroupedDiff.Group missing = diff.group("is missing the cells");
+    final GroupedDiff.Group unexpected = diff.group("has the unexpected cells");
+    final GroupedDiff.Group different = diff.group("has different values in the cells");
+
+    /**
+     * Looks up each cell of {@code iterated} in {@code other}, recording the cells which
+     * {@code other} lacks and those whose values differ, and returns the number of cells found.
+     */
+    long compareCells(Table<?, ?, ?> iterated, Table<?, ?, ?> other, boolean iteratedIsActual) {
+      long found = 0;
+      for (Cell<?, ?, ?> cell : iterated.cellSet()) {
+        Object row = cell.getRowKey();
+        Object column = cell.getColumnKey();
+        Object otherValue = other.get(row, column);
+        if (otherValue == null && !other.contains(row, column)) {
+          (iteratedIsActual ? unexpected : missing).add(row, column, cell.getValue());
+          continue;
+        }
+        found++;
+        if (!Objects.equal(cell.getValue(), otherValue)) {
+          Object actualValue = iteratedIsActual ? cell.getValue() : otherValue;
+          Object expectedValue = iteratedIsActual ? otherValue : cell.getValue();
+          different.add(row, column, format("%s (expected %s)", actualValue, expectedValue));
+        }
+      }
+      return found;
+    }
+
+    /**
+     * Records the {@code count} cells of {@code scanned} which {@code other} lacks, reading
+     * {@code scanned} only as far as is needed to describe the first few.
+     */
+    void collectCellsAbsentFrom(
+        Table<?, ?, ?> other, Table<?, ?, ?> scanned, long count, boolean scannedIsActual) {
+      if (count <= 0) {
+        return;
+      }
+      GroupedDiff.Group group = scannedIsActual ? unexpected : missing;
+      for (Cell<?, ?, ?> cell : scanned.cellSet()) {
+        if (group.isFull()) {
+          break;
+        }
+        if (!other.contains(cell.getRowKey(), cell.getColumnKey())) {
+          group.add(cell.getRowKey(), cell.getColumnKey(), cell.getValue());
+        }
+      }
+      group.countAtLeast(count);
+    }
+
+    void failIfDifferent(String verb) {
+      String message = diff.describe(verb);
+      if (message != null) {
+        failWithoutSubject(message);
+      }
+    }
+  }
+}
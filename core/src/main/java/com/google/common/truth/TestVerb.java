@@ -15,8 +15,13 @@
  */
 package com.google.common.truth;
 
+import static com.google.common.truth.SubjectUtils.snapshot;
+
 import com.google.common.annotations.GwtIncompatible;
 import com.google.common.base.Optional;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Table;
 
 import java.util.Collection;
 import java.util.List;
@@ -26,15 +31,65 @@ import javax.annotation.CheckReturnValue;
 
 public class TestVerb extends AbstractVerb<TestVerb> {
   private final String failureMessage;
+  private final boolean snapshotting;
+  private final boolean parallel;
 
   public TestVerb(FailureStrategy failureStrategy) {
-    super(failureStrategy);
-    this.failureMessage = null;
+    this(failureStrategy, null);
   }
 
   public TestVerb(FailureStrategy failureStrategy, String failureMessage) {
+    this(failureStrategy, failureMessage, false, false);
+  }
+
+  private TestVerb(FailureStrategy failureStrategy, String failureMessage,
+      boolean snapshotting, boolean parallel) {
     super(failureStrategy);
     this.failureMessage = failureMessage;
+    this.snapshotting = snapshotting;
+    this.parallel = parallel;
+  }
+
+  /**
+   * Returns a verb whose {@code that(Iterable)} subjects are snapshots. The target is traversed
+   * exactly once, when the subject is created, and every proposition on that subject reads the
+   * snapshot rather than the target, except that equality and type are still checked against the
+   * target itself. Use this for iterables which can only be traversed once, or which are
+   * expensive to traverse, such as database cursors or lazily transformed views.
+   *
+   * <p>A {@link Collection} can be traversed again, so it is never copied: its subject keeps the
+   * target, and with it the target's own equality and lookups, as for a {@link java.util.Set}.
+   */
+  @CheckReturnValue
+  public TestVerb snapshotting() {
+    return new TestVerb(getFailureStrategy(), null, true, parallel);
+  }
+
+  /**
+   * Returns a verb whose collection and array subjects evaluate some propositions in parallel,
+   * splitting the subject into chunks which are checked on several threads. This applies to
+   * {@link IterableSubject#containsOnlyElementsIn containsOnlyElements},
+   * {@link IterableSubject#containsNoneIn containsNone} and the {@link ListSubject#isOrdered()
+   * isOrdered} family, when the subject is a {@link java.util.RandomAccess} list or an array,
+   * and to array equality, which reports the lowest index at which the arrays differ. Failures
+   * are reported exactly as they would be without this mode.
+   *
+   * <p>This is only worthwhile for very large subjects; smaller ones are checked on the calling
+   * thread regardless.
+   */
+  @CheckReturnValue
+  public TestVerb inParallel() {
+    return new TestVerb(getFailureStrategy(), null, snapshotting, true);
+  }
+
+  /**
+   * Returns a sink which checks the elements of a stream as they are passed to it, without
+   * keeping them, and reports any failures when it is closed. Use this for streams too large to
+   * collect into an {@link Iterable} subject.
+   */
+  @CheckReturnValue
+  public <T> AssertingSink<T> sink() {
+    return new AssertingSink<T>(getFailureStrategy());
   }
 
   @CheckReturnValue
@@ -63,6 +118,16 @@ public class TestVerb extends AbstractVerb<TestVerb> {
     return new IntegerSubject(getFailureStrategy(), target);
   }
 
+  @CheckReturnValue
+  public DoubleSubject that(Double target) {
+    return new DoubleSubject(getFailureStrategy(), target);
+  }
+
+  @CheckReturnValue
+  public FloatSubject that(Float target) {
+    return new FloatSubject(getFailureStrategy(), target);
+  }
+
   @CheckReturnValue
   public BooleanSubject that(Boolean target) {
     return new BooleanSubject(getFailureStrategy(), target);
@@ -76,59 +141,65 @@ public class TestVerb extends AbstractVerb<TestVerb> {
   @CheckReturnValue
   public <T, C extends Iterable<T>> IterableSubject<? extends IterableSubject<?, T, C>, T, C>
       that(Iterable<T> target) {
-    return IterableSubject.create(getFailureStrategy(), target);
+    Iterable<T> snapshot = snapshotIfRequested(target);
+    IterableSubject<? extends IterableSubject<?, T, C>, T, C> subject =
+        IterableSubject.create(getFailureStrategy(), snapshot);
+    if (snapshot != target) {
+      subject.snapshotOf = target;
+    }
+    return withParallelism(subject);
   }
 
   @CheckReturnValue
   public <T, C extends Collection<T>> CollectionSubject<? extends CollectionSubject<?, T, C>, T, C>
       that(Collection<T> target) {
-    return CollectionSubject.create(getFailureStrategy(), target);
+    return withParallelism(CollectionSubject.create(getFailureStrategy(), target));
   }
 
   @CheckReturnValue
   public <T, C extends List<T>> ListSubject<? extends ListSubject<?, T, C>, T, C>
       that(List<T> target) {
-    return ListSubject.create(getFailureStrategy(), target);
+    return withParallelism(ListSubject.create(getFailureStrategy(), target));
   }
 
   @CheckReturnValue
   public <T> ObjectArraySubject<T> that(T[] target) {
-    return new ObjectArraySubject<T>(getFailureStrategy(), target);
+    return withParallelism(new ObjectArraySubject<T>(getFailureStrategy(), target));
   }
 
   @CheckReturnValue
   public PrimitiveBooleanArraySubject that(boolean[] target) {
-    return new PrimitiveBooleanArraySubject(getFailureStrategy(), target);
+    return withParallelism(new PrimitiveBooleanArraySubject(getFailureStrategy(), target));
   }
 
   @CheckReturnValue
   public PrimitiveIntArraySubject that(int[] target) {
-    return new PrimitiveIntArraySubject(getFailureStrategy(), target);
+    return withParallelism(new PrimitiveIntArraySubject(getFailureStrategy(), target));
   }
 
   @CheckReturnValue
   public PrimitiveLongArraySubject that(long[] target) {
-    return new PrimitiveLongArraySubject(getFailureStrategy(), target);
+    return withParallelism(new PrimitiveLongArraySubject(getFailureStrategy(), target));
   }
 
   @CheckReturnValue
   public PrimitiveCharArraySubject that(char[] target) {
-    return new PrimitiveCharArraySubject(getFailureStrategy(), target);
+    return withParallelism(new PrimitiveCharArraySubject(getFailureStrategy(), target));
   }
 
   @CheckReturnValue
   public PrimitiveByteArraySubject that(byte[] target) {
-    return new PrimitiveByteArraySubject(getFailureStrategy(), target);
+    return withParallelism(new PrimitiveByteArraySubject(getFailureStrategy(), target));
   }
 
   @CheckReturnValue
   public PrimitiveFloatArraySubject that(float[] target) {
-    return new PrimitiveFloatArraySubject(getFailureStrategy(), target);
+    return withParallelism(new PrimitiveFloatArraySubject(getFailureStrategy(), target));
   }
 
   @CheckReturnValue
   public PrimitiveDoubleArraySubject that(double[] target) {
-    return new PrimitiveDoubleArraySubject(getFailureStrategy(), target);
+    return withParallelism(new PrimitiveDoubleArraySubject(getFailureStrategy(), target));
   }
 
   @CheckReturnValue
@@ -142,10 +213,43 @@ public class TestVerb extends AbstractVerb<TestVerb> {
     return MapSubject.create(getFailureStrategy(), target);
   }
 
+  @CheckReturnValue
+  public <T, C extends Multiset<T>> MultisetSubject<? extends MultisetSubject<?, T, C>, T, C>
+      that(Multiset<T> target) {
+    return withParallelism(MultisetSubject.create(getFailureStrategy(), target));
+  }
+
+  @CheckReturnValue
+  public <K, V, M extends Multimap<K, V>>
+      MultimapSubject<? extends MultimapSubject<?, K, V, M>, K, V, M> that(Multimap<K, V> target) {
+    return MultimapSubject.create(getFailureStrategy(), target);
+  }
+
+  @CheckReturnValue
+  public <R, C, V, T extends Table<R, C, V>>
+      TableSubject<? extends TableSubject<?, R, C, V, T>, R, C, V, T> that(Table<R, C, V> target) {
+    return TableSubject.create(getFailureStrategy(), target);
+  }
+
+  private <S extends IterableSubject<?, ?, ?>> S withParallelism(S subject) {
+    subject.parallel = parallel;
+    return subject;
+  }
+
+  private <S extends AbstractArraySubject<?, ?>> S withParallelism(S subject) {
+    subject.parallel = parallel;
+    return subject;
+  }
+
+  private <T> Iterable<T> snapshotIfRequested(Iterable<T> target) {
+    return (snapshotting && !(target instanceof Collection)) ? snapshot(target) : target;
+  }
+
   @Override
   @CheckReturnValue
   public TestVerb withFailureMessage(String failureMessage) {
-    return new TestVerb(getFailureStrategy(), failureMessage); // Must be a new instance.
+    // Must be a new instance.
+    return new TestVerb(getFailureStrategy(), failureMessage, snapshotting, parallel);
   }
 
   @Override public String getFailureMessage() {
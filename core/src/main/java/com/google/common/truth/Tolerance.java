@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * How close a floating point value must be to an expected value to be considered equal to it.
+ * Passed to {@code usingTolerance} on the {@code double} and {@code float} subjects and their
+ * array subjects.
+ *
+ * <ul>
+ * <li>{@link #absolute} bounds the difference between the values.
+ * <li>{@link #relative} bounds the difference as a fraction of the larger of the two magnitudes,
+ *     which suits values spanning many orders of magnitude.
+ * <li>{@link #ulps} bounds the number of representable values between the two, counted from
+ *     their bit patterns. {@code 0.0} and {@code -0.0} are zero ULPs apart.
+ * </ul>
+ *
+ * <p>Under every mode a NaN is equal to nothing, unless {@link #withNaNsEqual} makes it equal to
+ * every other NaN. Infinities are equal only to themselves.
+ *
+ * <p>Each mode compares arrays in a loop of its own, so that the mode is chosen once per
+ * comparison rather than once per element.
+ */
+public abstract class Tolerance {
+  /**
+   * Returns a tolerance which accepts values differing by no more than {@code tolerance}.
+   */
+  public static Tolerance absolute(double tolerance) {
+    checkArgument(tolerance >= 0, "tolerance(%s) must be >= 0", tolerance);
+    return new Absolute(tolerance, false);
+  }
+
+  /**
+   * Returns a tolerance which accepts values differing by no more than {@code fraction} of the
+   * larger of their magnitudes.
+   */
+  public static Tolerance relative(double fraction) {
+    checkArgument(fraction >= 0, "fraction(%s) must be >= 0", fraction);
+    return new Relative(fraction, false);
+  }
+
+  /**
+   * Returns a tolerance which accepts values with no more than {@code ulps} representable values
+   * between them, as counted in the precision of the values compared.
+   */
+  public static Tolerance ulps(long ulps) {
+    checkArgument(ulps >= 0, "ulps(%s) must be >= 0", ulps);
+    return new Ulps(ulps, false);
+  }
+
+  final boolean nansEqual;
+
+  private Tolerance(boolean nansEqual) {
+    this.nansEqual = nansEqual;
+  }
+
+  /**
+   * Returns a tolerance like this one, except that every NaN is equal to every other.
+   */
+  public abstract Tolerance withNaNsEqual();
+
+  /** Returns whether {@code actual} is equal to {@code expected} within this tolerance. */
+  public final boolean matches(double actual, double expected) {
+    return within(actual, expected) || (nansEqual && actual != actual && expected != expected);
+  }
+
+  /** Returns whether {@code actual} is equal to {@code expected} within this tolerance. */
+  public final boolean matches(float actual, float expected) {
+    return within(actual, expected) || (nansEqual && actual != actual && expected != expected);
+  }
+
+  /** Whether the values are within this tolerance, with NaN equal to nothing. */
+  abstract boolean within(double actual, double expected);
+
+  /** Whether the values are within this tolerance, with NaN equal to nothing. */
+  abstract boolean within(float actual, float expected);
+
+  /**
+   * Returns the lowest index, no less than {@code from}, at which the arrays, of the same length,
+   * do not match, or -1 if there is none.
+   */
+  abstract int firstMismatch(double[] actual, double[] expected, int from);
+
+  /**
+   * Returns the lowest index, no less than {@code from}, at which the arrays, of the same length,
+   * do not match, or -1 if there is none.
+   */
+  abstract int firstMismatch(float[] actual, float[] expected, int from);
+
+  /** Returns a description of the tolerance, such as {@code "a relative tolerance of 0.01"}. */
+  @Override public abstract String toString();
+
+  String describeNaNs() {
+    return nansEqual ? ", with NaN equal to NaN" : "";
+  }
+
+  /*
+   * Where the test is cheap, the loops below test four elements at a time without branching,
+   * and test one element at a time, with matches(), only within a group where some test fails.
+   */
+
+  private static final class Absolute extends Tolerance {
+    private final double tolerance;
+
+    Absolute(double tolerance, boolean nansEqual) {
+      super(nansEqual);
+      this.tolerance = tolerance;
+    }
+
+    @Override public Tolerance withNaNsEqual() {
+      return new Absolute(tolerance, true);
+    }
+
+    @Override boolean within(double actual, double expected) {
+      return actual == expected || Math.abs(actual - expected) <= tolerance;
+    }
+
+    @Override boolean within(float actual, float expected) {
+      return within((double) actual, (double) expected);
+    }
+
+    @Override int firstMismatch(double[] actual, double[] expected, int from) {
+      double t = tolerance;
+      int length = actual.length;
+      int i = from;
+      while (i < length) {
+        if (i + 3 < length
+            && Math.abs(actual[i] - expected[i]) <= t
+                & Math.abs(actual[i + 1] - expected[i + 1]) <= t
+                & Math.abs(actual[i + 2] - expected[i + 2]) <= t
+                & Math.abs(actual[i + 3] - expected[i + 3]) <= t) {
+          i += 4;
+        } else if (matches(actual[i], expected[i])) {
+          i++;
+        } else {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override int firstMismatch(float[] actual, float[] expected, int from) {
+      double t = tolerance;
+      int length = actual.length;
+      int i = from;
+      while (i < length) {
+        if (i + 3 < length
+            && Math.abs((double) actual[i] - expected[i]) <= t
+                & Math.abs((double) actual[i + 1] - expected[i + 1]) <= t
+                & Math.abs((double) actual[i + 2] - expected[i + 2]) <= t
+                & Math.abs((double) actual[i + 3] - expected[i + 3]) <= t) {
+          i += 4;
+        } else if (matches(actual[i], expected[i])) {
+          i++;
+        } else {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override public String toString() {
+      return "an absolute tolerance of " + tolerance + describeNaNs();
+    }
+  }
+
+  private static final class Relative extends Tolerance {
+    private final double fraction;
+
+    Relative(double fraction, boolean nansEqual) {
+      super(nansEqual);
+      this.fraction = fraction;
+    }
+
+    @Override public Tolerance withNaNsEqual() {
+      return new Relative(fraction, true);
+    }
+
+    @Override boolean within(double actual, double expected) {
+      return actual == expected || Math.abs(actual - expected)
+          <= fraction * Math.max(Math.abs(actual), Math.abs(expected));
+    }
+
+    @Override boolean within(float actual, float expected) {
+      return within((double) actual, (double) expected);
+    }
+
+    @Override int firstMismatch(double[] actual, double[] expected, int from) {
+      double f = fraction;
+      int length = actual.length;
+      int i = from;
+      while (i < length) {
+        if (i + 3 < length
+            && Math.abs(actual[i] - expected[i])
+                <= f * Math.max(Math.abs(actual[i]), Math.abs(expected[i]))
+            & Math.abs(actual[i + 1] - expected[i + 1])
+                <= f * Math.max(Math.abs(actual[i + 1]), Math.abs(expected[i + 1]))
+            & Math.abs(actual[i + 2] - expected[i + 2])
+                <= f * Math.max(Math.abs(actual[i + 2]), Math.abs(expected[i + 2]))
+            & Math.abs(actual[i + 3] - expected[i + 3])
+                <= f * Math.max(Math.abs(actual[i + 3]), Math.abs(expected[i + 3]))) {
+          i += 4;
+        } else if (matches(actual[i], expected[i])) {
+          i++;
+        } else {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override int firstMismatch(float[] actual, float[] expected, int from) {
+      int length = actual.length;
+      for (int i = from; i < length; i++) {
+        if (!matches(actual[i], expected[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override public String toString() {
+      return "a relative tolerance of " + fraction + describeNaNs();
+    }
+  }
+
+  private static final class Ulps extends Tolerance {
+    private final long ulps;
+
+    Ulps(long ulps, boolean nansEqual) {
+      super(nansEqual);
+      this.ulps = ulps;
+    }
+
+    @Override public Tolerance withNaNsEqual() {
+      return new Ulps(ulps, true);
+    }
+
+    @Override boolean within(double actual, double expected) {
+      if (actual != actual || expected != expected) {
+        return false;
+      }
+      long a = orderedBits(actual);
+      long e = orderedBits(expected);
+      long difference = a - e;
+      // Keys of opposite signs may be further apart than a long can count.
+      boolean overflowed = ((a ^ e) & (a ^ difference)) < 0;
+      return !overflowed && difference >= -ulps && difference <= ulps;
+    }
+
+    @Override boolean within(float actual, float expected) {
+      if (actual != actual || expected != expected) {
+        return false;
+      }
+      long difference = (long) orderedBits(actual) - orderedBits(expected);
+      return difference >= -ulps && difference <= ulps;
+    }
+
+    @Override int firstMismatch(double[] actual, double[] expected, int from) {
+      int length = actual.length;
+      for (int i = from; i < length; i++) {
+        if (!matches(actual[i], expected[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override int firstMismatch(float[] actual, float[] expected, int from) {
+      int length = actual.length;
+      for (int i = from; i < length; i++) {
+        if (!matches(actual[i], expected[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * Returns the bits of {@code value}, rearranged so that they are ordered as signed integers
+     * as the values are ordered, and so that adjacent values differ by one. Both zeros map to 0.
+     */
+    private static long orderedBits(double value) {
+      long bits = Double.doubleToLongBits(value);
+      long sign = bits >> 63;
+      return (bits ^ (sign & Long.MAX_VALUE)) - sign;
+    }
+
+    private static int orderedBits(float value) {
+      int bits = Float.floatToIntBits(value);
+      int sign = bits >> 31;
+      return (bits ^ (sign & Integer.MAX_VALUE)) - sign;
+    }
+
+    @Override public String toString() {
+      return ulps + " ULPs" + describeNaNs();
+    }
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.truth.StringUtil.format;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * The indices at which two floating point arrays of the same length differ by more than a
+ * tolerance, summarized by how many there are, the first few of them, and the largest absolute
+ * and relative errors among them.
+ *
+ * <p>Elements are compared by the {@link Tolerance}'s own loops, which stop at each mismatch, so
+ * that callers which need only the first pay for no more.
+ */
+final class ToleranceMismatches {
+  /** The greatest number of mismatched indices listed in a description. */
+  static final int MAX_REPORTED_INDICES = 10;
+
+  /**
+   * Returns the mismatches between two arrays of the same length, or null if every element
+   * matches within {@code tolerance}, in which case nothing is allocated.
+   */
+  @Nullable static ToleranceMismatches of(
+      double[] actual, double[] expected, Tolerance tolerance) {
+    int index = tolerance.firstMismatch(actual, expected, 0);
+    if (index < 0) {
+      return null;
+    }
+    ToleranceMismatches mismatches = new ToleranceMismatches(actual.length);
+    while (index >= 0) {
+      mismatches.add(index, actual[index], expected[index]);
+      index = tolerance.firstMismatch(actual, expected, index + 1);
+    }
+    return mismatches;
+  }
+
+  /**
+   * Returns the mismatches between two arrays of the same length, or null if every element
+   * matches within {@code tolerance}, in which case nothing is allocated.
+   */
+  @Nullable static ToleranceMismatches of(float[] actual, float[] expected, Tolerance tolerance) {
+    int index = tolerance.firstMismatch(actual, expected, 0);
+    if (index < 0) {
+      return null;
+    }
+    ToleranceMismatches mismatches = new ToleranceMismatches(actual.length);
+    while (index >= 0) {
+      mismatches.add(index, actual[index], expected[index]);
+      index = tolerance.firstMismatch(actual, expected, index + 1);
+    }
+    return mismatches;
+  }
+
+  private final int length;
+  private final List<Integer> indices = new ArrayList<Integer>();
+  private int count = 0;
+  private double maxAbsoluteError = 0;
+  private int maxAbsoluteIndex = -1;
+  private double maxRelativeError = 0;
+  private int maxRelativeIndex = -1;
+
+  private ToleranceMismatches(int length) {
+    this.length = length;
+  }
+
+  private void add(int index, double actual, double expected) {
+    count++;
+    if (indices.size() < MAX_REPORTED_INDICES) {
+      indices.add(index);
+    }
+    // NaN errors compare false here, so they are counted but never the largest.
+    double absoluteError = Math.abs(actual - expected);
+    if (absoluteError > maxAbsoluteError) {
+      maxAbsoluteError = absoluteError;
+      maxAbsoluteIndex = index;
+    }
+    double relativeError = absoluteError / Math.abs(expected);
+    if (relativeError > maxRelativeError) {
+      maxRelativeError = relativeError;
+      maxRelativeIndex = index;
+    }
+  }
+
+  /** Returns the number of mismatched indices. */
+  int count() {
+    return count;
+  }
+
+  /**
+   * Returns a description of the mismatches, such as {@code "It differs at 2 of 8 indices
+   * <[3, 5]>. The largest absolute error is 0.5, at index 5, and the largest relative error is
+   * 0.25, at index 5"}.
+   */
+  @Override public String toString() {
+    StringBuilder description = new StringBuilder(
+        format("It differs at %s of %s indices <%s>", count, length, indices));
+    if (count > indices.size()) {
+      description.append(format(" and %s more", count - indices.size()));
+    }
+    if (maxAbsoluteIndex >= 0) {
+      description.append(format(". The largest absolute error is %s, at index %s",
+          maxAbsoluteError, maxAbsoluteIndex));
+      if (maxRelativeIndex >= 0) {
+        description.append(format(", and the largest relative error is %s, at index %s",
+            maxRelativeError, maxRelativeIndex));
+      }
+    }
+    return description.toString();
+  }
+}
@@ -17,6 +17,9 @@ package com.google.common.truth;
 
 import com.google.common.annotations.GwtIncompatible;
 import com.google.common.base.Optional;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Table;
 
 import java.util.Collection;
 import java.util.List;
@@ -93,6 +96,16 @@ public final class Truth {
     return assert_().that(target);
   }
 
+  @CheckReturnValue
+  public static DoubleSubject assertThat(Double target) {
+    return assert_().that(target);
+  }
+
+  @CheckReturnValue
+  public static FloatSubject assertThat(Float target) {
+    return assert_().that(target);
+  }
+
   @CheckReturnValue
   public static BooleanSubject assertThat(Boolean target) {
     return assert_().that(target);
@@ -172,4 +185,24 @@ public final class Truth {
       assertThat(Map<K, V> target) {
     return assert_().that(target);
   }
+
+  @CheckReturnValue
+  public static <T, C extends Multiset<T>>
+      MultisetSubject<? extends MultisetSubject<?, T, C>, T, C> assertThat(Multiset<T> target) {
+    return assert_().that(target);
+  }
+
+  @CheckReturnValue
+  public static <K, V, M extends Multimap<K, V>>
+      MultimapSubject<? extends MultimapSubject<?, K, V, M>, K, V, M>
+      assertThat(Multimap<K, V> target) {
+    return assert_().that(target);
+  }
+
+  @CheckReturnValue
+  public static <R, C, V, T extends Table<R, C, V>>
+      TableSubject<? extends TableSubject<?, R, C, V, T>, R, C, V, T>
+      assertThat(Table<R, C, V> target) {
+    return assert_().that(target);
+  }
 }
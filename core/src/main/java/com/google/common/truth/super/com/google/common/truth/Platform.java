@@ -17,7 +17,9 @@ package com.google.common.truth;
 
 import static com.google.common.truth.StringUtil.format;
 
+import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -78,4 +80,11 @@ public final class Platform {
   public static AssertionError comparisonFailure(String message, String expected, String actual) {
     return new AssertionError(format("%s: expected: %s actual: %s", message, expected, actual));
   }
+
+  /**
+   * GWT has no threads, so this always evaluates the whole range as one chunk.
+   */
+  static <R> List<R> evaluateInChunks(int size, boolean parallel, IndexRangeTask<R> task) {
+    return Collections.singletonList(task.evaluate(0, size));
+  }
 }
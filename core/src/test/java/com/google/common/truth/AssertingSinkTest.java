@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assert_;
+import static org.junit.Assert.fail;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Ordering;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link AssertingSink}.
+ */
+@RunWith(JUnit4.class)
+public class AssertingSinkTest {
+  private final List<String> failures = new ArrayList<String>();
+  private final TestVerb collecting = new TestVerb(new FailureStrategy() {
+    @Override public void fail(String message) {
+      failures.add(message);
+    }
+  });
+
+  @Test public void satisfied() {
+    AssertingSink<Integer> sink = assert_().<Integer>sink()
+        .isOrderedBy(Ordering.natural())
+        .hasIncreasingKeys(HALF)
+        .hasKeyGapsAtMost(HALF, 1)
+        .hasNoNulls()
+        .hasCount(100000)
+        .startsWith(0, 2, 4);
+    for (int i = 0; i < 100000; i++) {
+      sink.accept(2 * i);
+    }
+    sink.close();
+  }
+
+  @Test public void failsOnClose() {
+    AssertingSink<Integer> sink = assert_().<Integer>sink().hasNoNulls();
+    sink.accept(null);
+    try {
+      sink.close();
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the sink has no nulls. "
+          + "It has null at index 0");
+    }
+  }
+
+  @Test public void isOrderedByFailure() {
+    AssertingSink<Integer> sink = collecting.<Integer>sink().isOrderedBy(Ordering.natural());
+    acceptAll(sink, 1, 3, 2, null, 5, 4);
+    assertThat(failures).isEmpty();
+    sink.close();
+    assertThat(failures).iteratesAs("Not true that the sink is ordered by <Ordering.natural()>. "
+        + "It has <3> followed by <2> at index 2 (2 violations in all)");
+  }
+
+  @Test public void hasIncreasingKeysFailure() {
+    AssertingSink<Integer> sink = collecting.<Integer>sink().named("events")
+        .hasIncreasingKeys(HALF);
+    acceptAll(sink, 0, 2, 3, 4);
+    sink.close();
+    assertThat(failures).iteratesAs("Not true that \"events\" has increasing keys <half>. "
+        + "It has key <1> after key <1> at index 2");
+  }
+
+  @Test public void hasKeyGapsAtMostFailure() {
+    AssertingSink<Integer> sink = collecting.<Integer>sink().hasKeyGapsAtMost(HALF, 2);
+    acceptAll(sink, 0, 4, 10, 2, 8);
+    sink.close();
+    assertThat(failures).iteratesAs("Not true that the sink has gaps of at most 2 in keys "
+        + "<half>. It has a gap of 3 from key <2> to key <5> at index 2 (2 violations in all)");
+  }
+
+  @Test public void hasCountFailure() {
+    AssertingSink<Integer> sink = collecting.<Integer>sink().hasCount(3);
+    acceptAll(sink, 1, 2);
+    sink.close();
+    assertThat(failures).iteratesAs("Not true that the sink has <3> elements. It has <2>");
+  }
+
+  @Test public void startsWithFailure() {
+    AssertingSink<Integer> sink = collecting.<Integer>sink().startsWith(1, 2, 3);
+    acceptAll(sink, 1, 5);
+    sink.close();
+    assertThat(failures).iteratesAs(
+        "Not true that the sink starts with <[1, 2, 3]>. "
+            + "It has <5> at index 1, where <2> was expected (2 violations in all)");
+  }
+
+  @Test public void everyFailedPropositionIsReported() {
+    AssertingSink<Integer> sink = collecting.<Integer>sink().hasNoNulls().hasCount(0);
+    acceptAll(sink, 1, null);
+    sink.close();
+    sink.close();
+    assertThat(failures).iteratesAs(
+        "Not true that the sink has no nulls. It has null at index 1",
+        "Not true that the sink has <0> elements. It has <2>");
+  }
+
+  @Test public void onlyFirstViolationIsDescribed() {
+    final int[] described = new int[1];
+    AssertingSink<Object> sink = collecting.sink().startsWith(1, 2, 3);
+    for (int i = 0; i < 3; i++) {
+      sink.accept(new Object() {
+        @Override public String toString() {
+          described[0]++;
+          return "element";
+        }
+      });
+    }
+    sink.close();
+    assertThat(described[0]).isEqualTo(1);
+    assertThat(failures).iteratesAs("Not true that the sink starts with <[1, 2, 3]>. "
+        + "It has <element> at index 0, where <1> was expected (3 violations in all)");
+  }
+
+  @Test public void propositionsMustPrecedeElements() {
+    AssertingSink<Integer> sink = assert_().<Integer>sink();
+    sink.accept(1);
+    try {
+      sink.hasNoNulls();
+      fail("Should have thrown.");
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  @Test public void acceptAfterClose() {
+    AssertingSink<Integer> sink = assert_().<Integer>sink();
+    sink.close();
+    try {
+      sink.accept(1);
+      fail("Should have thrown.");
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  private static void acceptAll(AssertingSink<Integer> sink, Integer... elements) {
+    for (Integer element : elements) {
+      sink.accept(element);
+    }
+  }
+
+  private static final Function<Integer, Integer> HALF = new Function<Integer, Integer>() {
+    @Override public Integer apply(Integer input) {
+      return input / 2;
+    }
+
+    @Override public String toString() {
+      return "half";
+    }
+  };
+}
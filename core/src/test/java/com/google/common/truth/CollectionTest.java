@@ -334,36 +334,14 @@ public class CollectionTest {
   }
 
   /**
-   * This tests the rather unwieldly case where someone alters the
-   * collection out from under the Subject before inOrder() is called.
-   */
-  @Test public void collectionHasAllOfInOrderHackedWithTooManyItemsFailure() {
-    ArrayList<Integer> list = new ArrayList<Integer>(collection(1, null, 3));
-    Ordered o = assertThat((Collection<Integer>)list).has().allOf(1, null, 3);
-    list.add(6);
-    validateHackedFailure(o);
-  }
-
-  /**
-   * This tests the rather unwieldly case where someone alters the
-   * collection out from under the Subject before inOrder() is called.
+   * The order of an allOf() is established by the same traversal that checks the
+   * containment, so altering the collection before inOrder() is called has no effect.
    */
-  @Test public void collectionHasAllOfInOrderHackedWithTooFewItemsFailure() {
+  @Test public void collectionHasAllOfInOrderIgnoresLaterChanges() {
     ArrayList<Integer> list = new ArrayList<Integer>(collection(1, null, 3));
     Ordered o = assertThat((Collection<Integer>)list).has().allOf(1, null, 3);
     list.remove(1);
-    validateHackedFailure(o);
-  }
-
-  /**
-   * This tests the rather unwieldly case where someone alters the
-   * collection out from under the Subject before inOrder() is called.
-   */
-  @Test public void collectionHasAllOfInOrderHackedWithNoItemsFailure() {
-    ArrayList<Integer> list = new ArrayList<Integer>(collection(1, null, 3));
-    Ordered o = assertThat((Collection<Integer>)list).has().allOf(1, null, 3);
-    list.clear();
-    validateHackedFailure(o);
+    o.inOrder();
   }
 
   /**
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for {@link DoubleSubject} and {@link FloatSubject}.
+ */
+@RunWith(JUnit4.class)
+public class DoubleTest {
+  @Test public void exactWithoutTolerance() {
+    assertThat(0.5).isEqualTo(0.5);
+    assertThat(0.1 + 0.2).isNotEqualTo(0.3);
+    assertThat(0.5f).isEqualTo(0.5f);
+  }
+
+  @Test public void otherTypesAreNotEqualWithoutTolerance() {
+    try {
+      assertThat(1.0).isEqualTo(1);
+      fail("Should have thrown.");
+    } catch (AssertionError expected) {
+      assertThat(expected.getMessage()).contains("Not true that <1.0> is equal to <1>");
+    }
+    assertThat(1.0f).isNotEqualTo(1.0);
+  }
+
+  @Test public void usingToleranceChangesSubject() {
+    DoubleSubject subject = assertThat(0.1 + 0.2);
+    assertThat(subject.usingTolerance(Tolerance.ulps(1)) == subject).isTrue();
+    subject.isEqualTo(0.3);
+  }
+
+  @Test public void usingTolerance() {
+    assertThat(0.1 + 0.2).usingTolerance(Tolerance.ulps(1)).isEqualTo(0.3);
+    assertThat(1e-9).usingTolerance(Tolerance.absolute(1e-6)).isEqualTo(0.0);
+    assertThat(Double.NaN).usingTolerance(Tolerance.ulps(0).withNaNsEqual()).isEqualTo(Double.NaN);
+    assertThat(1.0).usingTolerance(Tolerance.relative(0.1)).isNotEqualTo(1.2);
+    assertThat(1.0f).usingTolerance(Tolerance.ulps(1)).isEqualTo(Math.nextUp(1.0f));
+  }
+
+  @Test public void usingToleranceFail() {
+    try {
+      assertThat(1.0).usingTolerance(Tolerance.relative(0.1)).isEqualTo(1.2);
+      fail("Should have thrown.");
+    } catch (AssertionError expected) {
+      assertThat(expected.getMessage())
+          .isEqualTo("Not true that <1.0> is equal to <1.2> within a relative tolerance of 0.1");
+    }
+  }
+
+  @Test public void usingToleranceNotEqualFail() {
+    try {
+      assertThat(Float.NaN).usingTolerance(Tolerance.absolute(0).withNaNsEqual())
+          .isNotEqualTo(Float.NaN);
+      fail("Should have thrown.");
+    } catch (AssertionError expected) {
+      assertThat(expected.getMessage()).isEqualTo("Not true that <NaN> is not equal to <NaN> "
+          + "within an absolute tolerance of 0.0, with NaN equal to NaN");
+    }
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.ContiguousSet;
+import com.google.common.collect.DiscreteDomain;
+import com.google.common.collect.Range;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Tests for {@link ElementSample}.
+ */
+@RunWith(JUnit4.class)
+public class ElementSampleTest {
+  private static final List<Integer> MILLION = range(1000000);
+
+  @Test public void samplingAtRate() {
+    RecordingPredicate valid = new RecordingPredicate(Integer.MAX_VALUE);
+    assertThat(MILLION).sampling(0.01, 1).allMatch(valid);
+    assertThat(valid.tested.size()).isGreaterThan(9000);
+    assertThat(valid.tested.size()).isLessThan(11000);
+  }
+
+  @Test public void samplingAtRateReadsAnIterableOnce() {
+    Iterable<Integer> set = ContiguousSet.create(Range.closedOpen(0, 1000000),
+        DiscreteDomain.integers());
+    RecordingPredicate fromSet = new RecordingPredicate(Integer.MAX_VALUE);
+    RecordingPredicate fromList = new RecordingPredicate(Integer.MAX_VALUE);
+    assertThat(set).sampling(0.001, 7).allMatch(fromSet);
+    assertThat(MILLION).sampling(0.001, 7).allMatch(fromList);
+    assertThat(fromSet.tested).isEqualTo(fromList.tested);
+  }
+
+  @Test public void samplingExactly() {
+    Iterable<Integer> set = ContiguousSet.create(Range.closedOpen(0, 1000000),
+        DiscreteDomain.integers());
+    RecordingPredicate fromSet = new RecordingPredicate(Integer.MAX_VALUE);
+    RecordingPredicate fromList = new RecordingPredicate(Integer.MAX_VALUE);
+    assertThat(set).samplingExactly(1000, 3).allMatch(fromSet);
+    assertThat(MILLION).samplingExactly(1000, 3).allMatch(fromList);
+    assertThat(new HashSet<Integer>(fromSet.tested)).hasSize(1000);
+    assertThat(new HashSet<Integer>(fromList.tested)).hasSize(1000);
+  }
+
+  @Test public void samplingExactlyMoreThanThereAre() {
+    RecordingPredicate valid = new RecordingPredicate(Integer.MAX_VALUE);
+    assertThat(range(10)).samplingExactly(100, 0).allMatch(valid);
+    assertThat(valid.tested).isEqualTo(range(10));
+  }
+
+  @Test public void allMatchFailure() {
+    try {
+      assertThat(range(1000)).samplingExactly(1000, 0).allMatch(new RecordingPredicate(985));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject has only elements "
+          + "matching <less than 985>. Of a sample of 1000 elements, 15 do not match, by index "
+          + "<{985=985, 986=986, 987=987, 988=988, 989=989, 990=990, 991=991, 992=992, "
+          + "993=993, 994=994}> and 5 more. With confidence 0.95, the defect rate is at most "
+          + "0.0231");
+    }
+  }
+
+  @Test public void defectRateBelow() {
+    RecordingPredicate valid = new RecordingPredicate(Integer.MAX_VALUE);
+    assertThat(MILLION).withConfidence(0.99).defectRateBelow(1e-4).allMatch(valid);
+    assertThat(valid.tested).hasSize(46050);
+  }
+
+  @Test public void defectRateBelowFailure() {
+    try {
+      assertThat(MILLION).named("ids").withConfidence(0.99).withSeed(5).defectRateBelow(0.01)
+          .allMatch(new RecordingPredicate(900000));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).startsWith("Not true that \"ids\" has only elements matching "
+          + "<less than 900000>. Of a sample of 459 elements, ");
+      assertThat(e.getMessage()).contains("With confidence 0.99, the defect rate is at most 0.");
+    }
+  }
+
+  @Test public void hasDefectRateBelow() {
+    assertThat(MILLION).samplingExactly(10000, 0)
+        .hasDefectRateBelow(0.01, new RecordingPredicate(999000));
+  }
+
+  @Test public void hasDefectRateBelowFailsForTooSmallASample() {
+    try {
+      assertThat(MILLION).samplingExactly(10, 0)
+          .hasDefectRateBelow(0.01, new RecordingPredicate(Integer.MAX_VALUE));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject has a defect rate below "
+          + "0.01 for <less than 2147483647>. Of a sample of 10 elements, 0 do not match. "
+          + "With confidence 0.95, the defect rate is at most 0.259");
+    }
+  }
+
+  @Test public void upperBound() {
+    assertThat(Math.abs(ElementSample.upperBound(100, 0, 0.95) - (1 - Math.pow(0.05, 0.01))))
+        .isLessThan(1e-15);
+    assertThat(ElementSample.upperBound(100, 100, 0.95)).isEqualTo(1.0);
+    double bound = ElementSample.upperBound(100, 5, 0.95);
+    double cdf = 0;
+    for (int k = 0; k <= 5; k++) {
+      cdf += choose(100, k) * Math.pow(bound, k) * Math.pow(1 - bound, 100 - k);
+    }
+    assertThat(Math.abs(cdf - 0.05)).isLessThan(1e-9);
+    // Large samples must not underflow.
+    assertThat(ElementSample.upperBound(10000000, 50000, 0.99)).isGreaterThan(0.005);
+    assertThat(ElementSample.upperBound(10000000, 50000, 0.99)).isLessThan(0.0051);
+  }
+
+  @Test public void requiredSampleSize() {
+    assertThat(ElementSample.requiredSampleSize(0.99, 1e-4)).isEqualTo(46050);
+    assertThat(ElementSample.requiredSampleSize(0.95, 0.5)).isEqualTo(5);
+  }
+
+  private static double choose(int n, int k) {
+    double result = 1;
+    for (int i = 0; i < k; i++) {
+      result = result * (n - i) / (i + 1);
+    }
+    return result;
+  }
+
+  private static List<Integer> range(int size) {
+    List<Integer> range = new ArrayList<Integer>(size);
+    for (int i = 0; i < size; i++) {
+      range.add(i);
+    }
+    return range;
+  }
+
+  /** Accepts integers less than a limit, recording each one tested. */
+  private static final class RecordingPredicate implements Predicate<Integer> {
+    private final int limit;
+    final List<Integer> tested = new ArrayList<Integer>();
+
+    RecordingPredicate(int limit) {
+      this.limit = limit;
+    }
+
+    @Override public boolean apply(Integer input) {
+      tested.add(input);
+      return input < limit;
+    }
+
+    @Override public String toString() {
+      return "less than " + limit;
+    }
+  }
+}
@@ -16,17 +16,39 @@
 package com.google.common.truth;
 
 import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assert_;
 import static java.util.Arrays.asList;
 import static org.junit.Assert.fail;
 
+import com.google.common.base.Equivalence;
+import com.google.common.base.Predicate;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.HashMultiset;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMultiset;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
+import com.google.common.collect.TreeMultiset;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.util.AbstractCollection;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Tests for Collection Subjects.
@@ -53,6 +75,95 @@ public class IterableTest {
     }
   }
 
+  @Test public void hasSizeOfInfiniteIterableFailure() {
+    try {
+      assertThat(Iterables.cycle(1, 2)).hasSize(1000);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("has a size of <1000>. It is <at least 1001>");
+    }
+  }
+
+  @Test public void hasSizeReadsOnlyWhatItNeeds() {
+    CountingIterable items = new CountingIterable(10);
+    assertThat(items).hasSize(10);
+    assertThat(items.read).isEqualTo(10);
+    items = new CountingIterable(100);
+    try {
+      assertThat(items).hasSize(10);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(items.read).isEqualTo(11);
+    }
+  }
+
+  @Test public void hasSizeAtLeast() {
+    assertThat(Iterables.cycle(1)).hasSizeAtLeast(1000);
+    assertThat(ImmutableList.of(1, 2, 3)).hasSizeAtLeast(3);
+    assertThat(ImmutableList.of()).hasSizeAtLeast(0);
+    CountingIterable items = new CountingIterable(1000000);
+    assertThat(items).hasSizeAtLeast(5);
+    assertThat(items.read).isEqualTo(5);
+  }
+
+  @Test public void hasSizeAtLeastFailure() {
+    try {
+      assertThat(new CountingIterable(3)).hasSizeAtLeast(4);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("has a size of at least <4>. It is <3>");
+    }
+  }
+
+  @Test public void hasSizeAtMost() {
+    assertThat(ImmutableList.of(1, 2, 3)).hasSizeAtMost(3);
+    assertThat(new CountingIterable(3)).hasSizeAtMost(5);
+  }
+
+  @Test public void hasSizeAtMostFailure() {
+    try {
+      assertThat(Iterables.cycle(1)).hasSizeAtMost(5);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("has a size of at most <5>. It is <at least 6>");
+    }
+    try {
+      assertThat(ImmutableList.of(1, 2, 3)).hasSizeAtMost(2);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("has a size of at most <2>. It is <3>");
+    }
+  }
+
+  @Test public void hasSizeIn() {
+    assertThat(ImmutableList.of(1, 2, 3)).hasSizeIn(Range.closed(1, 3));
+    assertThat(Iterables.cycle(1)).hasSizeIn(Range.greaterThan(1000));
+    assertThat(new CountingIterable(4)).hasSizeIn(Range.openClosed(3, 4));
+    assertThat(new CountingIterable(0)).hasSizeIn(Range.<Integer>all());
+  }
+
+  @Test public void hasSizeInFailure() {
+    try {
+      assertThat(Iterables.cycle(1)).hasSizeIn(Range.closedOpen(2, 5));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("has a size in <");
+      assertThat(e.getMessage()).endsWith("It is <at least 6>");
+    }
+    try {
+      assertThat(new CountingIterable(1)).hasSizeIn(Range.atLeast(2));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It is <1>");
+    }
+    try {
+      assertThat(new CountingIterable(0)).hasSizeIn(Range.lessThan(0));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It is <0>");
+    }
+  }
+
   @Test public void iteratesOver() {
     assertThat(iterable(1, 2, 3)).iteratesAs(1, 2, 3);
   }
@@ -78,6 +189,19 @@ public class IterableTest {
     }
   }
 
+  @Test public void iteratesOverFailureDescribesDifferences() {
+    try {
+      assertThat(range(0, 50000)).iteratesAs(range(0, 50000, -1));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject iterates through the "
+          + "expected elements. It differs from them (- unexpected, + missing):\n"
+          + "@@ subject index 0, expected index 0 @@\n"
+          + "+ -1\n  0\n  1\n  2\n"
+          + "(Only 32 elements of each past the first difference were compared.)");
+    }
+  }
+
   @Test public void iteratesOverWithTooManyItemsFailure() {
     try {
       assertThat(iterable(1, 2, 3)).iteratesAs(1, 2, 3, 4);
@@ -170,6 +294,19 @@ public class IterableTest {
     }
   }
 
+  @Test public void iterableHasAnyInWithManyExpected() {
+    assertThat(iterable(1, null, 3)).containsAnyIn(range(100, 200, 3));
+  }
+
+  @Test public void iterableHasAnyInWithManyExpectedFailure() {
+    try {
+      assertThat(iterable(1, null, 3)).containsAnyIn(range(100, 200));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("contains any element in");
+    }
+  }
+
   @Test public void iterableHasAllOfWithMany() {
     assertThat(iterable(1, 2, 3)).containsAllOf(1, 2);
   }
@@ -235,6 +372,40 @@ public class IterableTest {
     }
   }
 
+  @Test public void iterableHasAllOfWithUnhashableElements() {
+    assertThat(iterable(new Unhashable("a"), new Unhashable("b"), new Unhashable("a")))
+        .containsAllOf(new Unhashable("a"), new Unhashable("a"));
+  }
+
+  @Test public void iterableHasAllOfWithUnhashableElementsFailure() {
+    try {
+      assertThat(iterable(new Unhashable("a"), 1, 2))
+          .containsAllOf(new Unhashable("a"), new Unhashable("b"), new Unhashable("b"), 2, 3);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("is missing <[b [2 copies], 3]>");
+    }
+  }
+
+  @Test public void iterableHasAllOfInIdentitySet() {
+    Set<String> actual = Sets.newIdentityHashSet();
+    actual.add(new String("a"));
+    actual.add("b");
+    assertThat(actual).containsAllOf("a", "b");
+  }
+
+  @Test public void iterableHasAllOfInComparatorSetFailure() {
+    Set<String> actual = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+    actual.add("a");
+    actual.add("b");
+    try {
+      assertThat(actual).containsAllOf("A", "B");
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("is missing <[A, B]>");
+    }
+  }
+
   @Test public void iterableHasAllOfInOrder() {
     assertThat(iterable(3, 2, 5)).containsAllOf(3, 2, 5).inOrder();
   }
@@ -253,6 +424,28 @@ public class IterableTest {
     }
   }
 
+  @Test public void iterableHasAllOfInOrderWithGaps() {
+    assertThat(iterable(3, 2, 7, 5, 2)).containsAllOf(3, 5, 2).inOrder();
+  }
+
+  @Test public void iterableHasAllOfInOrderWithDuplicates() {
+    assertThat(iterable(2, 1, 2, 3, 2)).containsAllOf(2, 2, 2).inOrder();
+  }
+
+  @Test public void iterableHasAllInInOrderWithEmptyExpected() {
+    assertThat(iterable(1, 2)).containsAllIn(iterable()).inOrder();
+  }
+
+  @Test public void iterableHasAllOfInOrderWithGapsFailure() {
+    try {
+      assertThat(iterable(1, 2, 3, 4, 5)).containsAllOf(2, 4, 3, 5).inOrder();
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that <[1, 2, 3, 4, 5]> contains all elements "
+          + "in order <[2, 4, 3, 5]>. It has <3> (at expected index 2) out of order");
+    }
+  }
+
   @Test public void iterableHasNoneOf() {
     assertThat(iterable(1, 2, 3)).containsNoneOf(4, 5, 6);
   }
@@ -287,6 +480,24 @@ public class IterableTest {
     }
   }
 
+  @Test public void iterableHasNoneInWithManyExcluded() {
+    assertThat(iterable(1, 2, 3)).containsNoneIn(range(100, 200));
+  }
+
+  @Test public void iterableHasNoneInWithManyExcludedFailure() {
+    try {
+      assertThat(iterable(150, 2, 3, 120, 120)).containsNoneIn(range(100, 200, 120));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("It contains <[120, 150]>");
+    }
+  }
+
+  @Test public void iterableHasNoneOfWithUnhashableElements() {
+    assertThat(iterable(new Unhashable("a"), 1))
+        .containsNoneOf(new Unhashable("b"), new Unhashable("b"), 2);
+  }
+
   @Test public void iterableHasExactlyWithMany() {
     assertThat(iterable(1, 2, 3)).containsOnlyElements(1, 2, 3);
   }
@@ -395,6 +606,352 @@ public class IterableTest {
     }
   }
 
+  @Test public void iterableHasExactlyWithUnhashableElements() {
+    assertThat(iterable(new Unhashable("a"), null, 1, new Unhashable("b")))
+        .containsOnlyElements(1, new Unhashable("b"), null, new Unhashable("a"));
+  }
+
+  @Test public void iterableHasExactlyWithUnhashableElementsFailure() {
+    try {
+      assertThat(iterable(new Unhashable("a"), new Unhashable("a"), new Unhashable("c"), 1))
+          .containsOnlyElements(new Unhashable("a"), new Unhashable("c"), 1);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("has unexpected items <[a]>");
+    }
+  }
+
+  @Test public void iterableHasExactlyWithManyElements() {
+    List<Integer> actual = new ArrayList<Integer>();
+    List<Integer> expected = new ArrayList<Integer>();
+    for (int i = 0; i < 200000; i++) {
+      actual.add(i);
+      expected.add(199999 - i);
+    }
+    assertThat((Iterable<Integer>) actual).containsOnlyElementsIn(expected);
+  }
+
+  @Test public void iterableHasExactlyInParallel() {
+    assert_().inParallel().that(range(0, 200000))
+        .containsOnlyElementsIn(Lists.reverse(range(0, 200000)));
+  }
+
+  @Test public void iterableHasExactlyInParallelFailure() {
+    List<Integer> actual = range(0, 200000, 7, 150000, 150000);
+    List<Integer> expected = range(0, 200000);
+    String sequentialMessage = null;
+    try {
+      assertThat(actual).containsOnlyElementsIn(expected);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      sequentialMessage = e.getMessage();
+    }
+    try {
+      assert_().inParallel().that(actual).containsOnlyElementsIn(expected);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo(sequentialMessage);
+      assertThat(e.getMessage()).contains("has unexpected items <[7, 150000 [2 copies]]>");
+    }
+  }
+
+  @Test public void iterableHasNoneInParallel() {
+    assert_().inParallel().that(range(0, 200000)).containsNoneIn(range(-100, 0));
+  }
+
+  @Test public void iterableHasNoneInParallelFailure() {
+    try {
+      assert_().inParallel().that(range(0, 200000)).containsNoneIn(Arrays.asList(-1, 199999, 5));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("It contains <[199999, 5]>");
+    }
+  }
+
+  @Test public void sortedSetsAreMerged() {
+    TreeSet<Integer> actual = new TreeSet<Integer>(range(0, 100000));
+    assertThat(actual).containsAllIn(ImmutableSortedSet.of(5, 500, 50000));
+    assertThat(actual).containsOnlyElementsIn(ImmutableSortedSet.copyOf(range(0, 100000)));
+    assertThat(actual).containsNoneIn(ImmutableSortedSet.of(-3, 100000, 200000));
+  }
+
+  @Test public void sortedSetsMergedFailures() {
+    TreeSet<Integer> actual = new TreeSet<Integer>(asList(1, 3, 5, 7));
+    try {
+      assertThat(actual).containsAllIn(ImmutableSortedSet.of(2, 3, 8));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("is missing <[2, 8]>");
+    }
+    try {
+      assertThat(actual).containsOnlyElementsIn(ImmutableSortedSet.of(1, 3, 5));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("has unexpected items <[7]>");
+    }
+    try {
+      assertThat(actual).containsNoneIn(ImmutableSortedSet.of(0, 3, 4, 7));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("It contains <[3, 7]>");
+    }
+  }
+
+  @Test public void sortedMultisetsAreMergedWithCounts() {
+    TreeMultiset<Integer> actual = TreeMultiset.create(asList(1, 1, 2, 3, 3, 3));
+    assertThat(actual).containsOnlyElementsIn(ImmutableSortedMultiset.of(1, 1, 2, 3, 3, 3));
+    try {
+      assertThat(actual).containsOnlyElementsIn(ImmutableSortedMultiset.of(1, 2, 2, 3));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("is missing <[2]>");
+    }
+    try {
+      assertThat(actual).containsOnlyElementsIn(ImmutableSortedMultiset.of(1, 1, 2, 3));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("has unexpected items <[3 [2 copies]]>");
+    }
+  }
+
+  @Test public void sortedSetsWithDifferentOrdersAreNotMerged() {
+    TreeSet<Integer> actual = new TreeSet<Integer>(Ordering.natural().reverse());
+    actual.addAll(asList(1, 2, 3));
+    assertThat(actual).containsOnlyElementsIn(ImmutableSortedSet.of(3, 1, 2));
+  }
+
+  @Test public void assumingSortedMergesWithoutHashing() {
+    List<Unhashed> actual = new ArrayList<Unhashed>();
+    for (int i = 0; i < 1000; i++) {
+      actual.add(new Unhashed(i));
+    }
+    assertThat(actual).assumingSorted(Ordering.natural())
+        .containsAllIn(asList(new Unhashed(3), new Unhashed(999)));
+    assertThat(actual).assumingSorted(Ordering.natural()).containsOnlyElementsIn(actual);
+  }
+
+  @Test public void assumingSortedReportsLikeUnsorted() {
+    List<Integer> actual = asList(1, 2, 2, 4, 4, 4, 7);
+    List<Integer> expected = asList(0, 2, 4, 4, 8);
+    String unsortedMessage = null;
+    try {
+      assertThat(actual).containsOnlyElementsIn(expected);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      unsortedMessage = e.getMessage();
+    }
+    try {
+      assertThat(actual).assumingSorted(Ordering.natural()).containsOnlyElementsIn(expected);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo(unsortedMessage);
+    }
+  }
+
+  @Test public void assumingSortedFallsBackWhenUnsorted() {
+    assertThat(asList(1, 5, 3)).assumingSorted(Ordering.natural()).containsAllOf(3, 5);
+    assertThat(asList(1, 2, 3)).assumingSorted(Ordering.natural()).containsOnlyElements(3, 1, 2);
+    assertThat(asList(5, 6, 4)).assumingSorted(Ordering.natural()).containsAllIn(asList(4));
+    try {
+      assertThat(asList(5, 6, 4)).assumingSorted(Ordering.natural()).containsNoneOf(4, 7);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("It contains <[4]>");
+    }
+  }
+
+  @Test public void assumingSortedFallsBackWhenIncomparable() {
+    assertThat(asList(1, null, 3)).assumingSorted(Ordering.natural())
+        .containsOnlyElements(null, 1, 3);
+  }
+
+  @Test public void assumingSortedContainsAllInOrder() {
+    assertThat(asList(1, 2, 3, 4)).assumingSorted(Ordering.natural())
+        .containsAllOf(2, 4).inOrder();
+    assertThat(ImmutableSortedSet.of(1, 2, 3)).containsAllIn(ImmutableSortedSet.of(1, 3))
+        .inOrder();
+  }
+
+  @Test public void multisetCountsAreUsedWithoutIteration() {
+    HashMultiset<String> actual = HashMultiset.create();
+    actual.add("a", 1000000000);
+    actual.add("b");
+    assertThat(actual).containsAllOf("a", "a", "b");
+    assertThat(actual).containsNoneOf("c", "d", "e", "f", "g", "h", "i", "j", "k", "l");
+    assertThat(actual).containsOnlyElementsIn(
+        ImmutableMultiset.builder().add("b").addCopies("a", 1000000000).build());
+  }
+
+  @Test public void multisetCountsFailure() {
+    HashMultiset<String> actual = HashMultiset.create();
+    actual.add("a", 1000000000);
+    try {
+      assertThat(actual).containsOnlyElementsIn(
+          ImmutableMultiset.builder().addCopies("a", 999999999).build());
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("has unexpected items <[a]>");
+    }
+  }
+
+  @Test public void setLookupWithUnhashableQuery() {
+    assertThat(ImmutableSet.of(1, 2)).containsAllOf(1, 2);
+    try {
+      assertThat(ImmutableSet.<Object>of(1, 2)).containsAllOf(1, new Unhashable("a"));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("is missing <[a]>");
+    }
+  }
+
+  @Test public void containsOnlyElementsInRange() {
+    assertThat(asList(3, 1, 2)).containsOnlyElementsInRange(Range.closed(1, 3));
+    assertThat(Arrays.<Integer>asList()).containsOnlyElementsInRange(Range.closedOpen(1, 1));
+    assertThat(unscannable(1, 2, 3)).containsOnlyElementsInRange(Range.closed(1, 3));
+    assertThat(unscannable(2)).containsOnlyElementsInRange(Range.open(1, 3));
+    assertThat(unscannable(1, 2)).containsOnlyElementsInRange(Range.atMost(2));
+  }
+
+  @Test public void containsOnlyElementsInRangeFailure() {
+    try {
+      assertThat(asList(4, 1, null, 2)).containsOnlyElementsInRange(Range.openClosed(1, 3));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).startsWith(
+          "Not true that <[4, 1, null, 2]> contains only elements in <" + Range.openClosed(1, 3));
+      assertThat(e.getMessage()).endsWith(">. It has elements outside it <[4, 1, null]>");
+    }
+    try {
+      assertThat(new TreeSet<Integer>(asList(0, 1, 2, 3, 4, 5)))
+          .containsOnlyElementsInRange(Range.openClosed(1, 3));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It has elements outside it <[0, 1, 4, 5]>");
+    }
+    try {
+      assertThat(new TreeSet<Integer>(asList(2, 3))).containsOnlyElementsInRange(Range.open(2, 3));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It has elements outside it <[2, 3]>");
+    }
+  }
+
+  @Test public void containsOnlyElementsInRangeOfReverseSortedSet() {
+    TreeSet<Integer> actual = new TreeSet<Integer>(Ordering.natural().reverse());
+    actual.addAll(asList(1, 5, 3));
+    try {
+      assertThat(actual).containsOnlyElementsInRange(Range.closed(2, 4));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It has elements outside it <[5, 1]>");
+    }
+  }
+
+  @Test public void hasNoElementsIn() {
+    assertThat(asList(1, 5, null)).hasNoElementsIn(Range.open(1, 5));
+    assertThat(asList(1, 5)).hasNoElementsIn(Range.closedOpen(3, 3));
+    assertThat(unscannable(1, 5)).hasNoElementsIn(Range.open(1, 5));
+    assertThat(unscannable(1, 5)).hasNoElementsIn(Range.greaterThan(5));
+  }
+
+  @Test public void hasNoElementsInFailure() {
+    try {
+      assertThat(asList(5, 3, 1)).hasNoElementsIn(Range.closed(3, 5));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It contains <[5, 3]>");
+    }
+    try {
+      assertThat(new TreeSet<Integer>(asList(1, 2, 3, 4, 5)))
+          .hasNoElementsIn(Range.openClosed(1, 3));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It contains <[2, 3]>");
+    }
+    try {
+      assertThat(new TreeSet<Integer>(asList(1, 2, 3))).hasNoElementsIn(Range.atLeast(3));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It contains <[3]>");
+    }
+  }
+
+  @Test public void comparingElementsUsingEquivalence() {
+    assertThat(asList("A", "b", "B")).comparingElementsUsing(CASE_INSENSITIVE)
+        .containsOnlyElements("a", "B", "b").inOrder();
+    assertThat(asList("A", "b", "c")).comparingElementsUsing(CASE_INSENSITIVE)
+        .containsAllOf("a", "C").inOrder();
+    assertThat(asList("A", "b")).comparingElementsUsing(CASE_INSENSITIVE)
+        .containsNoneOf("c", "d");
+    assertThat(asList("A", "b")).comparingElementsUsing(CASE_INSENSITIVE).contains("B");
+    assertThat(asList("A", "b")).comparingElementsUsing(CASE_INSENSITIVE).containsAnyOf("x", "a");
+    assertThat(asList("A", "b")).comparingElementsUsing(CASE_INSENSITIVE).iteratesAs("a", "B");
+  }
+
+  @Test public void comparingElementsUsingEquivalenceFailures() {
+    try {
+      assertThat(asList("A", "b", "b")).comparingElementsUsing(CASE_INSENSITIVE)
+          .containsOnlyElements("a", "B", "c");
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("is missing <[c]>");
+    }
+    try {
+      assertThat(asList("A", "b", "b")).comparingElementsUsing(CASE_INSENSITIVE)
+          .containsOnlyElements("a", "B");
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("has unexpected items <[b]>");
+    }
+    try {
+      assertThat(asList("A", "b")).comparingElementsUsing(CASE_INSENSITIVE)
+          .containsNoneOf("B", "c", "b");
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("It contains <[B]>");
+    }
+    try {
+      assertThat(asList("A", "b")).comparingElementsUsing(CASE_INSENSITIVE)
+          .doesNotContain("a");
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("does not contain <a>");
+    }
+  }
+
+  @Test public void comparingElementsUsingEquivalenceIgnoresNativeLookups() {
+    assertThat(ImmutableSet.of("A", "b")).comparingElementsUsing(CASE_INSENSITIVE)
+        .containsAllOf("a", "B");
+    assertThat(ImmutableSortedSet.of("A", "b")).comparingElementsUsing(CASE_INSENSITIVE)
+        .containsOnlyElementsIn(ImmutableSortedSet.of("B", "a"));
+    assertThat(ImmutableMultiset.of("A", "A")).comparingElementsUsing(CASE_INSENSITIVE)
+        .containsOnlyElements("a", "A");
+  }
+
+  @Test public void comparingElementsUsingEquivalenceWithManyElements() {
+    List<String> actual = new ArrayList<String>();
+    List<String> expected = new ArrayList<String>();
+    for (int i = 0; i < 200000; i++) {
+      actual.add("ID" + i);
+      expected.add("id" + (199999 - i));
+    }
+    assertThat(actual).comparingElementsUsing(CASE_INSENSITIVE).containsOnlyElementsIn(expected);
+    assertThat(actual).comparingElementsUsing(CASE_INSENSITIVE).containsNoneIn(range(0, 1000));
+  }
+
+  @Test public void comparingElementsUsingEquivalenceWhoseHashThrows() {
+    Equivalence<Object> unhashable = new Equivalence<Object>() {
+      @Override protected boolean doEquivalent(Object a, Object b) {
+        return a.toString().equals(b.toString());
+      }
+
+      @Override protected int doHash(Object o) {
+        throw new UnsupportedOperationException();
+      }
+    };
+    assertThat(asList(1, 2)).comparingElementsUsing(unhashable).containsOnlyElements("2", "1");
+  }
+
   @Test public void iterableHasExactlyInOrder() {
     assertThat(iterable(3, 2, 5)).containsOnlyElements(3, 2, 5).inOrder();
   }
@@ -441,37 +998,105 @@ public class IterableTest {
     }
   }
 
-  /**
-   * This tests the rather unwieldly case where someone alters the
-   * collection out from under the Subject before inOrder() is called.
-   */
-  @Test public void iterableHasAllOfInOrderHackedWithTooManyItemsFailure() {
-    ArrayList<Integer> list = new ArrayList<Integer>(asList(1, null, 3));
-    Ordered o = assertThat((Iterable<Integer>) list).containsAllOf(1, null, 3);
-    list.add(6);
-    validateHackedFailure(o);
+  @Test public void snapshotTraversesOneShotIterableOnce() {
+    IterableSubject<?, Integer, ?> subject =
+        assert_().snapshotting().that(new OneShotIterable<Integer>(3, 1, 2));
+    subject.hasSize(3);
+    subject.containsOnlyElements(1, 2, 3);
+    subject.containsAllOf(3, 1, 2).inOrder();
+    subject.containsNoneOf(4, 5, 6);
   }
 
-  /**
-   * This tests the rather unwieldly case where someone alters the
-   * collection out from under the Subject before inOrder() is called.
-   */
-  @Test public void iterableHasAllOfInOrderHackedWithTooFewItemsFailure() {
-    ArrayList<Integer> list = new ArrayList<Integer>(asList(1, null, 3));
-    Ordered o = assertThat((Iterable<Integer>) list).containsAllOf(1, null, 3);
-    list.remove(1);
-    validateHackedFailure(o);
+  @Test public void snapshotWithFailure() {
+    try {
+      assert_().snapshotting().that(new OneShotIterable<Integer>(3, 1, 2)).contains(4);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that <[3, 1, 2]> contains <4>");
+    }
+  }
+
+  @Test public void snapshotIsCheckedForEqualityAndTypeAgainstTarget() {
+    OneShotIterable<Integer> target = new OneShotIterable<Integer>(3, 1, 2);
+    IterableSubject<?, Integer, ?> subject = assert_().snapshotting().that(target);
+    subject.isEqualTo(target);
+    subject.isNotEqualTo(asList(3, 1, 2));
+    subject.isInstanceOf(OneShotIterable.class);
+    subject.isNotInstanceOf(List.class);
+  }
+
+  @Test public void snapshotKeepsCollections() {
+    ImmutableSet<Integer> set = ImmutableSet.of(1, 2);
+    assert_().snapshotting().that((Collection<Integer>) set).isEqualTo(ImmutableSet.of(1, 2));
+    assert_().snapshotting().that((Iterable<Integer>) set).isEqualTo(ImmutableSet.of(2, 1));
+    assert_().snapshotting().that((Iterable<Integer>) set).isInstanceOf(ImmutableSet.class);
+  }
+
+  @Test public void iteratesAsSingleUseIterablesFailure() {
+    try {
+      assertThat(singleUse(1)).iteratesAs(singleUse(2));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).startsWith(
+          "Not true that the subject iterates through the expected elements. ");
+    }
+  }
+
+  @Test public void iteratesAsSingleUseIterables() {
+    assertThat(singleUse(1, 2)).iteratesAs(singleUse(1, 2));
+  }
+
+  @Test public void iteratesAsInfiniteIterableFailure() {
+    try {
+      assertThat(Iterables.cycle(1, 2)).iteratesAs(1, 2, 3);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("@@ subject index 0, expected index 0 @@\n  1\n  2\n- 1");
+      assertThat(e.getMessage()).contains("\n+ 3");
+      assertThat(e.getMessage())
+          .endsWith("(Only 32 elements of each past the first difference were compared.)");
+    }
+  }
+
+  @Test public void iteratesAsLongIterablesReportsTrueIndexes() {
+    List<Integer> actual = range(0, 5000);
+    List<Integer> expected = Lists.newArrayList(actual);
+    expected.set(4000, -1);
+    try {
+      assertThat(actual).iteratesAs(expected);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("@@ subject index 3997, expected index 3997 @@");
+      assertThat(e.getMessage()).contains("\n- 4000\n+ -1");
+    }
+  }
+
+  @Test public void snapshotOfNull() {
+    assert_().snapshotting().that((Iterable<?>) null).isNull();
   }
 
   /**
-   * This tests the rather unwieldly case where someone alters the
-   * collection out from under the Subject before inOrder() is called.
+   * The order of a containsAllOf() is established by the same traversal that checks the
+   * containment, so altering the collection before inOrder() is called has no effect.
    */
-  @Test public void iterableHasAllOfInOrderHackedWithNoItemsFailure() {
+  @Test public void iterableHasAllOfInOrderIgnoresLaterChanges() {
     ArrayList<Integer> list = new ArrayList<Integer>(asList(1, null, 3));
     Ordered o = assertThat((Iterable<Integer>) list).containsAllOf(1, null, 3);
     list.clear();
-    validateHackedFailure(o);
+    o.inOrder();
+  }
+
+  @Test public void containsOnlyElementsInOrderFailureDescribesDifferences() {
+    try {
+      assertThat(asList("a", "b", "c")).named("letters").containsOnlyElements("a", "c", "b")
+          .inOrder();
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that \"letters\" contains only these "
+          + "elements in order. It differs from them (- unexpected, + missing):\n"
+          + "@@ subject index 0, expected index 0 @@\n"
+          + "  a\n- b\n  c\n+ b");
+    }
   }
 
   /**
@@ -508,6 +1133,232 @@ public class IterableTest {
   }
 
   /** Factored out failure condition for "hacked" failures of inOrder() */
+  @Test public void allMatch() {
+    assertThat(asList(2, 4, 6)).allMatch(IS_EVEN);
+    assertThat(ImmutableList.<Integer>of()).allMatch(IS_EVEN);
+  }
+
+  @Test public void allMatchFailure() {
+    try {
+      assertThat(asList(2, 3, 4, 5)).allMatch(IS_EVEN);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that <[2, 3, 4, 5]> has only elements "
+          + "matching <is even>. It has 2 which do not, by index <{1=3, 3=5}>");
+    }
+  }
+
+  @Test public void allMatchFailureReportsFirstFew() {
+    CountingIterable items = new CountingIterable(100);
+    try {
+      assertThat(items).named("items").allMatch(IS_EVEN);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It has 50 which do not, by index "
+          + "<{1=1, 3=3, 5=5, 7=7, 9=9, 11=11, 13=13, 15=15, 17=17, 19=19}> and 40 more");
+    }
+    assertThat(items.read).isEqualTo(100);
+  }
+
+  @Test public void noneMatch() {
+    assertThat(asList(1, 3, null)).noneMatch(IS_EVEN);
+  }
+
+  @Test public void noneMatchFailure() {
+    try {
+      assertThat(asList(1, 2, 3)).noneMatch(IS_EVEN);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that <[1, 2, 3]> has no elements "
+          + "matching <is even>. It has 1 which do, by index <{1=2}>");
+    }
+  }
+
+  @Test public void anyMatchStopsAtFirstMatch() {
+    CountingIterable items = new CountingIterable(100);
+    assertThat(items).anyMatch(IS_EVEN);
+    assertThat(items.read).isEqualTo(1);
+  }
+
+  @Test public void anyMatchFailure() {
+    try {
+      assertThat(asList(1, 3)).anyMatch(IS_EVEN);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage())
+          .isEqualTo("Not true that <[1, 3]> has an element matching <is even>");
+    }
+  }
+
+  @Test public void containsNoDuplicates() {
+    assertThat(asList(1, null, 3)).containsNoDuplicates();
+    assertThat(asList()).containsNoDuplicates();
+    assertThat(new HashSet<Integer>(asList(1, 2, 3)) {
+      @Override public Iterator<Integer> iterator() {
+        throw new AssertionError("scanned");
+      }
+    }).containsNoDuplicates();
+  }
+
+  @Test public void containsNoDuplicatesInIdentitySetFailure() {
+    Set<String> set = Sets.newIdentityHashSet();
+    set.add(new String("a"));
+    set.add(new String("a"));
+    try {
+      assertThat(set).containsNoDuplicates();
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It has <[a [2 copies, at 0 and 1]]>");
+    }
+  }
+
+  @Test public void containsNoDuplicatesFailure() {
+    try {
+      assertThat(asList("a", "b", "a", "c", "b", "a")).containsNoDuplicates();
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that <[a, b, a, c, b, a]> contains no "
+          + "duplicates. It has <[a [3 copies, first at 0 and 2], b [2 copies, at 1 and 4]]>");
+    }
+  }
+
+  @Test public void containsNoDuplicatesStopsAtReportCap() {
+    try {
+      assertThat(Iterables.cycle(range(0, 20))).containsNoDuplicates();
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("contains no duplicates. Among its first 30 elements, "
+          + "it has <[0 [2 copies, at 0 and 20], 1 [2 copies, at 1 and 21], "
+          + "2 [2 copies, at 2 and 22], 3 [2 copies, at 3 and 23], 4 [2 copies, at 4 and 24], "
+          + "5 [2 copies, at 5 and 25], 6 [2 copies, at 6 and 26], 7 [2 copies, at 7 and 27], "
+          + "8 [2 copies, at 8 and 28], 9 [2 copies, at 9 and 29]]>");
+    }
+  }
+
+  @Test public void containsNoDuplicatesWithUnhashableElements() {
+    try {
+      assertThat(asList(new Unhashable("a"), new Unhashable("b"), new Unhashable("a")))
+          .containsNoDuplicates();
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It has <[a [2 copies, at 0 and 2]]>");
+    }
+  }
+
+  @Test public void containsNoDuplicatesComparingElementsUsing() {
+    try {
+      assertThat(ImmutableSet.of("a", "b", "A")).comparingElementsUsing(CASE_INSENSITIVE)
+          .containsNoDuplicates();
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It has <[a [2 copies, at 0 and 2]]>");
+    }
+  }
+
+  @Test public void containsNoDuplicatesProbably() {
+    assertThat(range(0, 100000)).containsNoDuplicatesProbably(0.01);
+  }
+
+  @Test public void containsNoDuplicatesProbablyDespiteFalsePositives() {
+    CountingIterable items = new CountingIterable(20000);
+    // A filter this inaccurate reports many distinct elements as possibly seen before.
+    assertThat(items).containsNoDuplicatesProbably(0.9);
+    assertThat(items.read).isEqualTo(60000);
+  }
+
+  @Test public void containsNoDuplicatesProbablyFailure() {
+    try {
+      assertThat(range(0, 100000, 70000, 3, 3)).containsNoDuplicatesProbably(0.01);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains no duplicates. "
+          + "It has <[70000 [2 copies], 3 [3 copies]]>");
+    }
+  }
+
+  @Test public void containsNoDuplicatesProbablyReportsFirstFew() {
+    List<Integer> twice = range(0, 20);
+    twice.addAll(range(0, 20));
+    try {
+      assertThat(twice).named("twice").containsNoDuplicatesProbably(0.01);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("8 [2 copies], 9 [2 copies]]> and 10 more");
+    }
+  }
+
+  @Test public void containsNoDuplicatesProbablyRejectsUnattainableFilter() {
+    Collection<Integer> huge = new AbstractCollection<Integer>() {
+      @Override public int size() {
+        return Integer.MAX_VALUE;
+      }
+
+      @Override public Iterator<Integer> iterator() {
+        throw new AssertionError("The filter should be rejected before iterating");
+      }
+    };
+    try {
+      assertThat(huge).containsNoDuplicatesProbably(0.001);
+      fail("Should have thrown.");
+    } catch (IllegalArgumentException expected) {
+      assertThat(expected.getMessage()).contains("more than the limit of 8388608");
+    }
+  }
+
+  @Test public void containsNoDuplicatesProbablyWithUnhashableElements() {
+    assertThat(asList(new Unhashable("a"), new Unhashable("b")))
+        .containsNoDuplicatesProbably(0.01);
+    try {
+      assertThat(asList(new Unhashable("a"), new Unhashable("b"), new Unhashable("a")))
+          .containsNoDuplicatesProbably(0.01);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It has <[a [2 copies]]>");
+    }
+  }
+
+  @Test public void containsNoDuplicatesProbablyComparingElementsUsing() {
+    try {
+      assertThat(asList("a", "b", "A")).comparingElementsUsing(CASE_INSENSITIVE)
+          .containsNoDuplicatesProbably(0.01);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It has <[a [2 copies]]>");
+    }
+  }
+
+  @Test public void hasApproximateDistinctCount() {
+    CountingIterable items = new CountingIterable(100000);
+    assertThat(items).hasApproximateDistinctCount(100000, 0.05);
+    assertThat(items.read).isEqualTo(100000);
+  }
+
+  @Test public void hasApproximateDistinctCountWithRepeats() {
+    List<Integer> items = range(0, 1000);
+    items.addAll(range(0, 1000));
+    items.addAll(range(500, 1500));
+    assertThat(items).hasApproximateDistinctCount(1500, 0.01);
+    assertThat(asList()).hasApproximateDistinctCount(0, 0.01);
+  }
+
+  @Test public void hasApproximateDistinctCountFailure() {
+    try {
+      assertThat(range(0, 100000)).hasApproximateDistinctCount(50000, 0.05);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).startsWith("Not true that the subject has approximately <50000> "
+          + "distinct elements, within a relative error of 0.05. It has an estimated <");
+    }
+  }
+
+  @Test public void hasApproximateDistinctCountTooPrecise() {
+    try {
+      assertThat(range(0, 10)).hasApproximateDistinctCount(10, 0.001);
+      fail("Should have thrown.");
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
   private void validateHackedFailure(Ordered ordered) {
     try {
       ordered.inOrder();
@@ -518,6 +1369,147 @@ public class IterableTest {
     }
   }
 
+  /** An iterable which can only be iterated once. */
+  private static final class OneShotIterable<T> implements Iterable<T> {
+    private Iterator<T> iterator;
+
+    OneShotIterable(T... items) {
+      this.iterator = Arrays.asList(items).iterator();
+    }
+
+    @Override public Iterator<T> iterator() {
+      if (iterator == null) {
+        throw new IllegalStateException("Already iterated");
+      }
+      Iterator<T> result = iterator;
+      iterator = null;
+      return result;
+    }
+
+    @Override public String toString() {
+      return "OneShotIterable";
+    }
+  }
+
+  /** An element whose {@code hashCode()} cannot be used. */
+  private static final class Unhashable {
+    private final String name;
+
+    Unhashable(String name) {
+      this.name = name;
+    }
+
+    @Override public boolean equals(Object other) {
+      return other instanceof Unhashable && ((Unhashable) other).name.equals(name);
+    }
+
+    @Override public int hashCode() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override public String toString() {
+      return name;
+    }
+  }
+
+  private static final Predicate<Integer> IS_EVEN = new Predicate<Integer>() {
+    @Override public boolean apply(Integer input) {
+      return input != null && input % 2 == 0;
+    }
+
+    @Override public String toString() {
+      return "is even";
+    }
+  };
+
+  private static final Equivalence<Object> CASE_INSENSITIVE = new Equivalence<Object>() {
+    @Override protected boolean doEquivalent(Object a, Object b) {
+      return a.toString().equalsIgnoreCase(b.toString());
+    }
+
+    @Override protected int doHash(Object o) {
+      return o.toString().toLowerCase().hashCode();
+    }
+  };
+
+  /** Returns a sorted set whose range views may be read, but which must not itself be scanned. */
+  private static TreeSet<Integer> unscannable(Integer... items) {
+    TreeSet<Integer> set = new TreeSet<Integer>() {
+      @Override public Iterator<Integer> iterator() {
+        throw new AssertionError("scanned");
+      }
+    };
+    set.addAll(asList(items));
+    return set;
+  }
+
+  /** An iterable of integers which counts how many of them have been read. */
+  private static final class CountingIterable implements Iterable<Integer> {
+    private final int size;
+    int read = 0;
+
+    CountingIterable(int size) {
+      this.size = size;
+    }
+
+    @Override public Iterator<Integer> iterator() {
+      return new AbstractIterator<Integer>() {
+        int next = 0;
+
+        @Override protected Integer computeNext() {
+          if (next == size) {
+            return endOfData();
+          }
+          read++;
+          return next++;
+        }
+      };
+    }
+  }
+
+  /** A comparable element which must never be hashed. */
+  private static final class Unhashed implements Comparable<Unhashed> {
+    private final int value;
+
+    Unhashed(int value) {
+      this.value = value;
+    }
+
+    @Override public int compareTo(Unhashed other) {
+      return value - other.value;
+    }
+
+    @Override public boolean equals(Object other) {
+      return other instanceof Unhashed && ((Unhashed) other).value == value;
+    }
+
+    @Override public int hashCode() {
+      throw new AssertionError("hashed " + value);
+    }
+  }
+
+  /** Returns {@code extra} followed by the integers from {@code from} until {@code to}. */
+  private static List<Integer> range(int from, int to, Integer... extra) {
+    List<Integer> range = new ArrayList<Integer>(Arrays.asList(extra));
+    for (int i = from; i < to; i++) {
+      range.add(i);
+    }
+    return range;
+  }
+
+  /**
+   * Returns an iterable whose every iterator is the same one, so that it is empty once it has been
+   * traversed.
+   */
+  private static <T> Iterable<T> singleUse(T... items) {
+    final Iterator<T> iterator = Arrays.asList(items).iterator();
+    return new Iterable<T>() {
+      @Override public Iterator<T> iterator() {
+        return iterator;
+      }
+    };
+  }
+
   /**
    * Helper that returns a general Collection rather than a List.
    * This ensures that we test CollectionSubject (rather than ListSubject).
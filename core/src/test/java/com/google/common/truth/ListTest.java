@@ -16,14 +16,23 @@
 package com.google.common.truth;
 
 import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assert_;
 import static org.junit.Assert.fail;
 
+import com.google.common.base.Equivalence;
+import com.google.common.base.Function;
+import com.google.common.collect.Lists;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
 
 /**
  * Tests for List Subjects.
@@ -73,6 +82,122 @@ public class ListTest {
     }
   }
 
+  @Test public void listContainsSequenceReportsLongestPartialMatch() {
+    try {
+      assertThat(Arrays.asList(1, 2, 4, 1, 2, 3, 5)).containsSequence(Arrays.asList(1, 2, 3, 4));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that <[1, 2, 4, 1, 2, 3, 5]> contains "
+          + "sequence <[1, 2, 3, 4]>. Its longest partial match was <[1, 2, 3]>, "
+          + "beginning at index 3");
+    }
+  }
+
+  @Test public void listContainsSequenceWithNoPartialMatch() {
+    try {
+      assertThat(Arrays.asList(1, 2, 3)).containsSequence(Arrays.asList(4, 5));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage())
+          .isEqualTo("Not true that <[1, 2, 3]> contains sequence <[4, 5]>");
+    }
+  }
+
+  @Test public void listContainsSequenceWithNulls() {
+    assertThat(Arrays.asList(1, null, null, 2)).containsSequence(Arrays.asList(null, 2));
+  }
+
+  @Test public void linkedListContainsSequenceOfRepeatedElements() {
+    // Many near-misses, which cost O(n*m) when each is retried from its start.
+    List<Integer> list = new LinkedList<Integer>(Collections.nCopies(100000, 0));
+    list.add(1);
+    List<Integer> sequence = new ArrayList<Integer>(Collections.nCopies(5000, 0));
+    sequence.add(1);
+    assertThat(list).containsSequence(sequence);
+    assertThat(list).doesNotContainSequence(Arrays.asList(1, 0));
+  }
+
+  @Test public void listContainsSequenceAt() {
+    assertThat(Arrays.asList(1, 2, 3)).containsSequenceAt(Arrays.asList(2, 3), 1);
+    assertThat(Arrays.asList(1, 2, 3)).containsSequenceAt(Arrays.<Integer>asList(), 3);
+  }
+
+  @Test public void listContainsSequenceAtFailure() {
+    try {
+      assertThat(Arrays.asList(1, 2, 3)).containsSequenceAt(Arrays.asList(1, 2), 1);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that <[1, 2, 3]> contains sequence "
+          + "<[1, 2]> at index 1. It has <[2, 3]> there");
+    }
+  }
+
+  @Test public void listContainsSequenceAtPastEndFailure() {
+    try {
+      assertThat(Arrays.asList(1, 2, 3)).containsSequenceAt(Arrays.asList(3, 4), 2);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("It has <[3]> there");
+    }
+    try {
+      assertThat(Arrays.asList(1, 2, 3)).containsSequenceAt(Arrays.asList(3), 5);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that <[1, 2, 3]> contains sequence <[3]> "
+          + "at index 5. It has only 3 elements");
+    }
+  }
+
+  @Test public void listContainsEmptySequencePastEndFailure() {
+    try {
+      assertThat(Arrays.asList(1, 2)).containsSequenceAt(Arrays.<Integer>asList(), 10);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that <[1, 2]> contains sequence <[]> "
+          + "at index 10. It has only 2 elements");
+    }
+  }
+
+  @Test public void listContainsSequenceAtNegativeIndex() {
+    try {
+      assertThat(Arrays.asList(1, 2, 3)).containsSequenceAt(Arrays.asList(1), -1);
+      fail("Should have thrown.");
+    } catch (IllegalArgumentException expected) {}
+  }
+
+  @Test public void listDoesNotContainSequence() {
+    assertThat(Arrays.asList(1, 2, 2, 3)).doesNotContainSequence(Arrays.asList(1, 2, 3));
+    assertThat(Arrays.asList(1, 2)).doesNotContainSequence(Arrays.asList(1, 2, 3));
+  }
+
+  @Test public void listDoesNotContainSequenceFailure() {
+    try {
+      assertThat(Arrays.asList(1, 2, 1, 2, 3)).doesNotContainSequence(Arrays.asList(1, 2, 3));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that <[1, 2, 1, 2, 3]> does not contain "
+          + "sequence <[1, 2, 3]>. It was found at index 2");
+    }
+  }
+
+  @Test public void listContainsSequenceComparingElementsUsingEquivalence() {
+    Equivalence<Object> parity = new Equivalence<Object>() {
+      @Override protected boolean doEquivalent(Object a, Object b) {
+        return (Integer) a % 2 == (Integer) b % 2;
+      }
+
+      @Override protected int doHash(Object o) {
+        return (Integer) o % 2;
+      }
+    };
+    assertThat(Arrays.asList(2, 4, 6, 7)).comparingElementsUsing(parity)
+        .containsSequence(Arrays.asList(0, 1));
+    assertThat(Arrays.asList(2, 4, 6, 7)).comparingElementsUsing(parity)
+        .containsSequenceAt(Arrays.asList(8, 9), 2);
+    assertThat(Arrays.asList(2, 4, 6, 7)).comparingElementsUsing(parity)
+        .doesNotContainSequence(Arrays.asList(1, 0));
+  }
+
   @Test public void listIsOrdered() {
     assertThat(Arrays.<Integer>asList()).isOrdered();
     assertThat(Arrays.asList(1)).isOrdered();
@@ -85,7 +210,7 @@ public class ListTest {
       fail("Should have thrown.");
     } catch (AssertionError e) {
       assertThat(e.getMessage()).contains("is strictly ordered");
-      assertThat(e.getMessage()).contains("<2> <2>");
+      assertThat(e.getMessage()).contains("<2> followed by <2> at index 2");
     }
   }
 
@@ -108,7 +233,7 @@ public class ListTest {
       fail("Should have thrown.");
     } catch (AssertionError e) {
       assertThat(e.getMessage()).contains("is partially ordered");
-      assertThat(e.getMessage()).contains("<3> <2>");
+      assertThat(e.getMessage()).contains("<3> followed by <2> at index 2");
     }
   }
 
@@ -132,7 +257,7 @@ public class ListTest {
       fail("Should have thrown.");
     } catch (AssertionError e) {
       assertThat(e.getMessage()).contains("is strictly ordered");
-      assertThat(e.getMessage()).contains("<2> <2>");
+      assertThat(e.getMessage()).contains("<2> followed by <2> at index 2");
     }
   }
 
@@ -149,8 +274,132 @@ public class ListTest {
       fail("Should have thrown.");
     } catch (AssertionError e) {
       assertThat(e.getMessage()).contains("is partially ordered");
-      assertThat(e.getMessage()).contains("<10> <2>");
+      assertThat(e.getMessage()).contains("<10> followed by <2> at index 2");
+    }
+  }
+
+  @Test public void isOrderedInParallel() {
+    assert_().inParallel().that(range(0, 200000)).isOrdered();
+    assert_().inParallel().that(range(0, 200000)).isPartiallyOrdered();
+  }
+
+  @Test public void isOrderedInParallelReportsFirstViolation() {
+    List<Integer> list = range(0, 200000);
+    List<Integer> chunkEnds = chunkEnds(list.size());
+    // Break the order at the last element of every chunk.
+    for (int end : chunkEnds) {
+      list.set(end - 1, -end);
+    }
+    try {
+      assert_().inParallel().that(list).isOrdered();
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      int end = chunkEnds.get(0);
+      assertThat(e.getMessage()).contains("is strictly ordered");
+      assertThat(e.getMessage()).contains(
+          "<" + (end - 2) + "> followed by <" + (-end) + "> at index " + (end - 1));
+    }
+  }
+
+  @Test public void isPartiallyOrderedInParallelAcrossChunkBoundary() {
+    List<Integer> list = range(0, 200000);
+    List<Integer> chunkEnds = chunkEnds(list.size());
+    // The violating pair straddles the last two chunks, if there is more than one.
+    int boundary = (chunkEnds.size() > 1) ? chunkEnds.get(chunkEnds.size() - 2) : 1;
+    list.set(boundary, -1);
+    try {
+      assert_().inParallel().that(list).isPartiallyOrdered();
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("is partially ordered");
+      assertThat(e.getMessage())
+          .contains("<" + (boundary - 1) + "> followed by <-1> at index " + boundary);
+    }
+  }
+
+  @Test public void isOrderedOnLinkedListReportsIndex() {
+    List<Integer> list = new LinkedList<Integer>(range(0, 100000));
+    list.set(70000, 0);
+    try {
+      assertThat(list).isOrdered();
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It has <69999> followed by <0> at index 70000");
+    }
+  }
+
+  @Test public void isOrderedReadsEachElementOnce() {
+    final int[] reads = {0};
+    List<Integer> list = Lists.transform(range(0, 1000), new Function<Integer, Integer>() {
+      @Override public Integer apply(Integer input) {
+        reads[0]++;
+        return input;
+      }
+    });
+    assertThat(list).isOrdered();
+    assertThat(reads[0]).isEqualTo(1000);
+  }
+
+  @Test public void isOrderedReportingAllViolations() {
+    try {
+      assertThat(Arrays.asList(1, 0, 2, 2, 3, 1, 4, 3)).reportingAllViolations(2).isOrdered();
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that <[1, 0, 2, 2, 3, 1, 4, 3]> is strictly "
+          + "ordered. It has 4 out-of-order pairs: <1> followed by <0> at index 1, "
+          + "<2> followed by <2> at index 3 and 2 more");
+    }
+  }
+
+  @Test public void isPartiallyOrderedReportingAllViolations() {
+    try {
+      assertThat(Arrays.asList("1", "10", "2", "20", "3"))
+          .reportingAllViolations(5)
+          .isPartiallyOrdered(COMPARE_AS_DECIMAL);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It has 2 out-of-order pairs: "
+          + "<10> followed by <2> at index 2, <20> followed by <3> at index 4");
+    }
+  }
+
+  @Test public void isOrderedInParallelReportingAllViolations() {
+    List<Integer> list = range(0, 200000);
+    List<Integer> chunkEnds = chunkEnds(list.size());
+    for (int end : chunkEnds) {
+      list.set(end - 1, -end);
+    }
+    try {
+      assert_().inParallel().that(list).reportingAllViolations(1).isOrdered();
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      int end = chunkEnds.get(0);
+      assertThat(e.getMessage()).contains("It has " + chunkEnds.size() + " out-of-order pairs: <"
+          + (end - 2) + "> followed by <" + (-end) + "> at index " + (end - 1));
+    }
+  }
+
+  @Test public void reportingAllViolationsRequiresPositiveMax() {
+    try {
+      assertThat(Arrays.asList(1)).reportingAllViolations(0);
+      fail("Should have thrown.");
+    } catch (IllegalArgumentException expected) {}
+  }
+
+  private static List<Integer> chunkEnds(int size) {
+    return Platform.evaluateInChunks(size, true, new IndexRangeTask<Integer>() {
+      @Override public Integer evaluate(int from, int to) {
+        return to;
+      }
+    });
+  }
+
+  private static List<Integer> range(int from, int to) {
+    List<Integer> list = new ArrayList<Integer>(to - from);
+    for (int i = from; i < to; i++) {
+      list.add(i);
     }
+    return list;
   }
 
   private static final Comparator<String> COMPARE_AS_DECIMAL = new Comparator<String>() {
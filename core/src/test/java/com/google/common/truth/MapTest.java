@@ -18,6 +18,7 @@ package com.google.common.truth;
 import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.fail;
 
+import com.google.common.base.Equivalence;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 
@@ -263,6 +264,117 @@ public class MapTest {
     }
   }
 
+  @Test public void containsExactlyEntriesIn() {
+    assertThat(ImmutableMap.of("a", 1, "b", 2))
+        .containsExactlyEntriesIn(ImmutableMap.of("b", 2, "a", 1));
+  }
+
+  @Test public void containsExactlyEntriesInFailure() {
+    try {
+      assertThat(ImmutableMap.of("a", 1, "b", 2, "x", 9))
+          .containsExactlyEntriesIn(ImmutableMap.of("a", 1, "b", 3, "c", 4));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains exactly the "
+          + "expected entries. It is missing the entries <{c=4}>. "
+          + "It has the unexpected entries <{x=9}>. "
+          + "It has different values for the keys <{b=2 (expected 3)}>");
+    }
+  }
+
+  @Test public void containsExactlyEntriesInLargerExpected() {
+    try {
+      assertThat(ImmutableMap.of("a", 1))
+          .named("scores")
+          .containsExactlyEntriesIn(ImmutableMap.of("a", 1, "b", 2, "c", 3));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that \"scores\" contains exactly the "
+          + "expected entries. It is missing the entries <{b=2, c=3}>");
+    }
+  }
+
+  @Test public void containsExactlyEntriesInCapsExamples() {
+    Map<Integer, Integer> actual = Maps.newLinkedHashMap();
+    Map<Integer, Integer> expected = Maps.newLinkedHashMap();
+    for (int i = 0; i < 100000; i++) {
+      actual.put(i, i);
+      expected.put(i + 50, i + 50);
+    }
+    try {
+      assertThat(actual).containsExactlyEntriesIn(expected);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains exactly the "
+          + "expected entries. It is missing the entries <{100000=100000, 100001=100001, "
+          + "100002=100002, 100003=100003, 100004=100004, 100005=100005, 100006=100006, "
+          + "100007=100007, 100008=100008, 100009=100009}> and 40 more. "
+          + "It has the unexpected entries <{0=0, 1=1, 2=2, 3=3, 4=4, 5=5, 6=6, 7=7, 8=8, 9=9}> "
+          + "and 40 more");
+    }
+  }
+
+  @Test public void containsExactlyEntriesInNullValues() {
+    Map<String, Integer> actual = Maps.newHashMap();
+    actual.put("a", null);
+    assertThat(actual).containsExactlyEntriesIn(actual);
+    try {
+      assertThat(actual).containsExactlyEntriesIn(map(String.class, Integer.class, "b", null));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains exactly the "
+          + "expected entries. It is missing the entries <{b=null}>. "
+          + "It has the unexpected entries <{a=null}>");
+    }
+  }
+
+  @Test public void containsAllEntriesIn() {
+    assertThat(ImmutableMap.of("a", 1, "b", 2)).containsAllEntriesIn(ImmutableMap.of("b", 2));
+  }
+
+  @Test public void containsAllEntriesInFailure() {
+    try {
+      assertThat(ImmutableMap.of("a", 1, "b", 2))
+          .containsAllEntriesIn(ImmutableMap.of("a", 2, "c", 3));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains all of the "
+          + "expected entries. It is missing the entries <{c=3}>. "
+          + "It has different values for the keys <{a=1 (expected 2)}>");
+    }
+  }
+
+  @Test public void comparingValuesUsing() {
+    assertThat(ImmutableMap.of("a", "Hello"))
+        .comparingValuesUsing(CASE_INSENSITIVE)
+        .containsExactlyEntriesIn(ImmutableMap.of("a", "HELLO"));
+  }
+
+  @Test public void comparingValuesWithin() {
+    assertThat(ImmutableMap.of("a", 1.0, "b", 2.0))
+        .comparingValuesWithin(0.01)
+        .containsExactlyEntriesIn(ImmutableMap.of("a", 1.005, "b", 1.999));
+    try {
+      assertThat(ImmutableMap.of("a", 1.0))
+          .comparingValuesWithin(0.01)
+          .containsAllEntriesIn(ImmutableMap.of("a", 1.1));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It has different values for the keys "
+          + "<{a=1.0 (expected 1.1)}>");
+    }
+  }
+
+  private static final Equivalence<Object> CASE_INSENSITIVE = new Equivalence<Object>() {
+    @Override protected boolean doEquivalent(Object a, Object b) {
+      return a.toString().equalsIgnoreCase(b.toString());
+    }
+
+    @Override protected int doHash(Object o) {
+      return o.toString().toLowerCase().hashCode();
+    }
+  };
+
   @SuppressWarnings("unchecked") // Want this to blow up if wrong.
   public static <K, V> Map<K, V> map(Class<K> keyClass, Class<V> valueClass, Object ... keyval) {
     Map<K, V> map = Maps.newHashMap();
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Multimap;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for {@link Multimap} subjects.
+ */
+@RunWith(JUnit4.class)
+public class MultimapTest {
+  @Test public void basicPropositions() {
+    Multimap<String, Integer> multimap = ImmutableListMultimap.of("a", 1, "a", 2, "b", 3);
+    assertThat(multimap).isNotEmpty();
+    assertThat(multimap).hasSize(3);
+    assertThat(multimap).containsKey("a");
+    assertThat(multimap).doesNotContainKey("c");
+    assertThat(multimap).containsEntry("a", 2);
+    assertThat(multimap).doesNotContainEntry("b", 2);
+    assertThat(ImmutableListMultimap.of()).isEmpty();
+  }
+
+  @Test public void containsEntryFailure() {
+    try {
+      assertThat(ImmutableListMultimap.of("a", 1)).containsEntry("a", 2);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that <{a=[1]}> contains entry <a> <2>");
+    }
+  }
+
+  @Test public void containsExactlyEntriesInIgnoresValueOrder() {
+    assertThat(ImmutableListMultimap.of("a", 1, "a", 2, "b", 3))
+        .containsExactlyEntriesIn(ImmutableSetMultimap.of("b", 3, "a", 2, "a", 1));
+  }
+
+  @Test public void containsExactlyEntriesInFailure() {
+    try {
+      assertThat(ImmutableListMultimap.of("a", 1, "a", 2, "b", 3, "x", 9))
+          .containsExactlyEntriesIn(ImmutableListMultimap.of("a", 1, "a", 4, "b", 3, "c", 5));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains exactly the "
+          + "expected entries. It is missing the keys <{c=[5]}>. "
+          + "It has the unexpected keys <{x=[9]}>. "
+          + "It has different values for the keys <{a=(missing [4], unexpected [2])}>");
+    }
+  }
+
+  @Test public void containsExactlyEntriesInCapsExamples() {
+    Multimap<Integer, Integer> actual = LinkedHashMultimap.create();
+    Multimap<Integer, Integer> expected = LinkedHashMultimap.create();
+    for (int i = 0; i < 100000; i++) {
+      actual.put(i, i);
+      expected.put(i, i);
+    }
+    for (int i = 0; i < 15; i++) {
+      expected.put(-i - 1, 0);
+    }
+    try {
+      assertThat(actual).named("index").containsExactlyEntriesIn(expected);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that \"index\" contains exactly the "
+          + "expected entries. It is missing the keys <{-1=[0], -2=[0], -3=[0], -4=[0], -5=[0], "
+          + "-6=[0], -7=[0], -8=[0], -9=[0], -10=[0]}> and 5 more");
+    }
+  }
+
+  @Test public void containsAllEntriesIn() {
+    assertThat(ImmutableListMultimap.of("a", 1, "a", 2, "b", 3))
+        .containsAllEntriesIn(ImmutableListMultimap.of("a", 2));
+  }
+
+  @Test public void containsAllEntriesInFailure() {
+    try {
+      assertThat(ImmutableListMultimap.of("a", 1, "a", 2))
+          .containsAllEntriesIn(ImmutableListMultimap.of("a", 2, "a", 2, "b", 3));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains all of the "
+          + "expected entries. It is missing the keys <{b=[3]}>. "
+          + "It has different values for the keys <{a=(missing [2])}>");
+    }
+  }
+}
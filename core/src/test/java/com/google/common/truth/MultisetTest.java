@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.LinkedHashMultiset;
+import com.google.common.collect.Multiset;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for {@link Multiset} subjects.
+ */
+@RunWith(JUnit4.class)
+public class MultisetTest {
+  @Test public void hasCount() {
+    assertThat(ImmutableMultiset.of("a", "a", "b")).hasCount("a", 2);
+    assertThat(ImmutableMultiset.of("a", "a", "b")).hasCount("c", 0);
+  }
+
+  @Test public void hasCountFailure() {
+    try {
+      assertThat(ImmutableMultiset.of("a", "a", "b")).hasCount("a", 3);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that <[a x 2, b]> has 3 occurrences of <a>. "
+          + "It has 2");
+    }
+  }
+
+  @Test public void iterablePropositionsStillApply() {
+    assertThat(ImmutableMultiset.of("a", "a", "b")).containsAllOf("a", "b");
+  }
+
+  @Test public void containsExactlyCountsIn() {
+    assertThat(ImmutableMultiset.of("a", "a", "b"))
+        .containsExactlyCountsIn(HashMultiset.create(ImmutableMultiset.of("b", "a", "a")));
+  }
+
+  @Test public void containsExactlyCountsInFailure() {
+    try {
+      assertThat(ImmutableMultiset.of("a", "a", "b", "x"))
+          .containsExactlyCountsIn(ImmutableMultiset.of("a", "b", "b", "b", "c"));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains exactly the "
+          + "expected counts. It is missing the elements <{c=1}>. "
+          + "It has the unexpected elements <{x=1}>. "
+          + "It has different counts of the elements <{a=2 (expected 1), b=1 (expected 3)}>");
+    }
+  }
+
+  @Test public void containsExactlyCountsInCapsExamples() {
+    Multiset<Integer> actual = LinkedHashMultiset.create();
+    for (int i = 0; i < 100000; i++) {
+      actual.add(i, 2);
+    }
+    Multiset<Integer> expected = LinkedHashMultiset.create(actual);
+    for (int i = 0; i < 30; i++) {
+      expected.add(i * 1000);
+    }
+    try {
+      assertThat(actual).containsExactlyCountsIn(expected);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains exactly the "
+          + "expected counts. It has different counts of the elements <{0=2 (expected 3), "
+          + "1000=2 (expected 3), 2000=2 (expected 3), 3000=2 (expected 3), "
+          + "4000=2 (expected 3), 5000=2 (expected 3), 6000=2 (expected 3), "
+          + "7000=2 (expected 3), 8000=2 (expected 3), 9000=2 (expected 3)}> and 20 more");
+    }
+  }
+
+  @Test public void containsAtLeastCountsIn() {
+    assertThat(ImmutableMultiset.of("a", "a", "b", "c"))
+        .containsAtLeastCountsIn(ImmutableMultiset.of("a", "a", "b"));
+  }
+
+  @Test public void containsAtLeastCountsInFailure() {
+    try {
+      assertThat(ImmutableMultiset.of("a", "b"))
+          .containsAtLeastCountsIn(ImmutableMultiset.of("a", "a", "b", "c"));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains at least the "
+          + "expected counts. It is missing the elements <{c=1}>. "
+          + "It has too few of the elements <{a=1 (expected at least 2)}>");
+    }
+  }
+}
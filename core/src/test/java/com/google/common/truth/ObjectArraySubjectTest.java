@@ -47,13 +47,27 @@ public class ObjectArraySubjectTest {
     assertThat(objectArray("A", 5L)).asList().has().anyOf("A");
   }
 
+  @Test public void asListIteratesAsFailure() {
+    try {
+      assertThat(objectArray("A", 5L, 6L)).asList().iteratesAs("A", 6L);
+      throw new Error("Expected to throw.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).is("Not true that the subject iterates through the expected "
+          + "elements. It differs from them (- unexpected, + missing):\n"
+          + "@@ subject index 0, expected index 0 @@\n"
+          + "  A\n- 5\n  6");
+    }
+  }
+
   @Test public void isEqualTo_Fail_UnequalOrdering() {
     try {
       assertThat(objectArray("A", 5L)).isEqualTo(objectArray(5L, "A"));
       throw new Error("Expected to throw.");
     } catch (AssertionError e) {
       assertThat(e.getMessage())
-          .is("Not true that <(Object[]) [A, 5]> is equal to <[5, A]>");
+          .is("Not true that the subject is equal to the expected Object[]. It differs at "
+              + "index 0. From index 0, it has <[A, 5]>, and the expected array has <[5, A]>. "
+              + "Both have length 2");
     }
   }
 
@@ -111,13 +125,24 @@ public class ObjectArraySubjectTest {
     assertThat(objectArray("A", "B")).asList().has().anyOf("A");
   }
 
+  @Test public void isEqualTo_NullElements() {
+    assertThat(objectArray("A", null)).isEqualTo(objectArray("A", null));
+    try {
+      assertThat(objectArray("A", null)).isEqualTo(objectArray("A", "B"));
+      throw new Error("Expected to throw.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("It differs at index 1. From index 0, it has "
+          + "<[A, null]>, and the expected array has <[A, B]>");
+    }
+  }
+
   @Test public void stringArrayIsEqualTo_Fail_UnequalOrdering() {
     try {
       assertThat(objectArray("A", "B")).isEqualTo(objectArray("B", "A"));
       throw new Error("Expected to throw.");
     } catch (AssertionError e) {
       assertThat(e.getMessage())
-          .is("Not true that <(String[]) [A, B]> is equal to <[B, A]>");
+          .startsWith("Not true that the subject is equal to the expected String[]. ");
     }
   }
 
@@ -132,9 +157,9 @@ public class ObjectArraySubjectTest {
       throw new Error("Expected to throw.");
     } catch (AssertionError e) {
       assertThat(e.getMessage())
-          .is("Not true that <(Set[]) [[A], [B]]> is equal to <[[B], [A]]>");
+          .startsWith("Not true that the subject is equal to the expected Set[]. ");
           // Maybe one day:
-          // .is("Not true that <(Set<String>[]) [[A], [B]]> is equal to <[[B], [A]]>");
+          // .startsWith("Not true that the subject is equal to the expected Set<String>[]. ");
     }
   }
 
@@ -27,6 +27,7 @@ import org.junit.runners.JUnit4;
 import java.net.CookieStore;
 import java.util.AbstractCollection;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
@@ -118,4 +119,45 @@ public class PlatformTest {
     assertThat(Platform.compressType(int.class.toString())).isEqualTo("int");
   }
 
+  // Chunked evaluation.
+
+  @Test public void evaluateInChunks_Sequential() {
+    assertThat(Platform.evaluateInChunks(100000, false, RANGE)).isEqualTo(Arrays.asList("0-100000"));
+  }
+
+  @Test public void evaluateInChunks_SmallSubjectIsNotSplit() {
+    assertThat(Platform.evaluateInChunks(10, true, RANGE)).isEqualTo(Arrays.asList("0-10"));
+  }
+
+  @Test public void evaluateInChunks_ChunksAreContiguousAndInOrder() {
+    int size = 1000003;
+    int expectedFrom = 0;
+    for (String range : Platform.evaluateInChunks(size, true, RANGE)) {
+      String[] bounds = range.split("-");
+      assertThat(Integer.parseInt(bounds[0])).isEqualTo(expectedFrom);
+      expectedFrom = Integer.parseInt(bounds[1]);
+      assertThat(expectedFrom).isGreaterThan(Integer.parseInt(bounds[0]));
+    }
+    assertThat(expectedFrom).isEqualTo(size);
+  }
+
+  @Test public void evaluateInChunks_PropagatesExceptions() {
+    try {
+      Platform.evaluateInChunks(1000000, true, new IndexRangeTask<Void>() {
+        @Override public Void evaluate(int from, int to) {
+          throw new IllegalStateException("from " + from);
+        }
+      });
+      assert_().fail("Should have thrown.");
+    } catch (IllegalStateException expected) {
+      assertThat(expected.getMessage()).startsWith("from ");
+    }
+  }
+
+  private static final IndexRangeTask<String> RANGE = new IndexRangeTask<String>() {
+    @Override public String evaluate(int from, int to) {
+      return from + "-" + to;
+    }
+  };
+
 }
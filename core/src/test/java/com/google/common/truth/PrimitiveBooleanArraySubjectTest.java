@@ -16,6 +16,7 @@
 package com.google.common.truth;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
 
 import com.google.common.truth.PrimitiveBooleanArraySubject;
 
@@ -50,7 +51,9 @@ public class PrimitiveBooleanArraySubjectTest {
       throw new Error("Expected to throw.");
     } catch (AssertionError e) {
       assertThat(e.getMessage()).is(
-          "Not true that <(boolean[]) [true, false, true]> is equal to <[false, true, true]>");
+          "Not true that the subject is equal to the expected boolean[]. "
+          + "It differs at index 0. From index 0, it has <[true, false, true]>, and the expected "
+          + "array has <[false, true, true]>. Both have length 3");
     }
   }
 
@@ -97,6 +100,31 @@ public class PrimitiveBooleanArraySubjectTest {
     }
   }
 
+  @Test public void contains() {
+    assertThat(array(true, true)).contains(true);
+    assertThat(array(true, true)).doesNotContain(false);
+  }
+
+  @Test public void containsExactlyFailure() {
+    try {
+      assertThat(array(true, false, true)).containsExactly(false, false, true);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains exactly the "
+          + "expected elements. It is missing <[false]>. It has unexpected <[true]>");
+    }
+  }
+
+  @Test public void isSorted() {
+    assertThat(array(false, true, true)).isSorted();
+    try {
+      assertThat(array(false, true, true)).isStrictlySorted();
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It has <true> followed by <true> at index 2");
+    }
+  }
+
   private static boolean[] array(boolean... ts) {
     return ts;
   }
@@ -16,6 +16,7 @@
 package com.google.common.truth;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
 
 import com.google.common.truth.PrimitiveByteArraySubject;
 
@@ -53,7 +54,9 @@ public class PrimitiveByteArraySubjectTest {
       assertThat(array(BYTE_0, BYTE_1)).isEqualTo(array(BYTE_1, BYTE_0));
       throw new Error("Expected to throw.");
     } catch (AssertionError e) {
-      assertThat(e.getMessage()).is("Not true that <(byte[]) [0, 1]> is equal to <[1, 0]>");
+      assertThat(e.getMessage()).is("Not true that the subject is equal to the expected byte[]. "
+          + "It differs at index 0. From index 0, it has <[0, 1]>, and the expected array has "
+          + "<[1, 0]>. Both have length 2");
     }
   }
 
@@ -100,6 +103,20 @@ public class PrimitiveByteArraySubjectTest {
     }
   }
 
+  @Test public void containsExactlyFailure() {
+    try {
+      assertThat(array(BYTE_0, BYTE_1)).containsExactly(BYTE_1, BYTE_2, (byte) -1);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains exactly the "
+          + "expected elements. It is missing <[-1, 2]>. It has unexpected <[0]>");
+    }
+  }
+
+  @Test public void containsNoneOf() {
+    assertThat(array(BYTE_0, BYTE_1)).containsNoneOf(BYTE_2, (byte) -1);
+  }
+
   private static byte[] array(byte... ts) {
     return ts;
   }
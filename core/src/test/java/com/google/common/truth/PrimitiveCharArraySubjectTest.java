@@ -16,6 +16,7 @@
 package com.google.common.truth;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
 
 import com.google.common.truth.PrimitiveCharArraySubject;
 
@@ -49,7 +50,9 @@ public class PrimitiveCharArraySubjectTest {
       assertThat(array('a', 'q')).isEqualTo(array('q', 'a'));
       throw new Error("Expected to throw.");
     } catch (AssertionError e) {
-      assertThat(e.getMessage()).is("Not true that <(char[]) [a, q]> is equal to <[q, a]>");
+      assertThat(e.getMessage()).is("Not true that the subject is equal to the expected char[]. "
+          + "It differs at index 0. From index 0, it has <[a, q]>, and the expected array has "
+          + "<[q, a]>. Both have length 2");
     }
   }
 
@@ -96,6 +99,25 @@ public class PrimitiveCharArraySubjectTest {
     }
   }
 
+  @Test public void containsExactly() {
+    assertThat(array('a', 'b', 'a')).containsExactly('a', 'a', 'b');
+  }
+
+  @Test public void containsAllOfFailure() {
+    try {
+      assertThat(array('a', 'b')).containsAllOf('b', 'c');
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains all of the "
+          + "expected elements. It is missing <[c]>");
+    }
+  }
+
+  @Test public void isSorted() {
+    assertThat(array('a', 'b', 'b', '\uffff')).isSorted();
+    assertThat(array('z', 'a')).isSortedDescending();
+  }
+
   private static char[] array(char... ts) {
     return ts;
   }
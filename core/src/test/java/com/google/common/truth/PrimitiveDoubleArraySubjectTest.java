@@ -49,7 +49,10 @@ public class PrimitiveDoubleArraySubjectTest {
       assertThat(array(2.2d, 3.3d)).isEqualTo(array(3.3d, 2.2d), DEFAULT_TOLERANCE);
       throw new Error("Expected to throw.");
     } catch (AssertionError e) {
-      assertThat(e.getMessage()).is("Not true that <(double[]) [2.2, 3.3]> is equal to <[3.3, 2.2]>");
+      assertThat(e.getMessage()).is("Not true that the subject is equal to the expected array "
+          + "within a tolerance of 4.999999873689376E-6. It differs at 2 of 2 indices <[0, 1]>. "
+          + "The largest absolute error is 1.0999999999999996, at index 0, and the largest "
+          + "relative error is 0.4999999999999998, at index 1");
     }
   }
 
@@ -104,6 +107,103 @@ public class PrimitiveDoubleArraySubjectTest {
     }
   }
 
+  @Test public void isSorted() {
+    assertThat(array(Double.NEGATIVE_INFINITY, -1.5, -0.0, 0.0, 1.0, Double.NaN))
+        .isStrictlySorted();
+    assertThat(array(Double.NaN, Double.NaN, 2.0)).isSortedDescending();
+  }
+
+  @Test public void isSortedFailure() {
+    try {
+      assertThat(array(-1.0, 0.0, -0.0)).isSorted();
+      throw new Error("Expected to throw.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo(
+          "Not true that the subject is sorted. It has <0.0> followed by <-0.0> at index 2");
+    }
+  }
+
+  @Test public void isEqualTo_Fail_ReportsMismatches() {
+    double[] actual = new double[1000];
+    double[] expected = new double[1000];
+    for (int i = 0; i < actual.length; i++) {
+      actual[i] = i;
+      expected[i] = (i % 50 == 7) ? i + 0.5 : i + 0.01;
+    }
+    expected[500] = 0;
+    actual[900] = Double.NaN;
+    try {
+      assertThat(actual).named("outputs").isEqualTo(expected, 0.1);
+      throw new Error("Expected to throw.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).is("Not true that \"outputs\" is equal to the expected array "
+          + "within a tolerance of 0.1. It differs at 22 of 1000 indices "
+          + "<[7, 57, 107, 157, 207, 257, 307, 357, 407, 457]> and 12 more. "
+          + "The largest absolute error is 500.0, at index 500, and the largest relative error "
+          + "is Infinity, at index 500");
+    }
+  }
+
+  @Test public void isEqualTo_Fail_DifferentLengths() {
+    try {
+      assertThat(array(1.0, 2.0)).isEqualTo(array(1.0), DEFAULT_TOLERANCE);
+      throw new Error("Expected to throw.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith(
+          "It has length 2, but the expected array has length 1");
+    }
+  }
+
+  @Test public void isNotEqualTo_StopsAtFirstMismatch() {
+    double[] actual = new double[1000001];
+    double[] expected = new double[actual.length];
+    expected[3] = 1;
+    assertThat(actual).isNotEqualTo(expected, DEFAULT_TOLERANCE);
+    expected[3] = 0;
+    expected[actual.length - 1] = 1;
+    assertThat(actual).isNotEqualTo(expected, DEFAULT_TOLERANCE);
+  }
+
+  @Test public void usingTolerance() {
+    assertThat(array(1.0, Double.NaN))
+        .usingTolerance(Tolerance.ulps(1).withNaNsEqual())
+        .isEqualTo(array(Math.nextUp(1.0), Double.NaN));
+    assertThat(array(1.0, 1e20))
+        .usingTolerance(Tolerance.relative(1e-9))
+        .isNotEqualTo(array(1.0, 1.1e20));
+  }
+
+  @Test public void usingTolerance_Fail() {
+    try {
+      assertThat(array(1.0, 2.0, 3.0))
+          .usingTolerance(Tolerance.ulps(1))
+          .isEqualTo(array(1.0, 2.0, Math.nextUp(Math.nextUp(3.0))));
+      throw new Error("Expected to throw.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).startsWith(
+          "Not true that the subject is equal to the expected array within 1 ULPs. "
+          + "It differs at 1 of 3 indices <[2]>");
+    }
+  }
+
+  @Test public void usingTolerance_NotEqualFail() {
+    try {
+      assertThat(array(0.0, Double.NaN))
+          .usingTolerance(Tolerance.absolute(0.5).withNaNsEqual())
+          .isNotEqualTo(array(-0.25, Double.NaN));
+      throw new Error("Expected to throw.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("unexpectedly equal to");
+    }
+  }
+
+  @Test public void isEqualTo_NoTolerance() {
+    try {
+      assertThat(array(1.0)).isEqualTo(array(1.0));
+      throw new Error("Expected to throw.");
+    } catch (UnsupportedOperationException expected) {}
+  }
+
   private static double[] array(double... primitives) {
     return primitives;
   }
@@ -50,7 +50,10 @@ public class PrimitiveFloatArraySubjectTest {
       throw new Error("Expected to throw.");
     } catch (AssertionError e) {
       assertThat(e.getMessage())
-          .isEqualTo("Not true that <(float[]) [2.2, 3.3]> is equal to <[3.3, 2.2]>");
+          .isEqualTo("Not true that the subject is equal to the expected array within a "
+              + "tolerance of 5.0E-6. It differs at 2 of 2 indices <[0, 1]>. The largest "
+              + "absolute error is 1.0999999046325684, at index 0, and the largest relative "
+              + "error is 0.49999994581396046, at index 1");
     }
   }
 
@@ -105,6 +108,45 @@ public class PrimitiveFloatArraySubjectTest {
     }
   }
 
+  @Test public void isSorted() {
+    assertThat(array(Float.NEGATIVE_INFINITY, -0.0f, 0.0f, Float.NaN)).isStrictlySorted();
+    try {
+      assertThat(array(1.0f, Float.NaN, 2.0f)).isSorted();
+      throw new Error("Expected to throw.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It has <NaN> followed by <2.0> at index 2");
+    }
+  }
+
+  @Test public void isEqualTo_Fail_NaN() {
+    try {
+      assertThat(array(1.0f, Float.NaN, 3.0f, 4.0f, 5.0f))
+          .isEqualTo(array(1.0f, Float.NaN, 3.0f, 4.0f, 5.0f), DEFAULT_TOLERANCE);
+      throw new Error("Expected to throw.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It differs at 1 of 5 indices <[1]>");
+    }
+  }
+
+  @Test public void usingTolerance() {
+    assertThat(array(1.0f, -0.0f, Float.NaN))
+        .usingTolerance(Tolerance.ulps(2).withNaNsEqual())
+        .isEqualTo(array(Math.nextUp(Math.nextUp(1.0f)), 0.0f, Float.NaN));
+  }
+
+  @Test public void usingTolerance_Fail() {
+    try {
+      assertThat(array(1.0f, Float.NaN))
+          .usingTolerance(Tolerance.relative(0.01f))
+          .isEqualTo(array(1.001f, Float.NaN));
+      throw new Error("Expected to throw.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).startsWith("Not true that the subject is equal to the expected "
+          + "array within a relative tolerance of 0.009999999776482582. "
+          + "It differs at 1 of 2 indices <[1]>");
+    }
+  }
+
   private static float[] array(float... primitives) {
     return primitives;
   }
@@ -16,6 +16,8 @@
 package com.google.common.truth;
 
 import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assert_;
+import static org.junit.Assert.fail;
 
 import com.google.common.truth.PrimitiveIntArraySubject;
 
@@ -48,7 +50,9 @@ public class PrimitiveIntArraySubjectTest {
     try {
       assertThat(array(2, 3)).isEqualTo(array(3, 2));
     } catch (AssertionError e) {
-      assertThat(e.getMessage()).is("Not true that <(int[]) [2, 3]> is equal to <[3, 2]>");
+      assertThat(e.getMessage()).is("Not true that the subject is equal to the expected int[]. "
+          + "It differs at index 0. From index 0, it has <[2, 3]>, and the expected array has "
+          + "<[3, 2]>. Both have length 2");
     }
   }
 
@@ -92,6 +96,249 @@ public class PrimitiveIntArraySubjectTest {
     }
   }
 
+  @Test public void contains() {
+    assertThat(array(5, 2, 9)).contains(2);
+    assertThat(array(5, 2, 9)).doesNotContain(3);
+  }
+
+  @Test public void containsFailure() {
+    try {
+      assertThat(array(5, 2, 9)).contains(3);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains <3>");
+    }
+  }
+
+  @Test public void doesNotContainFailure() {
+    try {
+      assertThat(array(5, 2, 9)).named("ids").doesNotContain(9);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage())
+          .isEqualTo("Not true that \"ids\" does not contain <9>. It has it at index 2");
+    }
+  }
+
+  @Test public void containsAllOf() {
+    assertThat(array(5, 2, 9, 2)).containsAllOf(2, 2, 9);
+    assertThat(array(5)).containsAllOf();
+  }
+
+  @Test public void containsAllOfFailure() {
+    try {
+      assertThat(array(5, 2, 9)).containsAllOf(2, 2, 4, 4, 4, 9);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains all of the "
+          + "expected elements. It is missing <[2, 4 [3 copies]]>");
+    }
+  }
+
+  @Test public void containsExactly() {
+    assertThat(array(5, 2, 9, 2)).containsExactly(2, 9, 2, 5);
+    assertThat(array()).containsExactly();
+  }
+
+  @Test public void containsExactlyFailure() {
+    try {
+      assertThat(array(5, 2, 9, 2, Integer.MIN_VALUE)).containsExactly(2, 9, 7, Integer.MAX_VALUE);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains exactly the "
+          + "expected elements. It is missing <[7, 2147483647]>. "
+          + "It has unexpected <[-2147483648, 2, 5]>");
+    }
+  }
+
+  @Test public void containsExactlyLargeArrays() {
+    int[] actual = new int[1000000];
+    int[] expected = new int[actual.length];
+    for (int i = 0; i < actual.length; i++) {
+      actual[i] = i * 3;
+      expected[actual.length - 1 - i] = i * 3;
+    }
+    assertThat(actual).containsExactly(expected);
+    expected[0] = -1;
+    expected[1] = -1;
+    try {
+      assertThat(actual).containsExactly(expected);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains exactly the "
+          + "expected elements. It is missing <[-1 [2 copies]]>. "
+          + "It has unexpected <[2999994, 2999997]>");
+    }
+  }
+
+  @Test public void containsNoneOf() {
+    assertThat(array(5, 2, 9)).containsNoneOf(1, 3, 4);
+  }
+
+  @Test public void containsNoneOfFailure() {
+    int[] actual = new int[100];
+    for (int i = 0; i < actual.length; i++) {
+      actual[i] = 99 - i;
+    }
+    int[] excluded = new int[50];
+    for (int i = 0; i < excluded.length; i++) {
+      excluded[i] = i * 2;
+    }
+    try {
+      assertThat(actual).containsNoneOf(excluded);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains none of the "
+          + "excluded elements. It has <[98, 96, 94, 92, 90, 88, 86, 84, 82, 80]> and 40 more");
+    }
+  }
+
+  @Test public void isSorted() {
+    assertThat(array(1, 2, 2, 5)).isSorted();
+    assertThat(array(1, 2, 3, 5)).isStrictlySorted();
+    assertThat(array(5, 2, 2, Integer.MIN_VALUE)).isSortedDescending();
+    assertThat(array()).isStrictlySorted();
+  }
+
+  @Test public void isSortedFailure() {
+    try {
+      assertThat(array(1, 3, 2, 0)).isSorted();
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage())
+          .isEqualTo("Not true that the subject is sorted. It has <3> followed by <2> at index 2");
+    }
+  }
+
+  @Test public void isStrictlySortedFailure() {
+    try {
+      assertThat(array(1, 2, 2)).named("ranks").isStrictlySorted();
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo(
+          "Not true that \"ranks\" is strictly sorted. It has <2> followed by <2> at index 2");
+    }
+  }
+
+  @Test public void isSortedDescendingFailure() {
+    try {
+      assertThat(array(3, 2, 4)).isSortedDescending();
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject is sorted in descending "
+          + "order. It has <2> followed by <4> at index 2");
+    }
+  }
+
+  @Test public void containsAfterIsSorted() {
+    int[] sorted = new int[100001];
+    for (int i = 0; i < sorted.length; i++) {
+      sorted[i] = i / 2 * 2;
+    }
+    PrimitiveIntArraySubject subject = assertThat(sorted).isSorted();
+    subject.contains(0);
+    subject.contains(100000);
+    subject.doesNotContain(99999);
+    subject.containsNoneOf(-1, 1, 3, 100001);
+    try {
+      subject.doesNotContain(50000);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage())
+          .isEqualTo("Not true that the subject does not contain <50000>. It has it at index 50000");
+    }
+    try {
+      subject.containsNoneOf(7, 8, 8, 6);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo(
+          "Not true that the subject contains none of the excluded elements. It has <[8, 6]>");
+    }
+  }
+
+  @Test public void isSortedDoesNotAffectSubject() {
+    int[] array = array(1, 2, 3, 4, 5);
+    PrimitiveIntArraySubject subject = assertThat(array);
+    subject.isSorted();
+    array[0] = 9;
+    subject.contains(9);
+    try {
+      subject.doesNotContain(9);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It has it at index 0");
+    }
+  }
+
+  @Test public void isSortedReturnsNamedSubject() {
+    try {
+      assertThat(array(1, 2, 4)).named("values").isSorted().contains(3);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that \"values\" contains <3>");
+    }
+  }
+
+  @Test public void containsAfterIsSortedDescending() {
+    PrimitiveIntArraySubject subject = assertThat(array(9, 7, 7, 3)).isSortedDescending();
+    subject.contains(3);
+    subject.doesNotContain(8);
+    try {
+      subject.doesNotContain(7);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith("It has it at index 1");
+    }
+  }
+
+  @Test public void isEqualTo_Fail_ShowsWindowAroundMismatch() {
+    int[] actual = new int[100000];
+    for (int i = 0; i < actual.length; i++) {
+      actual[i] = i;
+    }
+    int[] expected = actual.clone();
+    expected[70000] = -1;
+    expected[90000] = -1;
+    try {
+      assertThat(actual).named("values").isEqualTo(expected);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).is("Not true that \"values\" is equal to the expected int[]. "
+          + "It differs at index 70000. From index 69995, it has "
+          + "<[69995, 69996, 69997, 69998, 69999, 70000, 70001, 70002, 70003, 70004, 70005]>, "
+          + "and the expected array has "
+          + "<[69995, 69996, 69997, 69998, 69999, -1, 70001, 70002, 70003, 70004, 70005]>. "
+          + "Both have length 100000");
+    }
+  }
+
+  @Test public void isEqualTo_Fail_DifferentLengths() {
+    try {
+      assertThat(array(1, 2, 3)).isEqualTo(array(1, 2, 3, 4, 5, 6, 7, 8));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).is("Not true that the subject is equal to the expected int[]. "
+          + "It differs at index 3. From index 0, it has <[1, 2, 3]>, and the expected array has "
+          + "<[1, 2, 3, 4, 5, 6, 7, 8]>. It has length 3, and the expected array has length 8");
+    }
+  }
+
+  @Test public void isEqualTo_InParallel_ReportsLowestMismatch() {
+    int[] actual = new int[1000000];
+    int[] expected = actual.clone();
+    assert_().inParallel().that(actual).isEqualTo(expected);
+    for (int i = 999999; i >= 12345; i -= 100000) {
+      expected[i] = 1;
+    }
+    try {
+      assert_().inParallel().that(actual).isEqualTo(expected);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).contains("It differs at index 99999. From index 99994");
+    }
+    assert_().inParallel().that(actual).isNotEqualTo(expected);
+  }
+
   private static int[] array(int... ts) {
     return ts;
   }
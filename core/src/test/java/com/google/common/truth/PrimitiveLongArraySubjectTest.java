@@ -16,6 +16,7 @@
 package com.google.common.truth;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
 
 import com.google.common.truth.PrimitiveLongArraySubject;
 
@@ -48,7 +49,9 @@ public class PrimitiveLongArraySubjectTest {
     try {
       assertThat(array(2, 3)).isEqualTo(array(3, 2));
     } catch (AssertionError e) {
-      assertThat(e.getMessage()).is("Not true that <(long[]) [2, 3]> is equal to <[3, 2]>");
+      assertThat(e.getMessage()).is("Not true that the subject is equal to the expected long[]. "
+          + "It differs at index 0. From index 0, it has <[2, 3]>, and the expected array has "
+          + "<[3, 2]>. Both have length 2");
     }
   }
 
@@ -92,6 +95,43 @@ public class PrimitiveLongArraySubjectTest {
     }
   }
 
+  @Test public void contains() {
+    assertThat(array(5L, Long.MAX_VALUE)).contains(Long.MAX_VALUE);
+    assertThat(array(5L, Long.MAX_VALUE)).doesNotContain(Long.MIN_VALUE);
+  }
+
+  @Test public void containsAllOf() {
+    assertThat(array(0L, -1L, 1L << 40)).containsAllOf(1L << 40, 0L);
+  }
+
+  @Test public void containsExactly() {
+    long[] ids = new long[100000];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = (long) i << 32;
+    }
+    long[] shuffled = ids.clone();
+    for (int i = 0; i < shuffled.length; i += 2) {
+      long swap = shuffled[i];
+      shuffled[i] = shuffled[shuffled.length - 1 - i];
+      shuffled[shuffled.length - 1 - i] = swap;
+    }
+    assertThat(ids).containsExactly(shuffled);
+  }
+
+  @Test public void containsNoneOfFailure() {
+    try {
+      assertThat(array(0L, 1L << 33, 1L << 34)).containsNoneOf(1L << 34, 1L);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains none of the "
+          + "excluded elements. It has <[17179869184]>");
+    }
+  }
+
+  @Test public void isSorted() {
+    assertThat(array(Long.MIN_VALUE, -1L, 0L, Long.MAX_VALUE)).isStrictlySorted();
+  }
+
   private static long[] array(long... ts) {
     return ts;
   }
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.Arrays.asList;
+
+import com.google.common.base.Equivalence;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for {@link SequenceDiff}.
+ */
+@RunWith(JUnit4.class)
+public class SequenceDiffTest {
+  private static final Equivalence<Object> EQUALS = Equivalence.equals();
+
+  @Test public void equalSequences() {
+    assertThat(SequenceDiff.describe(asList(1, 2, 3), asList(1, 2, 3), EQUALS)).isNull();
+    assertThat(SequenceDiff.describe(asList(), asList(), EQUALS)).isNull();
+  }
+
+  @Test public void singleChange() {
+    assertThat(SequenceDiff.describe(asList(1, 2, 3, 4, 5), asList(1, 2, 6, 4, 5), EQUALS))
+        .isEqualTo("It differs from them (- unexpected, + missing):\n"
+            + "@@ subject index 0, expected index 0 @@\n"
+            + "  1\n  2\n- 3\n+ 6\n  4\n  5");
+  }
+
+  @Test public void distantChangesAreSeparateHunks() {
+    List<Integer> actual = range(0, 20);
+    List<Integer> expected = range(0, 20);
+    expected.remove(Integer.valueOf(2));
+    expected.add(15, 99);
+    assertThat(SequenceDiff.describe(actual, expected, EQUALS))
+        .isEqualTo("It differs from them (- unexpected, + missing):\n"
+            + "@@ subject index 0, expected index 0 @@\n"
+            + "  0\n  1\n- 2\n  3\n  4\n  5\n"
+            + "@@ subject index 13, expected index 12 @@\n"
+            + "  13\n  14\n  15\n+ 99\n  16\n  17\n  18");
+  }
+
+  @Test public void windowsReportIndexesInWholeSequences() {
+    assertThat(SequenceDiff.describe(asList(8, 9, 10), asList(8, 9, 11), 100, false, EQUALS))
+        .isEqualTo("It differs from them (- unexpected, + missing):\n"
+            + "@@ subject index 100, expected index 100 @@\n"
+            + "  8\n  9\n- 10\n+ 11");
+  }
+
+  @Test public void truncatedWindowsOmitChangeAtTheirEnd() {
+    assertThat(SequenceDiff.describe(asList(0, 1, 2, 3), asList(-1, 0, 1, 2), 0, true, EQUALS))
+        .isEqualTo("It differs from them (- unexpected, + missing):\n"
+            + "@@ subject index 0, expected index 0 @@\n"
+            + "+ -1\n  0\n  1\n  2");
+  }
+
+  @Test public void emptySide() {
+    assertThat(SequenceDiff.describe(asList(), asList(1, 2), EQUALS))
+        .isEqualTo("It differs from them (- unexpected, + missing):\n"
+            + "@@ subject index 0, expected index 0 @@\n"
+            + "+ 1\n+ 2");
+  }
+
+  @Test public void hunksAreCapped() {
+    List<Integer> actual = new ArrayList<Integer>();
+    List<Integer> expected = new ArrayList<Integer>();
+    for (int i = 0; i < 300; i++) {
+      actual.add(i);
+      expected.add(i % 20 == 10 ? -i : i);
+    }
+    assertThat(SequenceDiff.describe(actual, expected, EQUALS)).endsWith("\n... and 5 more hunks");
+  }
+
+  @Test public void tooManyEdits() {
+    assertThat(SequenceDiff.describe(range(0, 3000), range(5000, 8000), EQUALS))
+        .isEqualTo("It differs from them in more than 1000 places, the first at index 0");
+  }
+
+  @Test public void longSequencesWithFewEdits() {
+    List<Integer> actual = range(0, 50000);
+    List<Integer> expected = range(0, 50000);
+    expected.set(100, -1);
+    expected.remove(40000);
+    String diff = SequenceDiff.describe(actual, expected, EQUALS);
+    assertThat(diff).contains("@@ subject index 97, expected index 97 @@\n"
+        + "  97\n  98\n  99\n- 100\n+ -1\n  101\n  102\n  103");
+    assertThat(diff).contains("@@ subject index 39997, expected index 39997 @@\n"
+        + "  39997\n  39998\n  39999\n- 40000\n  40001\n  40002\n  40003");
+  }
+
+  @Test public void randomSequencesHaveMinimalValidScripts() {
+    Random random = new Random(0);
+    for (int trial = 0; trial < 2000; trial++) {
+      List<Integer> actual = randomList(random);
+      List<Integer> expected = randomList(random);
+      String diff = SequenceDiff.describe(actual, expected, EQUALS);
+      if (actual.equals(expected)) {
+        assertThat(diff).isNull();
+        continue;
+      }
+      int edits = replay(diff, actual, expected);
+      assertThat(edits).isEqualTo(
+          actual.size() + expected.size() - 2 * longestCommonSubsequence(actual, expected));
+    }
+  }
+
+  /**
+   * Checks that the hunks of {@code diff} turn {@code actual} into {@code expected}, taking the
+   * elements between them as unchanged, and returns the number of edits.
+   */
+  private static int replay(String diff, List<Integer> actual, List<Integer> expected) {
+    int i = 0;
+    int j = 0;
+    int edits = 0;
+    String[] lines = diff.split("\n");
+    for (int line = 1; line < lines.length; line++) {
+      String text = lines[line];
+      if (text.startsWith("@@")) {
+        String[] words = text.split("[ ,]+");
+        int hunkI = Integer.parseInt(words[3]);
+        int hunkJ = Integer.parseInt(words[6]);
+        assertThat(hunkI - i).isEqualTo(hunkJ - j);
+        for (; i < hunkI; i++, j++) {
+          assertThat(actual.get(i)).isEqualTo(expected.get(j));
+        }
+        continue;
+      }
+      Integer element = Integer.valueOf(text.substring(2));
+      if (text.startsWith("- ")) {
+        assertThat(actual.get(i++)).isEqualTo(element);
+        edits++;
+      } else if (text.startsWith("+ ")) {
+        assertThat(expected.get(j++)).isEqualTo(element);
+        edits++;
+      } else {
+        assertThat(actual.get(i++)).isEqualTo(element);
+        assertThat(expected.get(j++)).isEqualTo(element);
+      }
+    }
+    assertThat(actual.subList(i, actual.size())).isEqualTo(expected.subList(j, expected.size()));
+    return edits;
+  }
+
+  private static int longestCommonSubsequence(List<Integer> a, List<Integer> b) {
+    int[][] lengths = new int[a.size() + 1][b.size() + 1];
+    for (int i = a.size() - 1; i >= 0; i--) {
+      for (int j = b.size() - 1; j >= 0; j--) {
+        lengths[i][j] = a.get(i).equals(b.get(j))
+            ? lengths[i + 1][j + 1] + 1
+            : Math.max(lengths[i + 1][j], lengths[i][j + 1]);
+      }
+    }
+    return lengths[0][0];
+  }
+
+  private static List<Integer> randomList(Random random) {
+    List<Integer> list = new ArrayList<Integer>();
+    int size = random.nextInt(25);
+    for (int i = 0; i < size; i++) {
+      list.add(random.nextInt(4));
+    }
+    return list;
+  }
+
+  private static List<Integer> range(int from, int to) {
+    List<Integer> range = new ArrayList<Integer>();
+    for (int i = from; i < to; i++) {
+      range.add(i);
+    }
+    return range;
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.fail;
+
+import com.google.common.base.Converter;
+import com.google.common.io.Files;
+import com.google.common.primitives.Ints;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for {@link SpillingComparison}.
+ */
+@RunWith(JUnit4.class)
+public class SpillingComparisonTest {
+  @Test public void containsOnlyElementsInMemory() {
+    assertThat(asList(3, 1, 2, 1)).spillingToDisk(INTS)
+        .containsOnlyElementsIn(asList(1, 1, 2, 3));
+  }
+
+  @Test public void containsOnlyElementsSpilled() {
+    File directory = Files.createTempDir();
+    List<Integer> actual = shuffledRange(20000);
+    List<Integer> expected = shuffledRange(20000);
+    // A budget this small spills a run every few elements, so runs are also merged in stages.
+    assertThat(actual).spillingToDisk(INTS)
+        .withMemoryBudget(1000)
+        .inDirectory(directory)
+        .containsOnlyElementsIn(expected);
+    assertThat(asList(directory.list())).isEmpty();
+    directory.delete();
+  }
+
+  @Test public void containsOnlyElementsSpilledFailure() {
+    File directory = Files.createTempDir();
+    List<Integer> actual = shuffledRange(20000);
+    actual.add(5);
+    actual.add(5);
+    actual.remove(Integer.valueOf(7));
+    actual.add(-1);
+    try {
+      assertThat(actual).spillingToDisk(INTS)
+          .withMemoryBudget(1000)
+          .inDirectory(directory)
+          .containsOnlyElementsIn(shuffledRange(20000));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains only the expected "
+          + "elements. It is missing 1 occurrences of 1 distinct elements <[7]>. "
+          + "It has 3 unexpected occurrences of 2 distinct elements <[-1, 5 [2 copies]]>");
+    }
+    assertThat(asList(directory.list())).isEmpty();
+    directory.delete();
+  }
+
+  @Test public void failureExamplesAreCapped() {
+    try {
+      assertThat(shuffledRange(100)).named("output").spillingToDisk(INTS)
+          .reportingAtMost(3)
+          .containsOnlyElementsIn(asList(0, 1, 2));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that \"output\" contains only the expected "
+          + "elements. It has 97 unexpected occurrences of 97 distinct elements <[3, 4, 5]> "
+          + "and 94 more");
+    }
+  }
+
+  @Test public void containsAllIn() {
+    assertThat(shuffledRange(1000)).spillingToDisk(INTS)
+        .withMemoryBudget(100)
+        .containsAllIn(asList(999, 0, 500));
+  }
+
+  @Test public void containsAllInFailure() {
+    try {
+      assertThat(asList(1, 2, 3)).spillingToDisk(INTS).containsAllIn(asList(2, 2, 4));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).endsWith(
+          "It is missing 2 occurrences of 2 distinct elements <[2, 4]>");
+    }
+  }
+
+  @Test public void nullElements() {
+    assertThat(asList(1, null, null)).spillingToDisk(INTS)
+        .withMemoryBudget(10)
+        .containsOnlyElementsIn(asList(null, 1, null));
+  }
+
+  private static List<Integer> shuffledRange(int size) {
+    List<Integer> list = new ArrayList<Integer>();
+    for (int i = 0; i < size; i++) {
+      list.add(i);
+    }
+    Collections.shuffle(list, new Random(size));
+    return list;
+  }
+
+  /** Encodes integers in big-endian order, with the sign bit flipped so that they sort. */
+  private static final Converter<Integer, byte[]> INTS = new Converter<Integer, byte[]>() {
+    @Override protected byte[] doForward(Integer value) {
+      return Ints.toByteArray(value ^ Integer.MIN_VALUE);
+    }
+
+    @Override protected Integer doBackward(byte[] bytes) {
+      return Ints.fromByteArray(bytes) ^ Integer.MIN_VALUE;
+    }
+  };
+}
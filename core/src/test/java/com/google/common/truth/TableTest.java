@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
+import com.google.common.collect.TreeBasedTable;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for {@link Table} subjects.
+ */
+@RunWith(JUnit4.class)
+public class TableTest {
+  @Test public void basicPropositions() {
+    Table<String, Integer, String> table = ImmutableTable.of("a", 1, "x");
+    assertThat(table).isNotEmpty();
+    assertThat(table).hasSize(1);
+    assertThat(table).contains("a", 1);
+    assertThat(table).doesNotContain("a", 2);
+    assertThat(table).containsCell("a", 1, "x");
+    assertThat(ImmutableTable.of()).isEmpty();
+  }
+
+  @Test public void containsCellFailure() {
+    try {
+      assertThat(ImmutableTable.of("a", 1, "x")).containsCell("a", 1, "y");
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that <{a={1=x}}> contains cell <a> <1> <y>");
+    }
+  }
+
+  @Test public void containsExactlyCellsIn() {
+    Table<String, Integer, String> expected = HashBasedTable.create();
+    expected.put("b", 2, "y");
+    expected.put("a", 1, "x");
+    assertThat(ImmutableTable.<String, Integer, String>builder()
+        .put("a", 1, "x").put("b", 2, "y").build())
+        .containsExactlyCellsIn(expected);
+  }
+
+  @Test public void containsExactlyCellsInFailure() {
+    Table<String, Integer, String> actual = TreeBasedTable.create();
+    actual.put("a", 1, "x");
+    actual.put("a", 2, "y");
+    actual.put("b", 1, "z");
+    Table<String, Integer, String> expected = TreeBasedTable.create();
+    expected.put("a", 1, "x");
+    expected.put("a", 2, "w");
+    expected.put("c", 1, "v");
+    expected.put("c", 2, "u");
+    try {
+      assertThat(actual).containsExactlyCellsIn(expected);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains exactly the "
+          + "expected cells. It is missing the cells <{c={1=v, 2=u}}>. "
+          + "It has the unexpected cells <{b={1=z}}>. "
+          + "It has different values in the cells <{a={2=y (expected w)}}>");
+    }
+  }
+
+  @Test public void containsExactlyCellsInCapsExamples() {
+    TreeBasedTable<Integer, Integer, Integer> actual = TreeBasedTable.create();
+    for (int row = 0; row < 300; row++) {
+      for (int column = 0; column < 300; column++) {
+        actual.put(row, column, row * column);
+      }
+    }
+    Table<Integer, Integer, Integer> expected = TreeBasedTable.create(actual);
+    expected.remove(0, 0);
+    for (int column = 0; column < 12; column++) {
+      expected.put(299, column, -1);
+    }
+    try {
+      assertThat(actual).containsExactlyCellsIn(expected);
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains exactly the "
+          + "expected cells. It has the unexpected cells <{0={0=0}}>. "
+          + "It has different values in the cells <{299={0=0 (expected -1), 1=299 (expected -1), "
+          + "2=598 (expected -1), 3=897 (expected -1), 4=1196 (expected -1), "
+          + "5=1495 (expected -1), 6=1794 (expected -1), 7=2093 (expected -1), "
+          + "8=2392 (expected -1), 9=2691 (expected -1)}}> and 2 more");
+    }
+  }
+
+  @Test public void containsAllCellsIn() {
+    assertThat(ImmutableTable.<String, Integer, String>builder()
+        .put("a", 1, "x").put("b", 2, "y").build())
+        .containsAllCellsIn(ImmutableTable.of("b", 2, "y"));
+  }
+
+  @Test public void containsAllCellsInFailure() {
+    try {
+      assertThat(ImmutableTable.of("a", 1, "x"))
+          .containsAllCellsIn(ImmutableTable.of("b", 2, "y"));
+      fail("Should have thrown.");
+    } catch (AssertionError e) {
+      assertThat(e.getMessage()).isEqualTo("Not true that the subject contains all of the "
+          + "expected cells. It is missing the cells <{b={2=y}}>");
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2014 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.common.truth;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests for {@link Tolerance}.
+ */
+@RunWith(JUnit4.class)
+public class ToleranceTest {
+  @Test public void absolute() {
+    Tolerance tolerance = Tolerance.absolute(0.5);
+    assertThat(tolerance.matches(1.0, 1.5)).isTrue();
+    assertThat(tolerance.matches(1.0, 1.6)).isFalse();
+    assertThat(tolerance.matches(1e20, 1e20 + 1e5)).isFalse();
+    assertThat(tolerance.matches(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY)).isTrue();
+    assertThat(tolerance.matches(Double.NaN, Double.NaN)).isFalse();
+    assertThat(tolerance.toString()).isEqualTo("an absolute tolerance of 0.5");
+  }
+
+  @Test public void relative() {
+    Tolerance tolerance = Tolerance.relative(1e-6);
+    assertThat(tolerance.matches(1e20, 1e20 + 1e5)).isTrue();
+    assertThat(tolerance.matches(1e-20, 1.000001e-20)).isTrue();
+    assertThat(tolerance.matches(1e-20, 1.00001e-20)).isFalse();
+    assertThat(tolerance.matches(0.0, 1e-300)).isFalse();
+    assertThat(tolerance.matches(-0.0, 0.0)).isTrue();
+    assertThat(tolerance.matches(1.0f, 1.0000005f)).isTrue();
+    assertThat(tolerance.toString()).isEqualTo("a relative tolerance of 1.0E-6");
+  }
+
+  @Test public void ulps() {
+    Tolerance tolerance = Tolerance.ulps(2);
+    double one = 1.0;
+    double twoUp = Math.nextUp(Math.nextUp(one));
+    assertThat(tolerance.matches(one, twoUp)).isTrue();
+    assertThat(tolerance.matches(one, Math.nextUp(twoUp))).isFalse();
+    assertThat(tolerance.matches(0.0, -0.0)).isTrue();
+    assertThat(tolerance.matches(Double.MIN_VALUE, -Double.MIN_VALUE)).isTrue();
+    assertThat(tolerance.matches(Double.MAX_VALUE, Double.POSITIVE_INFINITY)).isTrue();
+    assertThat(tolerance.matches(-Double.MAX_VALUE, Double.MAX_VALUE)).isFalse();
+    assertThat(tolerance.matches(Double.NaN, Double.NaN)).isFalse();
+    assertThat(tolerance.matches(1.0f, Math.nextUp(Math.nextUp(1.0f)))).isTrue();
+    assertThat(tolerance.matches(1.0f, (float) twoUp)).isTrue();
+    assertThat(tolerance.toString()).isEqualTo("2 ULPs");
+  }
+
+  @Test public void ulpsCountInThePrecisionCompared() {
+    float f = 1.0f;
+    float next = Math.nextUp(f);
+    // One float ULP at 1.0 is 2^29 double ULPs.
+    assertThat(Tolerance.ulps(1).matches(f, next)).isTrue();
+    assertThat(Tolerance.ulps(1).matches((double) f, (double) next)).isFalse();
+    assertThat(Tolerance.ulps(1L << 29).matches((double) f, (double) next)).isTrue();
+  }
+
+  @Test public void withNaNsEqual() {
+    Tolerance tolerance = Tolerance.ulps(0).withNaNsEqual();
+    assertThat(tolerance.matches(Double.NaN, Double.NaN)).isTrue();
+    assertThat(tolerance.matches(Double.NaN, 0.0)).isFalse();
+    assertThat(tolerance.matches(Float.NaN, Float.NaN)).isTrue();
+    assertThat(Tolerance.absolute(0).withNaNsEqual().matches(0.0 / 0.0, Double.NaN)).isTrue();
+    assertThat(tolerance.toString()).isEqualTo("0 ULPs, with NaN equal to NaN");
+  }
+
+  @Test public void firstMismatchAgreesWithMatches() {
+    Tolerance[] tolerances = {
+        Tolerance.absolute(0.25),
+        Tolerance.relative(0.1),
+        Tolerance.ulps(3),
+        Tolerance.absolute(0.25).withNaNsEqual(),
+        Tolerance.relative(0.1).withNaNsEqual()};
+    double[] values = {0.0, -0.0, 1.0, 1.1, 1.3, Double.NaN, Double.POSITIVE_INFINITY, -2.0};
+    java.util.Random random = new java.util.Random(24);
+    for (Tolerance tolerance : tolerances) {
+      for (int trial = 0; trial < 200; trial++) {
+        int length = random.nextInt(12);
+        double[] actual = new double[length];
+        double[] expected = new double[length];
+        float[] actualFloats = new float[length];
+        float[] expectedFloats = new float[length];
+        for (int i = 0; i < length; i++) {
+          actual[i] = values[random.nextInt(values.length)];
+          expected[i] = (random.nextInt(3) == 0) ? values[random.nextInt(values.length)] : actual[i];
+          actualFloats[i] = (float) actual[i];
+          expectedFloats[i] = (float) expected[i];
+        }
+        int from = (length == 0) ? 0 : random.nextInt(length);
+        assertThat(tolerance.firstMismatch(actual, expected, from))
+            .isEqualTo(slowFirstMismatch(tolerance, actual, expected, from));
+        assertThat(tolerance.firstMismatch(actualFloats, expectedFloats, from))
+            .isEqualTo(slowFirstMismatch(tolerance, actual, expected, from));
+      }
+    }
+  }
+
+  private static int slowFirstMismatch(
+      Tolerance tolerance, double[] actual, double[] expected, int from) {
+    for (int i = from; i < actual.length; i++) {
+      if (!tolerance.matches(actual[i], expected[i])) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
@@ -19,12 +19,16 @@ import com.google.common.truth.AbstractArraySubject;
 import com.google.common.truth.BooleanSubject;
 import com.google.common.truth.ClassSubject;
 import com.google.common.truth.DefaultSubject;
+import com.google.common.truth.DoubleSubject;
 import com.google.common.truth.Expect;
 import com.google.common.truth.FailureStrategy;
+import com.google.common.truth.FloatSubject;
 import com.google.common.truth.IntegerSubject;
 import com.google.common.truth.IterableSubject;
 import com.google.common.truth.ListSubject;
 import com.google.common.truth.MapSubject;
+import com.google.common.truth.MultimapSubject;
+import com.google.common.truth.MultisetSubject;
 import com.google.common.truth.ObjectArraySubject;
 import com.google.common.truth.OptionalSubject;
 import com.google.common.truth.Ordered;
@@ -39,7 +43,9 @@ import com.google.common.truth.StringSubject;
 import com.google.common.truth.StringUtil;
 import com.google.common.truth.Subject;
 import com.google.common.truth.SubjectFactory;
+import com.google.common.truth.TableSubject;
 import com.google.common.truth.TestVerb;
+import com.google.common.truth.Tolerance;
 import com.google.common.truth.Truth;
 
 /**
@@ -51,12 +57,16 @@ public class Inventory {
   BooleanSubject b;
   ClassSubject c;
   DefaultSubject e;
+  DoubleSubject ds;
   Expect ab;
   FailureStrategy ac;
+  FloatSubject fs;
   IntegerSubject f;
   IterableSubject<?, ?, ?> g;
   ListSubject<?, ?, ?> h;
   MapSubject<?, ?, ?, ?> i;
+  MultimapSubject<?, ?, ?, ?> mm;
+  MultisetSubject<?, ?, ?> ms;
   ObjectArraySubject<?> j;
   OptionalSubject<?> k;
   Ordered l;
@@ -71,7 +81,9 @@ public class Inventory {
   StringUtil su;
   Subject<?, ?> t;
   SubjectFactory<?, ?> sf;
+  TableSubject<?, ?, ?, ?, ?> ts;
   TestVerb tv;
+  Tolerance to;
   Truth tr;
 }
 